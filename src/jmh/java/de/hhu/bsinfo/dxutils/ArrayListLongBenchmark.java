@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building an ArrayListLong of a given size by appending, prepending, inserting in the middle and adding arrays in
+ * bulk, and removing ranges (the operations of ArrayListLongTest at scale).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ArrayListLongBenchmark {
+
+    private static final int BULK_SIZE = 64;
+
+    @Param({"1000", "10000"})
+    private int m_size;
+
+    private long[] m_bulk;
+
+    /**
+     * Creates the array for bulk adds
+     */
+    @Setup
+    public void setup() {
+        m_bulk = new long[BULK_SIZE];
+        for (int i = 0; i < BULK_SIZE; i++) {
+            m_bulk[i] = i;
+        }
+    }
+
+    /**
+     * Appends all elements
+     *
+     * @return the list
+     */
+    @Benchmark
+    public ArrayListLong add() {
+        ArrayListLong list = new ArrayListLong();
+
+        for (int i = 0; i < m_size; i++) {
+            list.add(i);
+        }
+
+        return list;
+    }
+
+    /**
+     * Prepends all elements
+     *
+     * @return the list
+     */
+    @Benchmark
+    public ArrayListLong addFront() {
+        ArrayListLong list = new ArrayListLong();
+
+        for (int i = 0; i < m_size; i++) {
+            list.addFront(i);
+        }
+
+        return list;
+    }
+
+    /**
+     * Inserts all elements in the middle
+     *
+     * @return the list
+     */
+    @Benchmark
+    public ArrayListLong insertMiddle() {
+        ArrayListLong list = new ArrayListLong();
+
+        for (int i = 0; i < m_size; i++) {
+            list.insert(list.getSize() / 2, i);
+        }
+
+        return list;
+    }
+
+    /**
+     * Adds the elements in blocks of BULK_SIZE
+     *
+     * @return the list
+     */
+    @Benchmark
+    public ArrayListLong addAll() {
+        ArrayListLong list = new ArrayListLong();
+        ArrayListLong bulk = ArrayListLong.wrap(m_bulk);
+
+        for (int i = 0; i < m_size; i += BULK_SIZE) {
+            list.addAll(bulk);
+        }
+
+        return list;
+    }
+
+    /**
+     * Appends all elements and removes them again in blocks of BULK_SIZE from the front
+     *
+     * @return the list
+     */
+    @Benchmark
+    public ArrayListLong removeFront() {
+        ArrayListLong list = new ArrayListLong();
+
+        for (int i = 0; i < m_size; i++) {
+            list.add(i);
+        }
+        while (list.getSize() >= BULK_SIZE) {
+            for (int i = 0; i < BULK_SIZE; i++) {
+                list.remove(0);
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * Appends all elements and removes them again in ranges of BULK_SIZE from the front
+     *
+     * @return the list
+     */
+    @Benchmark
+    public ArrayListLong removeRangeFront() {
+        ArrayListLong list = new ArrayListLong();
+
+        for (int i = 0; i < m_size; i++) {
+            list.add(i);
+        }
+        while (list.getSize() >= BULK_SIZE) {
+            list.removeRange(0, BULK_SIZE);
+        }
+
+        return list;
+    }
+
+}
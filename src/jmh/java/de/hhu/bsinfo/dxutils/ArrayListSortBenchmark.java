@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sorting an ArrayListLong of shuffled random values or chunk IDs (creator in the upper 16 bits, sequential local
+ * ID) with ArrayListLong.sort() versus Arrays.sort(), and sorting plus removing duplicates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ArrayListSortBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int m_size;
+
+    @Param({"RANDOM", "CHUNK_ID"})
+    private String m_keyDistribution;
+
+    private long[] m_values;
+    private ArrayListLong m_list;
+
+    /**
+     * Creates the shuffled values
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+
+        m_values = new long[m_size];
+        for (int i = 0; i < m_size; i++) {
+            if ("RANDOM".equals(m_keyDistribution)) {
+                m_values[i] = random.nextLong();
+            } else {
+                m_values[i] = 0x1234L << 48 | i + 1;
+            }
+        }
+
+        for (int i = m_size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long tmp = m_values[i];
+            m_values[i] = m_values[j];
+            m_values[j] = tmp;
+        }
+
+        m_list = new ArrayListLong(m_size);
+    }
+
+    /**
+     * Sorts the values with ArrayListLong.sort()
+     *
+     * @return the list
+     */
+    @Benchmark
+    public ArrayListLong sort() {
+        m_list.trim(0);
+        m_list.addAll(m_values, 0, m_size);
+        m_list.sort();
+
+        return m_list;
+    }
+
+    /**
+     * Sorts the values with Arrays.sort()
+     *
+     * @return the list
+     */
+    @Benchmark
+    public ArrayListLong arraysSort() {
+        m_list.trim(0);
+        m_list.addAll(m_values, 0, m_size);
+        Arrays.sort(m_list.getArray(), 0, m_size);
+
+        return m_list;
+    }
+
+    /**
+     * Sorts the values with ArrayListLong.sort() and removes duplicates
+     *
+     * @return the list
+     */
+    @Benchmark
+    public ArrayListLong sortUnique() {
+        m_list.trim(0);
+        m_list.addAll(m_values, 0, m_size);
+        m_list.sort();
+        m_list.unique();
+
+        return m_list;
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Batched (getAll/putAll) versus per-key access of Cache. Every invocation processes one batch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CacheBatchBenchmark {
+
+    private static final int CACHE_SIZE = 100000;
+
+    @Param({"10", "100", "1000"})
+    private int m_batchSize;
+
+    private Cache<Long, Long> m_cache;
+    private Long[] m_keys;
+    private Long[] m_values;
+    private Map<Long, Long> m_entries;
+
+    /**
+     * Fills the cache and creates a batch of random keys (some of them missing in the cache)
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+
+        m_cache = new Cache<>(CACHE_SIZE, Cache.POLICY.LRU);
+        for (long i = 0; i < CACHE_SIZE; i++) {
+            m_cache.put(i, i);
+        }
+
+        m_keys = new Long[m_batchSize];
+        m_values = new Long[m_batchSize];
+        m_entries = new HashMap<>();
+        for (int i = 0; i < m_batchSize; i++) {
+            m_keys[i] = (long) random.nextInt(CACHE_SIZE * 11 / 10);
+            m_entries.put(m_keys[i], m_keys[i]);
+        }
+    }
+
+    /**
+     * Looks up the batch key by key
+     *
+     * @param p_blackhole
+     *         consumes the values
+     */
+    @Benchmark
+    public void getPerKey(final Blackhole p_blackhole) {
+        for (Long key : m_keys) {
+            p_blackhole.consume(m_cache.get(key));
+        }
+    }
+
+    /**
+     * Looks up the batch with getAll
+     *
+     * @param p_blackhole
+     *         consumes the values
+     */
+    @Benchmark
+    public void getAll(final Blackhole p_blackhole) {
+        p_blackhole.consume(m_cache.getAll(m_keys, m_values));
+    }
+
+    /**
+     * Puts the batch key by key
+     */
+    @Benchmark
+    public void putPerKey() {
+        for (Map.Entry<Long, Long> entry : m_entries.entrySet()) {
+            m_cache.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Puts the batch with putAll
+     */
+    @Benchmark
+    public void putAll() {
+        m_cache.putAll(m_entries);
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of Cache.put on a full cache, i.e. every put evicts an entry
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CacheBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int m_size;
+
+    @Param({"LRU", "DUMMY"})
+    private Cache.POLICY m_policy;
+
+    private Cache<Long, Long> m_cache;
+    private long m_nextKey;
+
+    /**
+     * Fills the cache up to its capacity
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        m_cache = new Cache<>(m_size, m_policy);
+
+        for (m_nextKey = 0; m_nextKey < m_size; m_nextKey++) {
+            m_cache.put(m_nextKey, m_nextKey);
+        }
+    }
+
+    /**
+     * Inserts a new key into the full cache
+     */
+    @Benchmark
+    public void putAtCapacity() {
+        m_cache.put(m_nextKey, m_nextKey);
+        m_nextKey++;
+    }
+
+}
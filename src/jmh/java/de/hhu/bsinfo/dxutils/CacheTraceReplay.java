@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Replays synthetic key traces against Cache and prints the hit rate of each eviction policy.
+ * Run with: java -cp build/libs/dxutils-jmh.jar de.hhu.bsinfo.dxutils.CacheTraceReplay
+ */
+public final class CacheTraceReplay {
+
+    private static final int REQUESTS = 2_000_000;
+    private static final int[] CACHE_SIZES = {1_000, 10_000, 50_000};
+    private static final Cache.POLICY[] POLICIES = {Cache.POLICY.LRU, Cache.POLICY.TINY_LFU};
+
+    /**
+     * Static class
+     */
+    private CacheTraceReplay() {
+
+    }
+
+    /**
+     * Application entry point
+     *
+     * @param p_args
+     *         not used
+     */
+    public static void main(final String[] p_args) {
+        replay("zipf(0.99), 1M keys", zipfTrace(1_000_000, 0.99, REQUESTS, 42));
+        replay("zipf(0.99), 100K keys + scans", scanTrace(100_000, 0.99, REQUESTS, 20_000, 100_000, 42));
+    }
+
+    /**
+     * Replays a trace for all cache sizes and policies: every miss is followed by a put
+     *
+     * @param p_name
+     *         name of the trace
+     * @param p_trace
+     *         the keys
+     */
+    private static void replay(final String p_name, final long[] p_trace) {
+        System.out.printf("%s (%d requests)%n", p_name, p_trace.length);
+        System.out.printf("%10s %10s %10s%n", "size", "policy", "hit rate");
+
+        for (int size : CACHE_SIZES) {
+            for (Cache.POLICY policy : POLICIES) {
+                Cache<Long, Long> cache = new Cache<>(size, policy);
+                long hits = 0;
+
+                for (long key : p_trace) {
+                    if (cache.get(key) != null) {
+                        hits++;
+                    } else {
+                        cache.put(key, key);
+                    }
+                }
+
+                System.out.printf("%10d %10s %9.2f%%%n", size, policy, 100.0 * hits / p_trace.length);
+            }
+        }
+
+        System.out.println();
+    }
+
+    /**
+     * Creates a trace with zipf distributed keys
+     *
+     * @param p_keys
+     *         number of distinct keys
+     * @param p_skew
+     *         skew of the distribution
+     * @param p_length
+     *         number of requests
+     * @param p_seed
+     *         seed for the random generator
+     * @return the trace
+     */
+    private static long[] zipfTrace(final int p_keys, final double p_skew, final int p_length, final long p_seed) {
+        double[] cdf = zipfCdf(p_keys, p_skew);
+        Random random = new Random(p_seed);
+        long[] trace = new long[p_length];
+
+        for (int i = 0; i < p_length; i++) {
+            trace[i] = sample(cdf, random);
+        }
+
+        return trace;
+    }
+
+    /**
+     * Creates a trace with zipf distributed keys interrupted periodically by scans over keys used only once
+     *
+     * @param p_keys
+     *         number of distinct (hot) keys
+     * @param p_skew
+     *         skew of the distribution
+     * @param p_length
+     *         number of requests
+     * @param p_scanLength
+     *         number of keys per scan
+     * @param p_scanInterval
+     *         number of requests between two scans
+     * @param p_seed
+     *         seed for the random generator
+     * @return the trace
+     */
+    private static long[] scanTrace(final int p_keys, final double p_skew, final int p_length, final int p_scanLength,
+            final int p_scanInterval, final long p_seed) {
+        double[] cdf = zipfCdf(p_keys, p_skew);
+        Random random = new Random(p_seed);
+        long[] trace = new long[p_length];
+        long scanKey = p_keys;
+        int i = 0;
+
+        while (i < p_length) {
+            for (int j = 0; j < p_scanInterval && i < p_length; j++) {
+                trace[i++] = sample(cdf, random);
+            }
+
+            for (int j = 0; j < p_scanLength && i < p_length; j++) {
+                trace[i++] = scanKey++;
+            }
+        }
+
+        return trace;
+    }
+
+    /**
+     * Computes the cumulative distribution function of a zipf distribution
+     *
+     * @param p_keys
+     *         number of distinct keys
+     * @param p_skew
+     *         skew of the distribution
+     * @return the cdf
+     */
+    private static double[] zipfCdf(final int p_keys, final double p_skew) {
+        double[] cdf = new double[p_keys];
+        double sum = 0;
+
+        for (int i = 0; i < p_keys; i++) {
+            sum += 1.0 / Math.pow(i + 1, p_skew);
+            cdf[i] = sum;
+        }
+
+        for (int i = 0; i < p_keys; i++) {
+            cdf[i] /= sum;
+        }
+
+        return cdf;
+    }
+
+    /**
+     * Draws a key from a distribution
+     *
+     * @param p_cdf
+     *         the cdf of the distribution
+     * @param p_random
+     *         the random generator
+     * @return the key
+     */
+    private static long sample(final double[] p_cdf, final Random p_random) {
+        int index = Arrays.binarySearch(p_cdf, p_random.nextDouble());
+
+        return index >= 0 ? index : -index - 1;
+    }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Multi-threaded lookups and updates of chunk IDs in ConcurrentLongHashTable versus ConcurrentHashMap. The number of
+ * threads can be changed with -t (e.g. -t max).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+public class ConcurrentHashTableBenchmark {
+
+    private static final int KEYS = 1 << 20;
+
+    private ConcurrentLongHashTable m_table;
+    private ConcurrentHashMap<Long, Long> m_map;
+
+    /**
+     * Fills both maps with chunk IDs of four creators
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        m_table = new ConcurrentLongHashTable(KEYS * 2);
+        m_map = new ConcurrentHashMap<>(KEYS * 2);
+
+        for (int i = 0; i < KEYS; i++) {
+            m_table.put(key(i), i);
+            m_map.put(key(i), (long) i);
+        }
+    }
+
+    /**
+     * Releases the off-heap memory
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        m_table.free();
+    }
+
+    /**
+     * Gets the chunk ID for an index
+     *
+     * @param p_index
+     *         the index
+     * @return the chunk ID
+     */
+    private static long key(final int p_index) {
+        return (long) (p_index % 4 + 1) << 48 | p_index / 4 + 1;
+    }
+
+    /**
+     * Looks up a key in ConcurrentLongHashTable
+     *
+     * @param p_cursor
+     *         the thread's key sequence
+     * @return the value
+     */
+    @Benchmark
+    public long tableGet(final Cursor p_cursor) {
+        return m_table.get(key(p_cursor.next()));
+    }
+
+    /**
+     * Looks up a key in ConcurrentHashMap
+     *
+     * @param p_cursor
+     *         the thread's key sequence
+     * @return the value
+     */
+    @Benchmark
+    public Long mapGet(final Cursor p_cursor) {
+        return m_map.get(key(p_cursor.next()));
+    }
+
+    /**
+     * Updates a key in ConcurrentLongHashTable
+     *
+     * @param p_cursor
+     *         the thread's key sequence
+     * @return the old value
+     */
+    @Benchmark
+    public long tablePut(final Cursor p_cursor) {
+        int index = p_cursor.next();
+
+        return m_table.put(key(index), index);
+    }
+
+    /**
+     * Updates a key in ConcurrentHashMap
+     *
+     * @param p_cursor
+     *         the thread's key sequence
+     * @return the old value
+     */
+    @Benchmark
+    public Long mapPut(final Cursor p_cursor) {
+        int index = p_cursor.next();
+
+        return m_map.put(key(index), (long) index);
+    }
+
+    /**
+     * Pseudo-random key sequence of a thread
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int m_state = (int) System.nanoTime() | 1;
+
+        /**
+         * Gets the next index (xorshift)
+         *
+         * @return an index less than KEYS
+         */
+        int next() {
+            m_state ^= m_state << 13;
+            m_state ^= m_state >>> 17;
+            m_state ^= m_state << 5;
+
+            return m_state & KEYS - 1;
+        }
+
+    }
+
+}
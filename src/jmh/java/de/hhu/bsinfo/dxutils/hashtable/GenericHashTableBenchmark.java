@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Lookups and inserts of chunk IDs with object values in GenericHashTable versus HashMap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GenericHashTableBenchmark {
+
+    private static final int KEYS = 1 << 20;
+
+    private GenericHashTable<Object> m_table;
+    private HashMap<Long, Object> m_map;
+    private long[] m_keys;
+    private Object m_value;
+    private int m_next;
+
+    /**
+     * Fills both maps with chunk IDs of four creators
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+
+        m_table = new GenericHashTable<>();
+        m_map = new HashMap<>();
+        m_value = new Object();
+        m_keys = new long[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            m_keys[i] = (long) (i % 4 + 1) << 48 | i / 4 + 1;
+            m_table.put(m_keys[i], m_value);
+            m_map.put(m_keys[i], m_value);
+        }
+
+        // Look the keys up in random order
+        for (int i = KEYS - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long tmp = m_keys[i];
+            m_keys[i] = m_keys[j];
+            m_keys[j] = tmp;
+        }
+    }
+
+    /**
+     * Gets the next key (always present)
+     *
+     * @return the current key
+     */
+    private long nextKey() {
+        m_next = m_next + 1 & KEYS - 1;
+
+        return m_keys[m_next];
+    }
+
+    /**
+     * Looks up a present key in GenericHashTable
+     *
+     * @return the value
+     */
+    @Benchmark
+    public Object tableGetHit() {
+        return m_table.get(nextKey());
+    }
+
+    /**
+     * Looks up a missing key (other creator) in GenericHashTable
+     *
+     * @return the value
+     */
+    @Benchmark
+    public Object tableGetMiss() {
+        return m_table.get(nextKey() + (8L << 48));
+    }
+
+    /**
+     * Looks up a present key in HashMap
+     *
+     * @return the value
+     */
+    @Benchmark
+    public Object mapGetHit() {
+        return m_map.get(nextKey());
+    }
+
+    /**
+     * Looks up a missing key (other creator) in HashMap
+     *
+     * @return the value
+     */
+    @Benchmark
+    public Object mapGetMiss() {
+        return m_map.get(nextKey() + (8L << 48));
+    }
+
+    /**
+     * Fills an empty GenericHashTable with all keys
+     *
+     * @param p_blackhole
+     *         consumes the table
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void tableFill(final Blackhole p_blackhole) {
+        GenericHashTable<Object> table = new GenericHashTable<>();
+
+        for (long key : m_keys) {
+            table.put(key, m_value);
+        }
+        p_blackhole.consume(table);
+    }
+
+    /**
+     * Fills an empty HashMap with all keys
+     *
+     * @param p_blackhole
+     *         consumes the map
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void mapFill(final Blackhole p_blackhole) {
+        HashMap<Long, Object> map = new HashMap<>();
+
+        for (long key : m_keys) {
+            map.put(key, m_value);
+        }
+        p_blackhole.consume(map);
+    }
+
+}
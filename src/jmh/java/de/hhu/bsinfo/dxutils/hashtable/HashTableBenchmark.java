@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of get and put of LongHashTable and LongIntHashTable filled up to a given load factor. Keys are either
+ * random or chunk IDs (creator in the upper 16 bits, sequential local ID). LongIntHashTable uses linear or Robin Hood
+ * probing, OffHeapLongIntHashTable is the off-heap variant of LongIntHashTable. Walking all entries of
+ * LongIntHashTable with convert() versus forEach().
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HashTableBenchmark {
+
+    private static final int CAPACITY = 1 << 20;
+
+    @Param({"0.5", "0.9"})
+    private float m_loadFactor;
+
+    @Param({"RANDOM", "CHUNK_ID"})
+    private String m_keyDistribution;
+
+    @Param({"false", "true"})
+    private boolean m_robinHood;
+
+    private LongHashTable m_longTable;
+    private LongIntHashTable m_longIntTable;
+    private OffHeapLongIntHashTable m_offHeapTable;
+    private long[] m_keys;
+    private long[] m_missingKeys;
+    private int m_next;
+
+    /**
+     * Fills both tables up to the load factor (just below the rehash threshold)
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        int count;
+
+        m_longTable = new LongHashTable(CAPACITY);
+        m_longIntTable = new LongIntHashTable(CAPACITY, m_robinHood);
+        m_offHeapTable = new OffHeapLongIntHashTable(CAPACITY);
+
+        count = (int) (m_longTable.capacity() * m_loadFactor) - 1;
+        m_keys = new long[count];
+        m_missingKeys = new long[count];
+        for (int i = 0; i < count; i++) {
+            if ("RANDOM".equals(m_keyDistribution)) {
+                do {
+                    m_keys[i] = random.nextLong();
+                } while (m_keys[i] == 0);
+                m_missingKeys[i] = m_keys[i] ^ 0x5555;
+            } else {
+                m_keys[i] = (long) (i % 4 + 1) << 48 | i / 4 + 1;
+                m_missingKeys[i] = (long) (i % 4 + 5) << 48 | i / 4 + 1;
+            }
+
+            m_longTable.put(m_keys[i], i);
+            m_longIntTable.put(m_keys[i], i);
+            m_offHeapTable.put(m_keys[i], i);
+        }
+
+        // Look the keys up in random order
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long tmp = m_keys[i];
+            m_keys[i] = m_keys[j];
+            m_keys[j] = tmp;
+        }
+    }
+
+    /**
+     * Releases the off-heap memory
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        m_offHeapTable.free();
+    }
+
+    /**
+     * Gets the next key (always present)
+     *
+     * @return the current key
+     */
+    private long nextKey() {
+        if (++m_next == m_keys.length) {
+            m_next = 0;
+        }
+
+        return m_keys[m_next];
+    }
+
+    /**
+     * Looks up a present key in LongHashTable
+     *
+     * @return the value
+     */
+    @Benchmark
+    public long longGetHit() {
+        return m_longTable.get(nextKey());
+    }
+
+    /**
+     * Looks up a missing key in LongHashTable
+     *
+     * @return the value
+     */
+    @Benchmark
+    public long longGetMiss() {
+        nextKey();
+        return m_longTable.get(m_missingKeys[m_next]);
+    }
+
+    /**
+     * Overwrites the value of a present key in LongHashTable
+     */
+    @Benchmark
+    public void longPut() {
+        m_longTable.put(nextKey(), m_next);
+    }
+
+    /**
+     * Looks up a present key in LongIntHashTable
+     *
+     * @return the value
+     */
+    @Benchmark
+    public int longIntGetHit() {
+        return m_longIntTable.get(nextKey());
+    }
+
+    /**
+     * Looks up a missing key in LongIntHashTable
+     *
+     * @return the value
+     */
+    @Benchmark
+    public int longIntGetMiss() {
+        nextKey();
+        return m_longIntTable.get(m_missingKeys[m_next]);
+    }
+
+    /**
+     * Overwrites the value of a present key in LongIntHashTable
+     */
+    @Benchmark
+    public void longIntPut() {
+        m_longIntTable.put(nextKey(), m_next);
+    }
+
+    /**
+     * Looks up a present key in OffHeapLongIntHashTable
+     *
+     * @return the value
+     */
+    @Benchmark
+    public int offHeapGetHit() {
+        return m_offHeapTable.get(nextKey());
+    }
+
+    /**
+     * Overwrites the value of a present key in OffHeapLongIntHashTable
+     */
+    @Benchmark
+    public void offHeapPut() {
+        m_offHeapTable.put(nextKey(), m_next);
+    }
+
+    /**
+     * Walks all entries of LongIntHashTable with convert()
+     *
+     * @return the sum of the values
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long longIntConvert() {
+        long sum = 0;
+
+        for (long[] entry : m_longIntTable.convert()) {
+            sum += entry[1];
+        }
+
+        return sum;
+    }
+
+    /**
+     * Walks all entries of LongIntHashTable with forEach()
+     *
+     * @param p_blackhole
+     *         consumes the values
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void longIntForEach(final Blackhole p_blackhole) {
+        m_longIntTable.forEach((p_key, p_value) -> p_blackhole.consume(p_value));
+    }
+
+    /**
+     * Fills an empty LongHashTable up to the load factor
+     *
+     * @param p_blackhole
+     *         consumes the table
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void longFill(final Blackhole p_blackhole) {
+        m_longTable.clear();
+        for (long key : m_keys) {
+            m_longTable.put(key, key);
+        }
+        p_blackhole.consume(m_longTable);
+    }
+
+}
@@ -17,6 +17,7 @@
 package de.hhu.bsinfo.dxutils;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 import de.hhu.bsinfo.dxutils.serialization.Exportable;
 import de.hhu.bsinfo.dxutils.serialization.Exporter;
@@ -31,6 +32,11 @@ import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
  */
 public class ArrayListLong implements Importable, Exportable {
 
+    // Smaller lists are sorted with Arrays.sort, larger ones with a radix sort
+    private static final int RADIX_SORT_THRESHOLD = 1 << 10;
+    // Larger lists are sorted in parallel if the common fork-join pool has more than one thread
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 22;
+
     private int m_capacityChunk = 10;
     private long[] m_array;
     private int m_size = 0;
@@ -75,6 +81,7 @@ public class ArrayListLong implements Importable, Exportable {
     public ArrayListLong(final ArrayListLong p_list) {
         m_array = new long[p_list.m_size];
         System.arraycopy(p_list.m_array, 0, m_array, 0, m_array.length);
+        m_size = p_list.m_size;
     }
 
     /**
@@ -150,6 +157,24 @@ public class ArrayListLong implements Importable, Exportable {
         return m_array;
     }
 
+    /**
+     * Make sure the array can hold the given number of elements without resizing. The capacity grows by at least
+     * half of the current capacity, so appending is amortized O(1) per element.
+     *
+     * @param p_capacity
+     *         Minimum capacity
+     */
+    public void ensureCapacity(final int p_capacity) {
+        if (p_capacity > m_array.length) {
+            int newCapacity = m_array.length + Math.max(m_array.length >> 1, m_capacityChunk);
+            if (newCapacity < p_capacity || newCapacity < 0) {
+                newCapacity = p_capacity;
+            }
+
+            m_array = Arrays.copyOf(m_array, newCapacity);
+        }
+    }
+
     /**
      * Add an element to the array. The array is automatically resized if necessary
      *
@@ -157,10 +182,7 @@ public class ArrayListLong implements Importable, Exportable {
      *         Value to add
      */
     public void add(final long p_val) {
-        if (m_array.length - m_size == 0) {
-            m_array = Arrays.copyOf(m_array, m_array.length + m_capacityChunk);
-            Arrays.fill(m_array, m_size, m_array.length, 0);
-        }
+        ensureCapacity(m_size + 1);
 
         m_array[m_size++] = p_val;
     }
@@ -175,18 +197,15 @@ public class ArrayListLong implements Importable, Exportable {
      *         Value to add
      */
     public void add(final int p_index, final long p_val) {
-        if (m_array.length <= p_index) {
-            int oldSize = m_array.length;
-            int newSize = p_index / m_capacityChunk * m_capacityChunk + m_capacityChunk;
-            m_array = Arrays.copyOf(m_array, newSize);
-            Arrays.fill(m_array, oldSize, m_array.length, 0);
-        }
+        ensureCapacity(p_index + 1);
 
-        m_array[p_index] = p_val;
-
-        if (p_index > m_size) {
+        if (p_index >= m_size) {
+            // Elements between the old size and the index are 0
+            Arrays.fill(m_array, m_size, p_index, 0);
             m_size = p_index + 1;
         }
+
+        m_array[p_index] = p_val;
     }
 
     /**
@@ -196,9 +215,24 @@ public class ArrayListLong implements Importable, Exportable {
      *         Array with elements to add to the current one
      */
     public void addAll(final ArrayListLong p_list) {
-        m_array = Arrays.copyOf(m_array, m_array.length + p_list.m_size);
-        System.arraycopy(p_list.m_array, 0, m_array, m_size, p_list.m_size);
-        m_size += p_list.m_size;
+        addAll(p_list.m_array, 0, p_list.m_size);
+    }
+
+    /**
+     * Add values of a primitive array
+     *
+     * @param p_array
+     *         Array with elements to add
+     * @param p_offset
+     *         Index of the first element to add
+     * @param p_length
+     *         Number of elements to add
+     */
+    public void addAll(final long[] p_array, final int p_offset, final int p_length) {
+        ensureCapacity(m_size + p_length);
+
+        System.arraycopy(p_array, p_offset, m_array, m_size, p_length);
+        m_size += p_length;
     }
 
     /**
@@ -208,11 +242,7 @@ public class ArrayListLong implements Importable, Exportable {
      *         Value to add to the front
      */
     public void addFront(final long p_val) {
-        long[] tmp = new long[m_array.length + 1];
-        System.arraycopy(m_array, 0, tmp, 1, m_array.length);
-        tmp[0] = p_val;
-        m_array = tmp;
-        m_size++;
+        insert(0, p_val);
     }
 
     /**
@@ -228,14 +258,10 @@ public class ArrayListLong implements Importable, Exportable {
             throw new ArrayIndexOutOfBoundsException(p_index);
         }
 
-        long[] tmp = new long[m_size + 1];
-        System.arraycopy(m_array, 0, tmp, 0, p_index);
-
-        tmp[p_index] = p_val;
+        ensureCapacity(m_size + 1);
 
-        System.arraycopy(m_array, p_index, tmp, p_index + 1, m_size - p_index);
-
-        m_array = tmp;
+        System.arraycopy(m_array, p_index, m_array, p_index + 1, m_size - p_index);
+        m_array[p_index] = p_val;
         m_size++;
     }
 
@@ -252,14 +278,10 @@ public class ArrayListLong implements Importable, Exportable {
             throw new ArrayIndexOutOfBoundsException(p_index);
         }
 
-        long[] tmp = new long[m_size + p_vals.length];
-        System.arraycopy(m_array, 0, tmp, 0, p_index);
-
-        System.arraycopy(p_vals, 0, tmp, p_index, p_vals.length);
+        ensureCapacity(m_size + p_vals.length);
 
-        System.arraycopy(m_array, p_index, tmp, p_index + p_vals.length, m_size - p_index);
-
-        m_array = tmp;
+        System.arraycopy(m_array, p_index, m_array, p_index + p_vals.length, m_size - p_index);
+        System.arraycopy(p_vals, 0, m_array, p_index, p_vals.length);
         m_size += p_vals.length;
     }
 
@@ -307,6 +329,24 @@ public class ArrayListLong implements Importable, Exportable {
         return oldValue;
     }
 
+    /**
+     * Remove a range of elements from the array. This shifts all following elements to the front.
+     *
+     * @param p_fromIndex
+     *         Index of the first element to remove
+     * @param p_toIndex
+     *         Index after the last element to remove
+     */
+    public void removeRange(final int p_fromIndex, final int p_toIndex) {
+        if (p_fromIndex < 0 || p_toIndex > m_size || p_fromIndex > p_toIndex) {
+            throw new ArrayIndexOutOfBoundsException("Range " + p_fromIndex + " to " + p_toIndex +
+                    " out of bounds for size " + m_size);
+        }
+
+        System.arraycopy(m_array, p_toIndex, m_array, p_fromIndex, m_size - p_toIndex);
+        m_size -= p_toIndex - p_fromIndex;
+    }
+
     /**
      * Trim the array, i.e. set the size to a lower value to drop the last elements
      *
@@ -321,6 +361,83 @@ public class ArrayListLong implements Importable, Exportable {
         m_size = p_size;
     }
 
+    /**
+     * Sort the elements in ascending order. Uses an LSD radix sort on 8 bit digits which skips digits that are
+     * equal for all elements (e.g. the creator of chunk IDs). Very large lists are sorted in parallel.
+     */
+    public void sort() {
+        if (m_size < RADIX_SORT_THRESHOLD) {
+            Arrays.sort(m_array, 0, m_size);
+        } else if (m_size >= PARALLEL_SORT_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            Arrays.parallelSort(m_array, 0, m_size);
+        } else {
+            radixSort(m_array, m_size);
+        }
+    }
+
+    /**
+     * Search for a value in the sorted array
+     *
+     * @param p_val
+     *         Value to search for
+     * @return Index of the value if found, (-(insertion point) - 1) otherwise (see Arrays.binarySearch)
+     */
+    public int binarySearch(final long p_val) {
+        return Arrays.binarySearch(m_array, 0, m_size, p_val);
+    }
+
+    /**
+     * Remove duplicates from the sorted array
+     *
+     * @return Number of removed elements
+     */
+    public int unique() {
+        int size;
+        int removed;
+
+        if (m_size < 2) {
+            return 0;
+        }
+
+        size = 1;
+        for (int i = 1; i < m_size; i++) {
+            if (m_array[i] != m_array[size - 1]) {
+                m_array[size++] = m_array[i];
+            }
+        }
+
+        removed = m_size - size;
+        m_size = size;
+
+        return removed;
+    }
+
+    /**
+     * Merge the elements of another sorted list into this sorted list. Duplicates are kept.
+     *
+     * @param p_list
+     *         Sorted list to merge
+     */
+    public void merge(final ArrayListLong p_list) {
+        long[] other = p_list == this ? Arrays.copyOf(m_array, m_size) : p_list.m_array;
+        int i = m_size - 1;
+        int j = p_list.m_size - 1;
+        int k = m_size + p_list.m_size - 1;
+
+        ensureCapacity(k + 1);
+
+        // Merge from the back so no temporary array is needed
+        while (j >= 0) {
+            if (i >= 0 && m_array[i] > other[j]) {
+                m_array[k--] = m_array[i--];
+            } else {
+                m_array[k--] = other[j--];
+            }
+        }
+
+        m_size += p_list.m_size;
+    }
+
     @Override
     public void exportObject(final Exporter p_exporter) {
         p_exporter.writeCompactNumber(m_size);
@@ -354,4 +471,61 @@ public class ArrayListLong implements Importable, Exportable {
 
         return false;
     }
+
+    /**
+     * Sort an array with an LSD radix sort on 8 bit digits
+     *
+     * @param p_array
+     *         Array to sort
+     * @param p_length
+     *         Number of elements to sort
+     */
+    private static void radixSort(final long[] p_array, final int p_length) {
+        int[] counts = new int[Long.BYTES * 256];
+        long[] src = p_array;
+        long[] dst = new long[p_length];
+        long[] tmp;
+        long first;
+        int sum;
+        int count;
+
+        // Count all digits in one pass. The sign bit is flipped to sort negative values first.
+        for (int i = 0; i < p_length; i++) {
+            long val = p_array[i] ^ Long.MIN_VALUE;
+            for (int digit = 0; digit < Long.BYTES; digit++) {
+                counts[digit << 8 | (int) (val >>> (digit << 3)) & 0xFF]++;
+            }
+        }
+
+        first = p_array[0] ^ Long.MIN_VALUE;
+        for (int digit = 0; digit < Long.BYTES; digit++) {
+            int shift = digit << 3;
+            int offset = digit << 8;
+
+            // All elements have the same digit
+            if (counts[offset | (int) (first >>> shift) & 0xFF] == p_length) {
+                continue;
+            }
+
+            sum = 0;
+            for (int i = offset; i < offset + 256; i++) {
+                count = counts[i];
+                counts[i] = sum;
+                sum += count;
+            }
+
+            for (int i = 0; i < p_length; i++) {
+                long val = src[i];
+                dst[counts[offset | (int) ((val ^ Long.MIN_VALUE) >>> shift) & 0xFF]++] = val;
+            }
+
+            tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+
+        if (src != p_array) {
+            System.arraycopy(src, 0, p_array, 0, p_length);
+        }
+    }
 }
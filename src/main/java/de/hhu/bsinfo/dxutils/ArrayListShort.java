@@ -30,6 +30,7 @@ import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
  * @author Stefan Nothaas, stefan.nothaas@hhu.de, 17.01.2017
  */
 public class ArrayListShort implements Importable, Exportable {
+
     private int m_capacityChunk = 10;
     private short[] m_array;
     private int m_size = 0;
@@ -74,6 +75,7 @@ public class ArrayListShort implements Importable, Exportable {
     public ArrayListShort(final ArrayListShort p_list) {
         m_array = new short[p_list.m_size];
         System.arraycopy(p_list.m_array, 0, m_array, 0, m_array.length);
+        m_size = p_list.m_size;
     }
 
     /**
@@ -149,6 +151,24 @@ public class ArrayListShort implements Importable, Exportable {
         return m_array;
     }
 
+    /**
+     * Make sure the array can hold the given number of elements without resizing. The capacity grows by at least
+     * half of the current capacity, so appending is amortized O(1) per element.
+     *
+     * @param p_capacity
+     *         Minimum capacity
+     */
+    public void ensureCapacity(final int p_capacity) {
+        if (p_capacity > m_array.length) {
+            int newCapacity = m_array.length + Math.max(m_array.length >> 1, m_capacityChunk);
+            if (newCapacity < p_capacity || newCapacity < 0) {
+                newCapacity = p_capacity;
+            }
+
+            m_array = Arrays.copyOf(m_array, newCapacity);
+        }
+    }
+
     /**
      * Add an element to the array. The array is automatically resized if necessary
      *
@@ -156,10 +176,7 @@ public class ArrayListShort implements Importable, Exportable {
      *         Value to add
      */
     public void add(final short p_val) {
-        if (m_array.length - m_size == 0) {
-            m_array = Arrays.copyOf(m_array, m_array.length + m_capacityChunk);
-            Arrays.fill(m_array, m_size, m_array.length, (short) 0);
-        }
+        ensureCapacity(m_size + 1);
 
         m_array[m_size++] = p_val;
     }
@@ -174,18 +191,15 @@ public class ArrayListShort implements Importable, Exportable {
      *         Value to add
      */
     public void add(final int p_index, final short p_val) {
-        if (m_array.length <= p_index) {
-            int oldSize = m_array.length;
-            int newSize = p_index / m_capacityChunk * m_capacityChunk + m_capacityChunk;
-            m_array = Arrays.copyOf(m_array, newSize);
-            Arrays.fill(m_array, oldSize, m_array.length, (short) 0);
-        }
-
-        m_array[p_index] = p_val;
+        ensureCapacity(p_index + 1);
 
         if (p_index >= m_size) {
+            // Elements between the old size and the index are 0
+            Arrays.fill(m_array, m_size, p_index, (short) 0);
             m_size = p_index + 1;
         }
+
+        m_array[p_index] = p_val;
     }
 
     /**
@@ -195,9 +209,24 @@ public class ArrayListShort implements Importable, Exportable {
      *         Array with elements to add to the current one
      */
     public void addAll(final ArrayListShort p_list) {
-        m_array = Arrays.copyOf(m_array, m_array.length + p_list.m_size);
-        System.arraycopy(p_list.m_array, 0, m_array, m_size, p_list.m_size);
-        m_size += p_list.m_size;
+        addAll(p_list.m_array, 0, p_list.m_size);
+    }
+
+    /**
+     * Add values of a primitive array
+     *
+     * @param p_array
+     *         Array with elements to add
+     * @param p_offset
+     *         Index of the first element to add
+     * @param p_length
+     *         Number of elements to add
+     */
+    public void addAll(final short[] p_array, final int p_offset, final int p_length) {
+        ensureCapacity(m_size + p_length);
+
+        System.arraycopy(p_array, p_offset, m_array, m_size, p_length);
+        m_size += p_length;
     }
 
     /**
@@ -207,11 +236,7 @@ public class ArrayListShort implements Importable, Exportable {
      *         Value to add to the front
      */
     public void addFront(final short p_val) {
-        short[] tmp = new short[m_array.length + 1];
-        System.arraycopy(m_array, 0, tmp, 1, m_array.length);
-        tmp[0] = p_val;
-        m_array = tmp;
-        m_size++;
+        insert(0, p_val);
     }
 
     /**
@@ -227,14 +252,10 @@ public class ArrayListShort implements Importable, Exportable {
             throw new ArrayIndexOutOfBoundsException(p_index);
         }
 
-        short[] tmp = new short[m_size + 1];
-        System.arraycopy(m_array, 0, tmp, 0, p_index);
-
-        tmp[p_index] = p_val;
-
-        System.arraycopy(m_array, p_index, tmp, p_index + 1, m_size - p_index);
+        ensureCapacity(m_size + 1);
 
-        m_array = tmp;
+        System.arraycopy(m_array, p_index, m_array, p_index + 1, m_size - p_index);
+        m_array[p_index] = p_val;
         m_size++;
     }
 
@@ -251,14 +272,10 @@ public class ArrayListShort implements Importable, Exportable {
             throw new ArrayIndexOutOfBoundsException(p_index);
         }
 
-        short[] tmp = new short[m_size + p_vals.length];
-        System.arraycopy(m_array, 0, tmp, 0, p_index);
-
-        System.arraycopy(p_vals, 0, tmp, p_index, p_vals.length);
+        ensureCapacity(m_size + p_vals.length);
 
-        System.arraycopy(m_array, p_index, tmp, p_index + p_vals.length, m_size - p_index);
-
-        m_array = tmp;
+        System.arraycopy(m_array, p_index, m_array, p_index + p_vals.length, m_size - p_index);
+        System.arraycopy(p_vals, 0, m_array, p_index, p_vals.length);
         m_size += p_vals.length;
     }
 
@@ -306,6 +323,24 @@ public class ArrayListShort implements Importable, Exportable {
         return oldValue;
     }
 
+    /**
+     * Remove a range of elements from the array. This shifts all following elements to the front.
+     *
+     * @param p_fromIndex
+     *         Index of the first element to remove
+     * @param p_toIndex
+     *         Index after the last element to remove
+     */
+    public void removeRange(final int p_fromIndex, final int p_toIndex) {
+        if (p_fromIndex < 0 || p_toIndex > m_size || p_fromIndex > p_toIndex) {
+            throw new ArrayIndexOutOfBoundsException("Range " + p_fromIndex + " to " + p_toIndex +
+                    " out of bounds for size " + m_size);
+        }
+
+        System.arraycopy(m_array, p_toIndex, m_array, p_fromIndex, m_size - p_toIndex);
+        m_size -= p_toIndex - p_fromIndex;
+    }
+
     /**
      * Trim the array, i.e. set the size to a lower value to drop the last elements
      *
@@ -327,6 +362,76 @@ public class ArrayListShort implements Importable, Exportable {
         m_size = 0;
     }
 
+    /**
+     * Sort the elements in ascending order
+     */
+    public void sort() {
+        Arrays.sort(m_array, 0, m_size);
+    }
+
+    /**
+     * Search for a value in the sorted array
+     *
+     * @param p_val
+     *         Value to search for
+     * @return Index of the value if found, (-(insertion point) - 1) otherwise (see Arrays.binarySearch)
+     */
+    public int binarySearch(final short p_val) {
+        return Arrays.binarySearch(m_array, 0, m_size, p_val);
+    }
+
+    /**
+     * Remove duplicates from the sorted array
+     *
+     * @return Number of removed elements
+     */
+    public int unique() {
+        int size;
+        int removed;
+
+        if (m_size < 2) {
+            return 0;
+        }
+
+        size = 1;
+        for (int i = 1; i < m_size; i++) {
+            if (m_array[i] != m_array[size - 1]) {
+                m_array[size++] = m_array[i];
+            }
+        }
+
+        removed = m_size - size;
+        m_size = size;
+
+        return removed;
+    }
+
+    /**
+     * Merge the elements of another sorted list into this sorted list. Duplicates are kept.
+     *
+     * @param p_list
+     *         Sorted list to merge
+     */
+    public void merge(final ArrayListShort p_list) {
+        short[] other = p_list == this ? Arrays.copyOf(m_array, m_size) : p_list.m_array;
+        int i = m_size - 1;
+        int j = p_list.m_size - 1;
+        int k = m_size + p_list.m_size - 1;
+
+        ensureCapacity(k + 1);
+
+        // Merge from the back so no temporary array is needed
+        while (j >= 0) {
+            if (i >= 0 && m_array[i] > other[j]) {
+                m_array[k--] = m_array[i--];
+            } else {
+                m_array[k--] = other[j--];
+            }
+        }
+
+        m_size += p_list.m_size;
+    }
+
     @Override
     public void exportObject(final Exporter p_exporter) {
         p_exporter.writeCompactNumber(m_size);
@@ -20,11 +20,24 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.hhu.bsinfo.dxutils.serialization.ObjectSize;
 
 /**
- * Implements a Cache with an optional eviction policy and an optional timeout
+ * Implements a Cache with an optional eviction policy and an optional timeout. The cache is bounded by the number of
+ * entries and optionally by the total weight of the entries (e.g. their size in bytes).
  *
  * @param <KeyType>
  *         Type of the key
@@ -34,14 +47,39 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  */
 public class Cache<KeyType, ValueType> {
 
+    // Constants
+    private static final Logger LOGGER = LogManager.getFormatterLogger(Cache.class.getSimpleName());
+
     // Attributes
     private Map<KeyType, CacheEntry<KeyType, ValueType>> m_map;
     private final int m_maxSize;
+    private final long m_maxWeight;
+    private final Weigher<KeyType, ValueType> m_weigher;
+    private long m_weight;
+    private long m_evictedWeight;
     private EvictionPolicy<KeyType, ValueType> m_policy;
     private TTLHandler m_ttlHandler;
 
     private ReadWriteLock m_lock;
 
+    // Accesses by readers are buffered and applied to the policy by writers
+    private final CacheReadBuffer<KeyType, ValueType> m_readBuffer;
+    private final ObjLongConsumer<CacheEntry<KeyType, ValueType>> m_accessApplier;
+
+    // Entries with a TTL are scheduled in a timer wheel (created on first use)
+    private TimerWheel<KeyType, ValueType> m_timerWheel;
+    private long m_ttl;
+    private EXPIRATION m_expiration;
+    private final Consumer<CacheEntry<KeyType, ValueType>> m_expirer;
+
+    // Loads in flight (one per key) and refresh-ahead of entries close to expiration
+    private final ConcurrentHashMap<KeyType, CompletableFuture<ValueType>> m_loads;
+    private volatile long m_refreshAhead;
+    private volatile Executor m_refreshExecutor;
+
+    // Counters registered with the StatisticsManager (null if disabled)
+    private volatile CacheStatistics m_statistics;
+
     // Constructors
 
     /**
@@ -80,29 +118,7 @@ public class Cache<KeyType, ValueType> {
      *         the POLICY
      */
     public Cache(final int p_maxSize, final POLICY p_policyEnum) {
-
-        EvictionPolicy<KeyType, ValueType> policy = null;
-
-        assert p_maxSize > 0;
-        assert p_policyEnum != null;
-
-        switch (p_policyEnum) {
-            case DUMMY:
-                policy = new DummyPolicy<KeyType, ValueType>();
-                break;
-            case LRU:
-                policy = new LRUPolicy<KeyType, ValueType>();
-                break;
-            default:
-                break;
-        }
-
-        m_map = new HashMap<KeyType, CacheEntry<KeyType, ValueType>>();
-        m_maxSize = p_maxSize;
-        m_policy = policy;
-        m_ttlHandler = null;
-
-        m_lock = new ReentrantReadWriteLock();
+        this(p_maxSize, Cache.<KeyType, ValueType>createPolicy(p_policyEnum, p_maxSize));
     }
 
     /**
@@ -114,15 +130,120 @@ public class Cache<KeyType, ValueType> {
      *         the eviction policy
      */
     public Cache(final int p_maxSize, final EvictionPolicy<KeyType, ValueType> p_policy) {
+        this(p_maxSize, Long.MAX_VALUE, (p_key, p_value) -> 1, p_policy);
+    }
+
+    /**
+     * Creates an instance of Cache bounded by weight
+     *
+     * @param p_maxSize
+     *         the maximum of cached elements (the regions of POLICY.TINY_LFU are sized relative to this)
+     * @param p_maxWeight
+     *         the maximum total weight of all cached elements
+     * @param p_weigher
+     *         determines the weight of an element
+     * @param p_policyEnum
+     *         the POLICY
+     */
+    public Cache(final int p_maxSize, final long p_maxWeight, final Weigher<KeyType, ValueType> p_weigher,
+            final POLICY p_policyEnum) {
+        this(p_maxSize, p_maxWeight, p_weigher, Cache.<KeyType, ValueType>createPolicy(p_policyEnum, p_maxSize));
+    }
+
+    /**
+     * Creates an instance of Cache bounded by weight
+     *
+     * @param p_maxSize
+     *         the maximum of cached elements
+     * @param p_maxWeight
+     *         the maximum total weight of all cached elements
+     * @param p_weigher
+     *         determines the weight of an element
+     * @param p_policy
+     *         the eviction policy
+     */
+    public Cache(final int p_maxSize, final long p_maxWeight, final Weigher<KeyType, ValueType> p_weigher,
+            final EvictionPolicy<KeyType, ValueType> p_policy) {
         assert p_maxSize > 0;
+        assert p_maxWeight > 0;
+        assert p_weigher != null;
         assert p_policy != null;
 
         m_map = new HashMap<KeyType, CacheEntry<KeyType, ValueType>>();
         m_maxSize = p_maxSize;
+        m_maxWeight = p_maxWeight;
+        m_weigher = p_weigher;
+        m_weight = 0;
+        m_evictedWeight = 0;
         m_policy = p_policy;
         m_ttlHandler = null;
 
         m_lock = new ReentrantReadWriteLock(false);
+        m_readBuffer = new CacheReadBuffer<KeyType, ValueType>();
+        m_accessApplier = this::applyAccess;
+
+        m_timerWheel = null;
+        m_ttl = 0;
+        m_expiration = EXPIRATION.AFTER_ACCESS;
+        m_expirer = this::expireEntry;
+
+        m_loads = new ConcurrentHashMap<KeyType, CompletableFuture<ValueType>>();
+        m_refreshAhead = 0;
+        m_refreshExecutor = null;
+    }
+
+    // Getters
+
+    /**
+     * Gets the maximum total weight
+     *
+     * @return the maximum total weight
+     */
+    public final long getMaxWeight() {
+        return m_maxWeight;
+    }
+
+    /**
+     * Gets the total weight of all cached elements (the number of elements if no weigher is used)
+     *
+     * @return the total weight
+     */
+    public final long getWeight() {
+        long ret;
+
+        m_lock.readLock().lock();
+
+        ret = m_weight;
+
+        m_lock.readLock().unlock();
+
+        return ret;
+    }
+
+    /**
+     * Gets the total weight of all elements evicted so far (removed and expired elements are not counted)
+     *
+     * @return the evicted weight
+     */
+    public final long getEvictedWeight() {
+        long ret;
+
+        m_lock.readLock().lock();
+
+        ret = m_evictedWeight;
+
+        m_lock.readLock().unlock();
+
+        return ret;
+    }
+
+    /**
+     * Gets the statistics of the cache
+     *
+     * @return the statistics or null if not enabled
+     */
+    public final CacheStatistics getStatistics() {
+        return m_statistics;
     }
 
     // Methods
@@ -136,58 +257,295 @@ public class Cache<KeyType, ValueType> {
      *         the value
      */
     public final void put(final KeyType p_key, final ValueType p_value) {
+        assert p_key != null;
+
+        putEntry(p_key, p_value, 0);
+    }
+
+    /**
+     * Creates a new cache entry or updates an existing one. The entry expires after the given TTL (measured from the
+     * last write or access, see EXPIRATION) regardless of the TTL set with enableTTL. Expired entries are never
+     * returned. They are removed on subsequent writes or by the TTL handler (if enabled).
+     *
+     * @param p_key
+     *         the key
+     * @param p_value
+     *         the value
+     * @param p_ttl
+     *         the TTL of this entry in ms
+     */
+    public final void put(final KeyType p_key, final ValueType p_value, final long p_ttl) {
+        assert p_key != null;
+        assert p_ttl > 0;
+
+        putEntry(p_key, p_value, p_ttl);
+    }
+
+    /**
+     * Gets the value of a cache entry for the given key
+     *
+     * @param p_key
+     *         the key
+     * @return the value of the cache entry or null if no entry exists
+     */
+    public final ValueType get(final KeyType p_key) {
         CacheEntry<KeyType, ValueType> entry;
 
         assert p_key != null;
 
-        m_lock.writeLock().lock();
+        entry = lookup(p_key);
 
-        if (m_map.containsKey(p_key)) {
-            entry = m_map.get(p_key);
-            entry.m_value = p_value;
-        } else {
-            if (m_map.size() >= m_maxSize) {
-                m_map.remove(m_policy.evict(m_map.values()));
+        return entry != null ? entry.getValue() : null;
+    }
+
+    /**
+     * Gets the value of a cache entry for the given key and loads it if no entry exists. Only one load per key is
+     * in flight: concurrent callers missing the same key wait for the first caller's load. If refresh-ahead is
+     * enabled, entries close to their expiration are reloaded asynchronously while the old value is still returned.
+     *
+     * @param p_key
+     *         the key
+     * @param p_loader
+     *         loads the value on a miss
+     * @return the value of the cache entry or the loaded value (null if the loader returned null, which is not
+     * cached)
+     */
+    public final ValueType get(final KeyType p_key, final CacheLoader<KeyType, ValueType> p_loader) {
+        CacheEntry<KeyType, ValueType> entry;
+        CompletableFuture<ValueType> future;
+        CompletableFuture<ValueType> inFlight;
+        ValueType value;
+        long expiresAt;
+
+        assert p_key != null;
+        assert p_loader != null;
+
+        entry = lookup(p_key);
+        if (entry != null) {
+            value = entry.getValue();
+
+            expiresAt = entry.m_expiresAt;
+            if (expiresAt != 0 && m_refreshAhead != 0 &&
+                    expiresAt - System.currentTimeMillis() <= m_refreshAhead) {
+                refresh(p_key, p_loader, entry.m_ttl);
             }
 
-            entry = new CacheEntry<KeyType, ValueType>(p_key, p_value);
-            m_policy.newEntry(entry);
+            return value;
+        }
 
-            m_map.put(p_key, entry);
+        future = new CompletableFuture<ValueType>();
+        inFlight = m_loads.putIfAbsent(p_key, future);
+        if (inFlight != null) {
+            return await(inFlight);
         }
 
-        accessEntry(entry);
+        try {
+            // Another load might have finished between the miss and registering this load
+            value = peek(p_key);
+            if (value == null) {
+                value = load(p_key, p_loader);
+                if (value != null) {
+                    put(p_key, value);
+                }
+            }
 
-        m_lock.writeLock().unlock();
+            future.complete(value);
+        } catch (final Throwable e) {
+            // Errors must complete the future as well, otherwise waiting callers block forever
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            m_loads.remove(p_key, future);
+        }
+
+        return value;
     }
 
     /**
-     * Gets the value of a cache entry for the given key
+     * Gets the values of the cache entries for the given keys with a single lock acquisition
      *
-     * @param p_key
-     *         the key
-     * @return the value of the cache entry or null if no entry exists
+     * @param p_keys
+     *         the keys
+     * @param p_values
+     *         the array to store the values in (at the keys' positions, null if no entry exists)
+     * @return the number of found entries
      */
-    public final ValueType get(final KeyType p_key) {
-        ValueType ret = null;
+    public final int getAll(final KeyType[] p_keys, final ValueType[] p_values) {
         CacheEntry<KeyType, ValueType> entry;
+        CacheStatistics statistics;
+        boolean drain = false;
+        boolean recheck = false;
+        int ret = 0;
 
-        assert p_key != null;
+        assert p_keys != null;
+        assert p_values != null && p_values.length >= p_keys.length;
 
         m_lock.readLock().lock();
 
-        entry = m_map.get(p_key);
-        if (entry != null) {
-            accessEntry(entry);
+        for (int i = 0; i < p_keys.length; i++) {
+            entry = m_map.get(p_keys[i]);
+            if (entry != null && isAlive(entry)) {
+                drain |= m_readBuffer.offer(entry, accessTime(entry)) == CacheReadBuffer.Result.DRAIN;
+                p_values[i] = entry.getValue();
+                ret++;
+            } else {
+                recheck |= entry != null && m_expiration == EXPIRATION.AFTER_ACCESS;
+                p_values[i] = null;
+            }
+        }
 
-            ret = entry.getValue();
+        m_lock.readLock().unlock();
+
+        if (recheck) {
+            // Apply buffered accesses, remove expired entries and look up the entries which seemed to be expired again
+            m_lock.writeLock().lock();
+
+            maintenance();
+            for (int i = 0; i < p_keys.length; i++) {
+                if (p_values[i] == null) {
+                    entry = m_map.get(p_keys[i]);
+                    if (entry != null && isAlive(entry)) {
+                        applyAccess(entry, System.currentTimeMillis());
+                        p_values[i] = entry.getValue();
+                        ret++;
+                    }
+                }
+            }
+
+            m_lock.writeLock().unlock();
+        } else if (drain && m_lock.writeLock().tryLock()) {
+            maintenance();
+
+            m_lock.writeLock().unlock();
+        }
+
+        statistics = m_statistics;
+        if (statistics != null) {
+            statistics.recordLookups(ret, p_keys.length - ret);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Gets the values of the cache entries for the given keys with a single lock acquisition
+     *
+     * @param p_keys
+     *         the keys
+     * @param p_result
+     *         the map to put the found entries in
+     * @return the number of found entries
+     */
+    public final int getAll(final Collection<KeyType> p_keys, final Map<KeyType, ValueType> p_result) {
+        CacheEntry<KeyType, ValueType> entry;
+        CacheStatistics statistics;
+        boolean drain = false;
+        boolean recheck = false;
+        int ret = 0;
+
+        assert p_keys != null;
+        assert p_result != null;
+
+        m_lock.readLock().lock();
+
+        for (KeyType key : p_keys) {
+            entry = m_map.get(key);
+            if (entry != null && isAlive(entry)) {
+                drain |= m_readBuffer.offer(entry, accessTime(entry)) == CacheReadBuffer.Result.DRAIN;
+                p_result.put(key, entry.getValue());
+                ret++;
+            } else {
+                recheck |= entry != null && m_expiration == EXPIRATION.AFTER_ACCESS;
+            }
         }
 
         m_lock.readLock().unlock();
 
+        if (recheck) {
+            // Apply buffered accesses, remove expired entries and look up the entries which seemed to be expired again
+            m_lock.writeLock().lock();
+
+            maintenance();
+            for (KeyType key : p_keys) {
+                if (!p_result.containsKey(key)) {
+                    entry = m_map.get(key);
+                    if (entry != null && isAlive(entry)) {
+                        applyAccess(entry, System.currentTimeMillis());
+                        p_result.put(key, entry.getValue());
+                        ret++;
+                    }
+                }
+            }
+
+            m_lock.writeLock().unlock();
+        } else if (drain && m_lock.writeLock().tryLock()) {
+            maintenance();
+
+            m_lock.writeLock().unlock();
+        }
+
+        statistics = m_statistics;
+        if (statistics != null) {
+            statistics.recordLookups(ret, p_keys.size() - ret);
+        }
+
         return ret;
     }
 
+    /**
+     * Creates or updates cache entries for all given key-value pairs with a single lock acquisition
+     *
+     * @param p_entries
+     *         the key-value pairs
+     */
+    public final void putAll(final Map<KeyType, ValueType> p_entries) {
+        int weight;
+
+        assert p_entries != null;
+
+        m_lock.writeLock().lock();
+
+        maintenance();
+
+        for (Map.Entry<KeyType, ValueType> entry : p_entries.entrySet()) {
+            assert entry.getKey() != null;
+
+            weight = m_weigher.weigh(entry.getKey(), entry.getValue());
+            assert weight >= 0;
+
+            insertEntry(entry.getKey(), entry.getValue(), weight, 0);
+        }
+
+        // Updated elements might have grown
+        evictToWeight(m_maxWeight);
+
+        m_lock.writeLock().unlock();
+    }
+
+    /**
+     * Removes the cache entries for the given keys with a single lock acquisition
+     *
+     * @param p_keys
+     *         the keys
+     */
+    public final void removeAll(final Collection<KeyType> p_keys) {
+        CacheEntry<KeyType, ValueType> entry;
+
+        assert p_keys != null;
+
+        m_lock.writeLock().lock();
+
+        for (KeyType key : p_keys) {
+            entry = m_map.remove(key);
+            if (entry != null) {
+                unlinkEntry(entry);
+                recordRemoval();
+            }
+        }
+
+        m_lock.writeLock().unlock();
+    }
+
     /**
      * Removes the cache entry for the given key
      *
@@ -199,7 +557,11 @@ public class Cache<KeyType, ValueType> {
 
         m_lock.writeLock().lock();
 
-        m_map.remove(p_key);
+        CacheEntry<KeyType, ValueType> entry = m_map.remove(p_key);
+        if (entry != null) {
+            unlinkEntry(entry);
+            recordRemoval();
+        }
 
         m_lock.writeLock().unlock();
     }
@@ -212,16 +574,24 @@ public class Cache<KeyType, ValueType> {
      * @return true if a cahce entry exists, false otherwise
      */
     public final boolean contains(final KeyType p_key) {
+        CacheEntry<KeyType, ValueType> entry;
         boolean ret;
+        boolean recheck;
 
         assert p_key != null;
 
         m_lock.readLock().lock();
 
-        ret = m_map.containsKey(p_key);
+        entry = m_map.get(p_key);
+        ret = entry != null && isAlive(entry);
+        recheck = entry != null && !ret && m_expiration == EXPIRATION.AFTER_ACCESS;
 
         m_lock.readLock().unlock();
 
+        if (recheck) {
+            ret = recheck(p_key, false) != null;
+        }
+
         return ret;
     }
 
@@ -229,27 +599,71 @@ public class Cache<KeyType, ValueType> {
      * Removes all entries from the cache
      */
     public final void clear() {
+        Iterator<CacheEntry<KeyType, ValueType>> iter;
+        CacheEntry<KeyType, ValueType> entry;
+
         m_lock.writeLock().lock();
 
-        m_map.clear();
+        drainReadBuffer();
+
+        iter = m_map.values().iterator();
+        while (iter.hasNext()) {
+            entry = iter.next();
+            iter.remove();
+            unlinkEntry(entry);
+            recordRemoval();
+        }
 
         m_lock.writeLock().unlock();
     }
 
     /**
-     * Enables TTL for cache entries
+     * Enables TTL for cache entries. Entries expire if not accessed within the TTL.
      *
      * @param p_ttl
      *         ttl for the cache entries
      */
-    public final synchronized void enableTTL(final long p_ttl) {
+    public final void enableTTL(final long p_ttl) {
+        enableTTL(p_ttl, EXPIRATION.AFTER_ACCESS);
+    }
+
+    /**
+     * Enables TTL for cache entries and starts a thread removing expired entries
+     *
+     * @param p_ttl
+     *         ttl in ms for the cache entries without an own TTL (0 for no default TTL)
+     * @param p_expiration
+     *         the EXPIRATION, applies to all entries with a TTL
+     */
+    public final synchronized void enableTTL(final long p_ttl, final EXPIRATION p_expiration) {
         Thread t;
+        long now;
+
+        assert p_ttl >= 0;
+        assert p_expiration != null;
 
         if (m_ttlHandler != null && m_ttlHandler.isRunning()) {
             m_ttlHandler.stop();
         }
 
-        m_ttlHandler = new TTLHandler(p_ttl);
+        m_lock.writeLock().lock();
+
+        drainReadBuffer();
+
+        m_ttl = p_ttl;
+        m_expiration = p_expiration;
+
+        now = System.currentTimeMillis();
+        for (CacheEntry<KeyType, ValueType> entry : m_map.values()) {
+            if (entry.m_ttl == 0) {
+                // entries idle for longer than the TTL expire right away
+                scheduleEntry(entry, p_expiration == EXPIRATION.AFTER_ACCESS ? entry.m_lastAccess : now);
+            }
+        }
+
+        m_lock.writeLock().unlock();
+
+        m_ttlHandler = new TTLHandler();
 
         t = new Thread(m_ttlHandler);
         t.setName(TTLHandler.class.getSimpleName() + " for " + Cache.class.getSimpleName());
@@ -258,40 +672,602 @@ public class Cache<KeyType, ValueType> {
     }
 
     /**
-     * Disables TTL for cache entries
+     * Enables refresh-ahead for get(key, loader): entries expiring within the given time are reloaded asynchronously
+     *
+     * @param p_refreshAhead
+     *         the time before the expiration in ms
+     * @param p_executor
+     *         runs the loads
      */
-    public final synchronized void disableTTL() {
-        if (m_ttlHandler != null && m_ttlHandler.isRunning()) {
-            m_ttlHandler.stop();
-        }
+    public final synchronized void enableRefreshAhead(final long p_refreshAhead, final Executor p_executor) {
+        assert p_refreshAhead > 0;
+        assert p_executor != null;
+
+        m_refreshExecutor = p_executor;
+        m_refreshAhead = p_refreshAhead;
     }
 
     /**
-     * Access an cache entry
-     *
-     * @param p_entry
-     *         the cache entry
+     * Disables refresh-ahead. Refreshes in flight are not cancelled.
      */
-    private void accessEntry(final CacheEntry<KeyType, ValueType> p_entry) {
-        p_entry.access();
-
-        m_policy.accessEntry(p_entry);
+    public final synchronized void disableRefreshAhead() {
+        m_refreshAhead = 0;
     }
 
-    // Classes
-
     /**
-     * Values indicate which cache policy should be used
+     * Enables statistics (hits, misses, evictions, expirations, removals and load time) and registers them with the
+     * StatisticsManager. Replaces statistics enabled before.
      *
-     * @author Kevin Beineke, kevin.beineke@hhu.de, 08.09.2013
+     * @param p_name
+     *         the name of the cache, used as prefix of the operation names
+     * @return the statistics
      */
-    public enum POLICY {
-        DUMMY, LRU
+    public final synchronized CacheStatistics enableStatistics(final String p_name) {
+        assert p_name != null;
+
+        disableStatistics();
+
+        m_statistics = new CacheStatistics(p_name);
+        m_statistics.register();
+
+        return m_statistics;
     }
 
     /**
-     * Represents an cache entry
-     *
+     * Disables statistics and deregisters them from the StatisticsManager
+     */
+    public final synchronized void disableStatistics() {
+        if (m_statistics != null) {
+            m_statistics.deregister();
+            m_statistics = null;
+        }
+    }
+
+    /**
+     * Disables TTL for cache entries. Entries with an own TTL still expire, but are removed on writes only.
+     */
+    public final synchronized void disableTTL() {
+        if (m_ttlHandler != null && m_ttlHandler.isRunning()) {
+            m_ttlHandler.stop();
+        }
+
+        m_lock.writeLock().lock();
+
+        m_ttl = 0;
+        for (CacheEntry<KeyType, ValueType> entry : m_map.values()) {
+            if (entry.m_ttl == 0) {
+                scheduleEntry(entry, 0);
+            }
+        }
+
+        m_lock.writeLock().unlock();
+    }
+
+    /**
+     * Gets the cache entry for the given key and records the access
+     *
+     * @param p_key
+     *         the key
+     * @return the cache entry or null if no (unexpired) entry exists
+     */
+    private CacheEntry<KeyType, ValueType> lookup(final KeyType p_key) {
+        CacheEntry<KeyType, ValueType> entry;
+        CacheStatistics statistics;
+        CacheReadBuffer.Result result = CacheReadBuffer.Result.SUCCESS;
+        boolean recheck = false;
+
+        m_lock.readLock().lock();
+
+        entry = m_map.get(p_key);
+        if (entry != null && isAlive(entry)) {
+            // Do not modify the entry or the policy under the shared lock -> record access for the next writer
+            result = m_readBuffer.offer(entry, accessTime(entry));
+        } else {
+            recheck = entry != null && m_expiration == EXPIRATION.AFTER_ACCESS;
+            entry = null;
+        }
+
+        m_lock.readLock().unlock();
+
+        if (recheck) {
+            entry = recheck(p_key, true);
+        } else if (result == CacheReadBuffer.Result.DRAIN && m_lock.writeLock().tryLock()) {
+            maintenance();
+
+            m_lock.writeLock().unlock();
+        }
+
+        statistics = m_statistics;
+        if (statistics != null) {
+            statistics.recordLookups(entry != null ? 1 : 0, entry != null ? 0 : 1);
+        }
+
+        return entry;
+    }
+
+    /**
+     * Gets the value of a cache entry for the given key without recording an access or a lookup
+     *
+     * @param p_key
+     *         the key
+     * @return the value of the cache entry or null if no (unexpired) entry exists
+     */
+    private ValueType peek(final KeyType p_key) {
+        CacheEntry<KeyType, ValueType> entry;
+        ValueType ret = null;
+
+        m_lock.readLock().lock();
+
+        entry = m_map.get(p_key);
+        if (entry != null && isAlive(entry)) {
+            ret = entry.getValue();
+        }
+
+        m_lock.readLock().unlock();
+
+        return ret;
+    }
+
+    /**
+     * Loads a value and records the load time
+     *
+     * @param p_key
+     *         the key
+     * @param p_loader
+     *         loads the value
+     * @return the loaded value
+     */
+    private ValueType load(final KeyType p_key, final CacheLoader<KeyType, ValueType> p_loader) {
+        CacheStatistics statistics = m_statistics;
+        ValueType ret;
+        long start;
+
+        if (statistics == null) {
+            return p_loader.load(p_key);
+        }
+
+        start = System.nanoTime();
+        try {
+            ret = p_loader.load(p_key);
+        } finally {
+            statistics.recordLoad(System.nanoTime() - start);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Records an explicit removal if statistics are enabled
+     */
+    private void recordRemoval() {
+        CacheStatistics statistics = m_statistics;
+
+        if (statistics != null) {
+            statistics.recordRemoval();
+        }
+    }
+
+    /**
+     * Reloads an entry asynchronously unless a load for the key is in flight already
+     *
+     * @param p_key
+     *         the key
+     * @param p_loader
+     *         loads the value
+     * @param p_ttl
+     *         the TTL of the entry (0 for the TTL of the cache)
+     */
+    private void refresh(final KeyType p_key, final CacheLoader<KeyType, ValueType> p_loader, final long p_ttl) {
+        CompletableFuture<ValueType> future = new CompletableFuture<ValueType>();
+
+        if (m_loads.putIfAbsent(p_key, future) != null) {
+            return;
+        }
+
+        try {
+            m_refreshExecutor.execute(() -> {
+                ValueType value;
+
+                try {
+                    value = load(p_key, p_loader);
+                    if (value != null) {
+                        putEntry(p_key, value, p_ttl);
+                    }
+
+                    future.complete(value);
+                } catch (final RuntimeException e) {
+                    LOGGER.warn("Refreshing cache entry %s failed: %s", p_key, e);
+
+                    future.completeExceptionally(e);
+                } catch (final Throwable e) {
+                    future.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    m_loads.remove(p_key, future);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            m_loads.remove(p_key, future);
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Waits for a load in flight
+     *
+     * @param p_future
+     *         the future of the load
+     * @param <ValueType>
+     *         Type of the value
+     * @return the loaded value
+     */
+    private static <ValueType> ValueType await(final CompletableFuture<ValueType> p_future) {
+        try {
+            return p_future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a new cache entry or updates an existing one
+     *
+     * @param p_key
+     *         the key
+     * @param p_value
+     *         the value
+     * @param p_ttl
+     *         the TTL of this entry in ms or 0 to use the TTL of the cache
+     */
+    private void putEntry(final KeyType p_key, final ValueType p_value, final long p_ttl) {
+        int weight;
+
+        weight = m_weigher.weigh(p_key, p_value);
+        assert weight >= 0;
+
+        m_lock.writeLock().lock();
+
+        maintenance();
+
+        insertEntry(p_key, p_value, weight, p_ttl);
+
+        // An updated element might have grown
+        evictToWeight(m_maxWeight);
+
+        m_lock.writeLock().unlock();
+    }
+
+    /**
+     * Creates a new cache entry or updates an existing one. Does not evict if an updated entry has grown. Caller
+     * must hold the write lock.
+     *
+     * @param p_key
+     *         the key
+     * @param p_value
+     *         the value
+     * @param p_weight
+     *         the weight of the value
+     * @param p_ttl
+     *         the TTL of this entry in ms or 0 to use the TTL of the cache
+     */
+    private void insertEntry(final KeyType p_key, final ValueType p_value, final int p_weight, final long p_ttl) {
+        CacheEntry<KeyType, ValueType> entry;
+        CacheStatistics statistics;
+
+        entry = m_map.get(p_key);
+        if (p_weight > m_maxWeight) {
+            // The element can never fit -> do not cache it and drop the outdated value
+            if (entry != null) {
+                m_map.remove(p_key);
+                unlinkEntry(entry);
+            }
+            m_evictedWeight += p_weight;
+
+            statistics = m_statistics;
+            if (statistics != null) {
+                statistics.recordEviction();
+            }
+
+            return;
+        }
+
+        if (entry != null) {
+            entry.m_value = p_value;
+            m_weight += p_weight - entry.m_weight;
+            entry.m_weight = p_weight;
+        } else {
+            if (m_map.size() >= m_maxSize) {
+                evictEntry();
+            }
+            evictToWeight(m_maxWeight - p_weight);
+
+            entry = new CacheEntry<KeyType, ValueType>(p_key, p_value);
+            entry.m_weight = p_weight;
+            m_weight += p_weight;
+            m_policy.newEntry(entry);
+
+            m_map.put(p_key, entry);
+        }
+
+        entry.m_ttl = p_ttl;
+        accessEntry(entry);
+
+        if (p_ttl != 0 || m_ttl != 0 || entry.m_expiresAt != 0) {
+            scheduleEntry(entry, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Creates a new instance of an eviction policy
+     *
+     * @param p_policyEnum
+     *         the POLICY
+     * @param p_maxSize
+     *         the maximum of cached elements
+     * @param <KeyType>
+     *         Type of the key
+     * @param <ValueType>
+     *         Type of the value
+     * @return the eviction policy
+     */
+    static <KeyType, ValueType> EvictionPolicy<KeyType, ValueType> createPolicy(final POLICY p_policyEnum,
+            final int p_maxSize) {
+        EvictionPolicy<KeyType, ValueType> policy = null;
+
+        switch (p_policyEnum) {
+            case DUMMY:
+                policy = new DummyPolicy<KeyType, ValueType>();
+                break;
+            case LRU:
+                policy = new LRUPolicy<KeyType, ValueType>();
+                break;
+            case TINY_LFU:
+                policy = new TinyLFUPolicy<KeyType, ValueType>(p_maxSize);
+                break;
+            default:
+                break;
+        }
+
+        return policy;
+    }
+
+    /**
+     * Removes the entry chosen by the eviction policy. Caller must hold the write lock.
+     *
+     * @return true if an entry was evicted, false otherwise
+     */
+    private boolean evictEntry() {
+        CacheEntry<KeyType, ValueType> entry;
+        CacheStatistics statistics;
+
+        entry = m_map.remove(m_policy.evict(m_map.values()));
+        if (entry != null) {
+            unlinkEntry(entry);
+            m_evictedWeight += entry.m_weight;
+
+            statistics = m_statistics;
+            if (statistics != null) {
+                statistics.recordEviction();
+            }
+        }
+
+        return entry != null;
+    }
+
+    /**
+     * Evicts entries until the total weight does not exceed the given weight. Caller must hold the write lock.
+     *
+     * @param p_weight
+     *         the weight to reach
+     */
+    private void evictToWeight(final long p_weight) {
+        while (m_weight > p_weight && !m_map.isEmpty()) {
+            if (!evictEntry()) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Removes an expired entry. Called by the timer wheel with the write lock held.
+     *
+     * @param p_entry
+     *         the cache entry (already removed from the timer wheel)
+     */
+    private void expireEntry(final CacheEntry<KeyType, ValueType> p_entry) {
+        CacheStatistics statistics;
+
+        if (m_map.get(p_entry.getKey()) == p_entry) {
+            m_map.remove(p_entry.getKey());
+            unlinkEntry(p_entry);
+
+            statistics = m_statistics;
+            if (statistics != null) {
+                statistics.recordExpiration();
+            }
+        }
+    }
+
+    /**
+     * Removes an entry, which was removed from the map, from the policy, the timer wheel and the total weight.
+     * Caller must hold the write lock.
+     *
+     * @param p_entry
+     *         the cache entry
+     */
+    private void unlinkEntry(final CacheEntry<KeyType, ValueType> p_entry) {
+        m_weight -= p_entry.m_weight;
+        m_policy.removeEntry(p_entry, m_map.values());
+
+        if (m_timerWheel != null) {
+            m_timerWheel.deschedule(p_entry);
+        }
+    }
+
+    /**
+     * Sets the expiration time of an entry according to its TTL and (re)schedules it. Caller must hold the write
+     * lock.
+     *
+     * @param p_entry
+     *         the cache entry
+     * @param p_time
+     *         the time the TTL starts or 0 to use no TTL
+     */
+    private void scheduleEntry(final CacheEntry<KeyType, ValueType> p_entry, final long p_time) {
+        long ttl = p_entry.m_ttl != 0 ? p_entry.m_ttl : m_ttl;
+
+        if (ttl == 0 || p_time == 0) {
+            p_entry.m_expiresAt = 0;
+            if (m_timerWheel != null) {
+                m_timerWheel.deschedule(p_entry);
+            }
+        } else {
+            if (m_timerWheel == null) {
+                m_timerWheel = new TimerWheel<KeyType, ValueType>(System.currentTimeMillis());
+            }
+
+            p_entry.m_expiresAt = p_time + ttl;
+            m_timerWheel.deschedule(p_entry);
+            m_timerWheel.schedule(p_entry);
+        }
+    }
+
+    /**
+     * Checks if an entry has not expired yet. Caller must hold the read or the write lock.
+     *
+     * @param p_entry
+     *         the cache entry
+     * @return true if the entry has not expired, false otherwise
+     */
+    private boolean isAlive(final CacheEntry<KeyType, ValueType> p_entry) {
+        long expiresAt = p_entry.m_expiresAt;
+
+        return expiresAt == 0 || System.currentTimeMillis() < expiresAt;
+    }
+
+    /**
+     * Checks if an entry which seems to be expired is still alive. With EXPIRATION.AFTER_ACCESS, the latest
+     * accesses of the entry might still be in the read buffer. Caller must not hold the read or the write lock.
+     *
+     * @param p_key
+     *         the key
+     * @param p_access
+     *         whether to record an access of the entry
+     * @return the cache entry or null if no (unexpired) entry exists
+     */
+    private CacheEntry<KeyType, ValueType> recheck(final KeyType p_key, final boolean p_access) {
+        CacheEntry<KeyType, ValueType> entry;
+
+        m_lock.writeLock().lock();
+
+        // Expired entries are removed, so they are not checked again
+        maintenance();
+        entry = m_map.get(p_key);
+        if (entry != null && !isAlive(entry)) {
+            entry = null;
+        } else if (entry != null && p_access) {
+            applyAccess(entry, System.currentTimeMillis());
+        }
+
+        m_lock.writeLock().unlock();
+
+        return entry;
+    }
+
+    /**
+     * Applies buffered accesses and removes expired entries. Caller must hold the write lock.
+     */
+    private void maintenance() {
+        drainReadBuffer();
+
+        if (m_timerWheel != null) {
+            m_timerWheel.advance(System.currentTimeMillis(), m_expirer);
+        }
+    }
+
+    /**
+     * Applies all buffered accesses to the entries and the policy. Caller must hold the write lock.
+     */
+    private void drainReadBuffer() {
+        m_readBuffer.drainTo(m_accessApplier);
+    }
+
+    /**
+     * Applies a buffered access. Entries removed in the meantime are skipped. Caller must hold the write lock.
+     *
+     * @param p_entry
+     *         the cache entry
+     * @param p_time
+     *         the time of the access or 0 if the access does not extend the TTL
+     */
+    private void applyAccess(final CacheEntry<KeyType, ValueType> p_entry, final long p_time) {
+        long expiresAt;
+
+        if (m_map.get(p_entry.getKey()) == p_entry) {
+            accessEntry(p_entry);
+
+            // The timer wheel is not touched -> an entry found not expired when its timer fires is rescheduled
+            if (p_time != 0 && m_expiration == EXPIRATION.AFTER_ACCESS && p_entry.m_expiresAt != 0) {
+                expiresAt = p_time + (p_entry.m_ttl != 0 ? p_entry.m_ttl : m_ttl);
+                if (expiresAt > p_entry.m_expiresAt) {
+                    p_entry.m_expiresAt = expiresAt;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the time of an access to record in the read buffer
+     *
+     * @param p_entry
+     *         the accessed cache entry
+     * @return the current time if the access extends the TTL of the entry, 0 otherwise
+     */
+    private long accessTime(final CacheEntry<KeyType, ValueType> p_entry) {
+        return p_entry.m_expiresAt != 0 && m_expiration == EXPIRATION.AFTER_ACCESS ? System.currentTimeMillis() : 0;
+    }
+
+    /**
+     * Access an cache entry
+     *
+     * @param p_entry
+     *         the cache entry
+     */
+    private void accessEntry(final CacheEntry<KeyType, ValueType> p_entry) {
+        p_entry.access();
+
+        m_policy.accessEntry(p_entry);
+    }
+
+    // Classes
+
+    /**
+     * Values indicate which cache policy should be used
+     *
+     * @author Kevin Beineke, kevin.beineke@hhu.de, 08.09.2013
+     */
+    public enum POLICY {
+        DUMMY, LRU, TINY_LFU
+    }
+
+    /**
+     * Values indicate whether the TTL of an entry starts with the last access (read or write) or the last write
+     */
+    public enum EXPIRATION {
+        AFTER_ACCESS, AFTER_WRITE
+    }
+
+    /**
+     * Represents an cache entry
+     *
      * @param <KeyType>
      *         the key
      * @param <ValueType>
@@ -302,12 +1278,24 @@ public class Cache<KeyType, ValueType> {
 
         // Attribute
         private KeyType m_key;
-        private ValueType m_value;
+        private volatile ValueType m_value;
         private long m_created;
         private long m_lastAccess;
         private int m_accesses;
         private long m_flags;
 
+        // links for the access ordered list of the eviction policy
+        private CacheEntry<KeyType, ValueType> m_prev;
+        private CacheEntry<KeyType, ValueType> m_next;
+        private byte m_queue;
+        private int m_weight;
+
+        // expiration (0 if the entry does not expire) and links for the timer wheel
+        private long m_ttl;
+        private volatile long m_expiresAt;
+        private CacheEntry<KeyType, ValueType> m_timerPrev;
+        private CacheEntry<KeyType, ValueType> m_timerNext;
+
         // Constructors
 
         /**
@@ -318,7 +1306,7 @@ public class Cache<KeyType, ValueType> {
          * @param p_value
          *         the value
          */
-        private CacheEntry(final KeyType p_key, final ValueType p_value) {
+        CacheEntry(final KeyType p_key, final ValueType p_value) {
             m_key = p_key;
             m_value = p_value;
             m_created = System.currentTimeMillis();
@@ -374,6 +1362,15 @@ public class Cache<KeyType, ValueType> {
             return m_accesses;
         }
 
+        /**
+         * Gets the expiration time
+         *
+         * @return the expiration time or 0 if the entry does not expire
+         */
+        public long getExpiresAt() {
+            return m_expiresAt;
+        }
+
         /**
          * Gets the flags
          *
@@ -395,12 +1392,22 @@ public class Cache<KeyType, ValueType> {
             m_flags = p_flags;
         }
 
+        /**
+         * Sets the value
+         *
+         * @param p_value
+         *         the value
+         */
+        void setValue(final ValueType p_value) {
+            m_value = p_value;
+        }
+
         // Methods
 
         /**
          * Accesses the entry
          */
-        private void access() {
+        void access() {
             m_lastAccess = System.currentTimeMillis();
             m_accesses++;
         }
@@ -418,7 +1425,7 @@ public class Cache<KeyType, ValueType> {
     }
 
     /**
-     * Manages the entry timouts
+     * Periodically removes expired entries. Only entries whose timer fired are touched, the map is never scanned.
      *
      * @author Florian Klein
      * 09.03.2012
@@ -426,24 +1433,17 @@ public class Cache<KeyType, ValueType> {
     private class TTLHandler implements Runnable {
 
         // Constants
-        private static final long SLEEP_TIME = 1000;
+        private static final long SLEEP_TIME = 100;
 
         // Attributes
-        private long m_ttl;
-
         private volatile boolean m_running;
 
         // Constructors
 
         /**
          * Creates an instance of TTLHandler
-         *
-         * @param p_ttl
-         *         the TTL value
          */
-        TTLHandler(final long p_ttl) {
-            m_ttl = p_ttl;
-
+        TTLHandler() {
             m_running = false;
         }
 
@@ -471,9 +1471,6 @@ public class Cache<KeyType, ValueType> {
          */
         @Override
         public void run() {
-            Iterator<CacheEntry<KeyType, ValueType>> iter;
-            long time;
-
             m_running = true;
             while (m_running) {
                 try {
@@ -481,28 +1478,84 @@ public class Cache<KeyType, ValueType> {
                 } catch (final InterruptedException ignored) {
                 }
 
-                if (m_running) {
-                    time = System.currentTimeMillis();
+                if (m_running) {
+                    m_lock.writeLock().lock();
+
+                    maintenance();
+
+                    m_lock.writeLock().unlock();
+                }
+            }
+        }
+
+        /**
+         * Stops the TTLHandler
+         */
+        public void stop() {
+            m_running = false;
+        }
+
+    }
+
+    /**
+     * Loads values missing in the cache (e.g. from the backing store)
+     *
+     * @param <KeyType>
+     *         Type of the key
+     * @param <ValueType>
+     *         Type of the value
+     */
+    @FunctionalInterface
+    public interface CacheLoader<KeyType, ValueType> {
+
+        // Methods
+
+        /**
+         * Loads the value for a key
+         *
+         * @param p_key
+         *         the key
+         * @return the value or null if there is none
+         */
+        ValueType load(KeyType p_key);
+
+    }
 
-                    m_lock.writeLock().lock();
+    /**
+     * Determines the weight of cache entries
+     *
+     * @param <KeyType>
+     *         Type of the key
+     * @param <ValueType>
+     *         Type of the value
+     */
+    @FunctionalInterface
+    public interface Weigher<KeyType, ValueType> {
 
-                    iter = m_map.values().iterator();
-                    while (iter.hasNext()) {
-                        if (time - iter.next().m_lastAccess > m_ttl) {
-                            iter.remove();
-                        }
-                    }
+        // Methods
 
-                    m_lock.writeLock().unlock();
-                }
-            }
-        }
+        /**
+         * Gets the weight of an element. Called once when the element is put, not when it is evicted.
+         *
+         * @param p_key
+         *         the key
+         * @param p_value
+         *         the value
+         * @return the weight (must not be negative)
+         */
+        int weigh(KeyType p_key, ValueType p_value);
 
         /**
-         * Stops the TTLHandler
+         * Creates a weigher using the serialized size of the values (e.g. of Exportables)
+         *
+         * @param <KeyType>
+         *         Type of the key
+         * @param <ValueType>
+         *         Type of the value
+         * @return the weigher
          */
-        public void stop() {
-            m_running = false;
+        static <KeyType, ValueType extends ObjectSize> Weigher<KeyType, ValueType> objectSize() {
+            return (p_key, p_value) -> p_value.sizeofObject();
         }
 
     }
@@ -626,7 +1679,9 @@ public class Cache<KeyType, ValueType> {
     }
 
     /**
-     * Eviction policy, which removes always the least recently used entry
+     * Eviction policy, which removes always the least recently used entry.
+     * Entries are kept in an access ordered list, so every operation (including eviction) takes constant time.
+     * The cache calls the policy with its exclusive lock held only.
      *
      * @param <KeyType>
      *         Type of the key
@@ -636,12 +1691,16 @@ public class Cache<KeyType, ValueType> {
      */
     private static class LRUPolicy<KeyType, ValueType> implements EvictionPolicy<KeyType, ValueType> {
 
+        // Attributes
+        private final AccessOrderDeque<KeyType, ValueType> m_deque;
+
         // Constrcutors
 
         /**
          * Creates an instance of LRUPolicy
          */
         LRUPolicy() {
+            m_deque = new AccessOrderDeque<KeyType, ValueType>();
         }
 
         // Methods
@@ -655,19 +1714,9 @@ public class Cache<KeyType, ValueType> {
          */
         @Override
         public KeyType evict(final Collection<CacheEntry<KeyType, ValueType>> p_entries) {
-            Iterator<CacheEntry<KeyType, ValueType>> iter;
-            CacheEntry<KeyType, ValueType> currentEntry;
-            CacheEntry<KeyType, ValueType> leastRecentlyUsedEntry = null;
-            long lastAccess = System.currentTimeMillis();
-
-            iter = p_entries.iterator();
-            while (iter.hasNext()) {
-                currentEntry = iter.next();
-                if (lastAccess > currentEntry.m_lastAccess) {
-                    leastRecentlyUsedEntry = currentEntry;
-                    lastAccess = currentEntry.m_lastAccess;
-                }
-            }
+            CacheEntry<KeyType, ValueType> leastRecentlyUsedEntry;
+
+            leastRecentlyUsedEntry = m_deque.peekLast();
             assert leastRecentlyUsedEntry != null;
             return leastRecentlyUsedEntry.getKey();
         }
@@ -680,6 +1729,147 @@ public class Cache<KeyType, ValueType> {
          */
         @Override
         public void newEntry(final CacheEntry<KeyType, ValueType> p_entry) {
+            m_deque.linkFirst(p_entry);
+        }
+
+        /**
+         * A cache entry was accessed
+         *
+         * @param p_entry
+         *         the accessed cache entry
+         */
+        @Override
+        public void accessEntry(final CacheEntry<KeyType, ValueType> p_entry) {
+            m_deque.moveToFront(p_entry);
+        }
+
+        /**
+         * A cache entry was removed
+         *
+         * @param p_entry
+         *         the removed cache entry
+         * @param p_entries
+         *         the current cache entries
+         */
+        @Override
+        public void removeEntry(final CacheEntry<KeyType, ValueType> p_entry,
+                final Collection<CacheEntry<KeyType, ValueType>> p_entries) {
+            m_deque.unlink(p_entry);
+        }
+
+    }
+
+    /**
+     * Window TinyLFU eviction policy. New entries are admitted to a small LRU window (1% of the capacity). Entries
+     * leaving the window compete with the LRU victim of the main area for admission: the entry with the higher
+     * estimated access frequency (count-min sketch with aging) stays. The main area is a segmented LRU with a
+     * probation (20%) and a protected (80%) segment, entries accessed in probation are promoted to protected. Keeps
+     * the frequently used entries if the access pattern contains scans of entries used only once.
+     *
+     * @param <KeyType>
+     *         Type of the key
+     * @param <ValueType>
+     *         Type of the value
+     */
+    private static class TinyLFUPolicy<KeyType, ValueType> implements EvictionPolicy<KeyType, ValueType> {
+
+        // Constants
+        private static final byte WINDOW = 0;
+        private static final byte PROBATION = 1;
+        private static final byte PROTECTED = 2;
+
+        // Attributes
+        private final int m_windowMaxSize;
+        private final int m_protectedMaxSize;
+
+        private final AccessOrderDeque<KeyType, ValueType> m_window;
+        private final AccessOrderDeque<KeyType, ValueType> m_probation;
+        private final AccessOrderDeque<KeyType, ValueType> m_protected;
+
+        private final FrequencySketch m_sketch;
+
+        // Constrcutors
+
+        /**
+         * Creates an instance of TinyLFUPolicy
+         *
+         * @param p_maxSize
+         *         the maximum of cached elements
+         */
+        TinyLFUPolicy(final int p_maxSize) {
+            m_windowMaxSize = Math.max(1, p_maxSize / 100);
+            m_protectedMaxSize = (int) ((p_maxSize - (long) m_windowMaxSize) * 8 / 10);
+
+            m_window = new AccessOrderDeque<KeyType, ValueType>();
+            m_probation = new AccessOrderDeque<KeyType, ValueType>();
+            m_protected = new AccessOrderDeque<KeyType, ValueType>();
+
+            m_sketch = new FrequencySketch(p_maxSize);
+        }
+
+        // Methods
+
+        /**
+         * Defines the key of the cache entry which should be removed
+         *
+         * @param p_entries
+         *         the current cache entries
+         * @return return the key to remove
+         */
+        @Override
+        public KeyType evict(final Collection<CacheEntry<KeyType, ValueType>> p_entries) {
+            CacheEntry<KeyType, ValueType> candidate;
+            CacheEntry<KeyType, ValueType> victim;
+
+            if (m_window.size() < m_windowMaxSize) {
+                // Window has room for the new entry -> shrink main area
+                victim = mainVictim();
+                if (victim == null) {
+                    victim = m_window.peekLast();
+                }
+
+                assert victim != null;
+                return victim.getKey();
+            }
+
+            // Window's LRU entry moves to the main area if it is more popular than the main area's victim
+            victim = mainVictim();
+            candidate = m_window.peekLast();
+            m_window.unlink(candidate);
+            m_probation.linkFirst(candidate);
+            candidate.m_queue = PROBATION;
+
+            if (victim == null) {
+                return candidate.getKey();
+            }
+
+            if (m_sketch.frequency(hash(candidate)) > m_sketch.frequency(hash(victim))) {
+                return victim.getKey();
+            }
+
+            return candidate.getKey();
+        }
+
+        /**
+         * A new cache entry was created
+         *
+         * @param p_entry
+         *         the created cache entry
+         */
+        @Override
+        public void newEntry(final CacheEntry<KeyType, ValueType> p_entry) {
+            CacheEntry<KeyType, ValueType> overflow;
+
+            p_entry.m_queue = WINDOW;
+            m_window.linkFirst(p_entry);
+
+            // Cache is not full yet (no eviction before) -> main area has room for the window's LRU entry
+            if (m_window.size() > m_windowMaxSize) {
+                overflow = m_window.peekLast();
+                m_window.unlink(overflow);
+                m_probation.linkFirst(overflow);
+                overflow.m_queue = PROBATION;
+            }
         }
 
         /**
@@ -690,6 +1880,32 @@ public class Cache<KeyType, ValueType> {
          */
         @Override
         public void accessEntry(final CacheEntry<KeyType, ValueType> p_entry) {
+            CacheEntry<KeyType, ValueType> demoted;
+
+            m_sketch.increment(hash(p_entry));
+
+            switch (p_entry.m_queue) {
+                case WINDOW:
+                    m_window.moveToFront(p_entry);
+                    break;
+                case PROBATION:
+                    m_probation.unlink(p_entry);
+                    m_protected.linkFirst(p_entry);
+                    p_entry.m_queue = PROTECTED;
+
+                    if (m_protected.size() > m_protectedMaxSize) {
+                        demoted = m_protected.peekLast();
+                        m_protected.unlink(demoted);
+                        m_probation.linkFirst(demoted);
+                        demoted.m_queue = PROBATION;
+                    }
+                    break;
+                case PROTECTED:
+                    m_protected.moveToFront(p_entry);
+                    break;
+                default:
+                    break;
+            }
         }
 
         /**
@@ -703,6 +1919,327 @@ public class Cache<KeyType, ValueType> {
         @Override
         public void removeEntry(final CacheEntry<KeyType, ValueType> p_entry,
                 final Collection<CacheEntry<KeyType, ValueType>> p_entries) {
+            switch (p_entry.m_queue) {
+                case WINDOW:
+                    m_window.unlink(p_entry);
+                    break;
+                case PROBATION:
+                    m_probation.unlink(p_entry);
+                    break;
+                case PROTECTED:
+                    m_protected.unlink(p_entry);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        /**
+         * Gets the least recently used entry of the main area
+         *
+         * @return the entry or null if the main area is empty
+         */
+        private CacheEntry<KeyType, ValueType> mainVictim() {
+            CacheEntry<KeyType, ValueType> victim = m_probation.peekLast();
+
+            if (victim == null) {
+                victim = m_protected.peekLast();
+            }
+
+            return victim;
+        }
+
+        /**
+         * Gets the hash code of the entry's key
+         *
+         * @param p_entry
+         *         the cache entry
+         * @return the hash code
+         */
+        private static int hash(final CacheEntry<?, ?> p_entry) {
+            return p_entry.getKey().hashCode();
+        }
+
+    }
+
+    /**
+     * Doubly linked list of cache entries ordered by access (most recently used first). The links are stored in the
+     * entries themselves, so no additional objects are allocated. An entry can be linked into one list only.
+     *
+     * @param <KeyType>
+     *         Type of the key
+     * @param <ValueType>
+     *         Type of the value
+     */
+    static final class AccessOrderDeque<KeyType, ValueType> {
+
+        // Attributes
+        private CacheEntry<KeyType, ValueType> m_head;
+        private CacheEntry<KeyType, ValueType> m_tail;
+        private int m_size;
+
+        // Constructors
+
+        /**
+         * Creates an instance of AccessOrderDeque
+         */
+        AccessOrderDeque() {
+        }
+
+        // Getters
+
+        /**
+         * Gets the number of linked entries
+         *
+         * @return the number of linked entries
+         */
+        int size() {
+            return m_size;
+        }
+
+        /**
+         * Gets the most recently used entry
+         *
+         * @return the first entry or null if the list is empty
+         */
+        CacheEntry<KeyType, ValueType> peekFirst() {
+            return m_head;
+        }
+
+        /**
+         * Gets the least recently used entry
+         *
+         * @return the last entry or null if the list is empty
+         */
+        CacheEntry<KeyType, ValueType> peekLast() {
+            return m_tail;
+        }
+
+        // Methods
+
+        /**
+         * Inserts an entry at the front of the list
+         *
+         * @param p_entry
+         *         the cache entry (must not be linked)
+         */
+        void linkFirst(final CacheEntry<KeyType, ValueType> p_entry) {
+            p_entry.m_prev = null;
+            p_entry.m_next = m_head;
+
+            if (m_head == null) {
+                m_tail = p_entry;
+            } else {
+                m_head.m_prev = p_entry;
+            }
+            m_head = p_entry;
+            m_size++;
+        }
+
+        /**
+         * Removes an entry from the list
+         *
+         * @param p_entry
+         *         the cache entry (must be linked)
+         */
+        void unlink(final CacheEntry<KeyType, ValueType> p_entry) {
+            CacheEntry<KeyType, ValueType> prev = p_entry.m_prev;
+            CacheEntry<KeyType, ValueType> next = p_entry.m_next;
+
+            if (prev == null) {
+                m_head = next;
+            } else {
+                prev.m_next = next;
+            }
+
+            if (next == null) {
+                m_tail = prev;
+            } else {
+                next.m_prev = prev;
+            }
+
+            p_entry.m_prev = null;
+            p_entry.m_next = null;
+            m_size--;
+        }
+
+        /**
+         * Moves a linked entry to the front of the list
+         *
+         * @param p_entry
+         *         the cache entry (must be linked)
+         */
+        void moveToFront(final CacheEntry<KeyType, ValueType> p_entry) {
+            if (m_head != p_entry) {
+                unlink(p_entry);
+                linkFirst(p_entry);
+            }
+        }
+
+    }
+
+    /**
+     * Hierarchical timing wheel for the expiration of cache entries. Each level has 64 buckets, the bucket width grows
+     * by factor 64 from level to level. An entry is placed in the level where its expiration time fits and cascades
+     * to lower levels when the wheel advances, so scheduling and expiring is O(1) amortized. Expiration times may be
+     * extended without rescheduling: entries found not expired when their bucket fires are scheduled again. The links
+     * are stored in the entries themselves.
+     *
+     * @param <KeyType>
+     *         Type of the key
+     * @param <ValueType>
+     *         Type of the value
+     */
+    static final class TimerWheel<KeyType, ValueType> {
+
+        // Constants
+        private static final int BUCKETS = 64;
+        private static final int BUCKET_MASK = BUCKETS - 1;
+        // Bucket width per level: 16 ms, 1 s, 65 s, 70 min, 3 d (the last level covers 198 d)
+        private static final int[] SHIFTS = {4, 10, 16, 22, 28};
+
+        // Attributes
+        private final CacheEntry<KeyType, ValueType>[][] m_wheel;
+        private long m_time;
+
+        // Constructors
+
+        /**
+         * Creates an instance of TimerWheel
+         *
+         * @param p_time
+         *         the current time in ms
+         */
+        @SuppressWarnings("unchecked")
+        TimerWheel(final long p_time) {
+            CacheEntry<KeyType, ValueType> sentinel;
+
+            m_wheel = new CacheEntry[SHIFTS.length][BUCKETS];
+            for (int i = 0; i < SHIFTS.length; i++) {
+                for (int j = 0; j < BUCKETS; j++) {
+                    sentinel = new CacheEntry<KeyType, ValueType>(null, null);
+                    sentinel.m_timerPrev = sentinel;
+                    sentinel.m_timerNext = sentinel;
+                    m_wheel[i][j] = sentinel;
+                }
+            }
+            m_time = p_time;
+        }
+
+        // Methods
+
+        /**
+         * Schedules an entry for its expiration time
+         *
+         * @param p_entry
+         *         the cache entry (must not be scheduled)
+         */
+        void schedule(final CacheEntry<KeyType, ValueType> p_entry) {
+            CacheEntry<KeyType, ValueType> sentinel;
+            long time = Math.max(p_entry.m_expiresAt, m_time);
+            long delay = time - m_time;
+            int level = 0;
+
+            while (level < SHIFTS.length - 1 && delay >= 1L << SHIFTS[level + 1]) {
+                level++;
+            }
+
+            if (delay >= (long) BUCKETS << SHIFTS[level]) {
+                // Beyond the last level -> put in the last bucket and reschedule when it fires
+                time = m_time + ((long) BUCKET_MASK << SHIFTS[level]);
+            }
+
+            sentinel = m_wheel[level][(int) (time >>> SHIFTS[level]) & BUCKET_MASK];
+            p_entry.m_timerNext = sentinel;
+            p_entry.m_timerPrev = sentinel.m_timerPrev;
+            sentinel.m_timerPrev.m_timerNext = p_entry;
+            sentinel.m_timerPrev = p_entry;
+        }
+
+        /**
+         * Removes an entry from the wheel
+         *
+         * @param p_entry
+         *         the cache entry (might not be scheduled)
+         */
+        void deschedule(final CacheEntry<KeyType, ValueType> p_entry) {
+            if (p_entry.m_timerNext != null) {
+                p_entry.m_timerNext.m_timerPrev = p_entry.m_timerPrev;
+                p_entry.m_timerPrev.m_timerNext = p_entry.m_timerNext;
+                p_entry.m_timerNext = null;
+                p_entry.m_timerPrev = null;
+            }
+        }
+
+        /**
+         * Advances the wheel and expires all entries whose expiration time has passed
+         *
+         * @param p_time
+         *         the current time in ms
+         * @param p_expirer
+         *         called for every expired entry (the entry is descheduled already)
+         */
+        void advance(final long p_time, final Consumer<CacheEntry<KeyType, ValueType>> p_expirer) {
+            long previous = m_time;
+            long previousTicks;
+            long currentTicks;
+
+            if (p_time <= previous) {
+                return;
+            }
+
+            m_time = p_time;
+            for (int i = 0; i < SHIFTS.length; i++) {
+                previousTicks = previous >>> SHIFTS[i];
+                currentTicks = p_time >>> SHIFTS[i];
+                if (currentTicks == previousTicks) {
+                    break;
+                }
+
+                expire(i, previousTicks, currentTicks, p_expirer);
+            }
+        }
+
+        /**
+         * Processes the buckets of a level the wheel passed. Entries are either expired or cascaded.
+         *
+         * @param p_level
+         *         the level
+         * @param p_previousTicks
+         *         the ticks of the level before advancing
+         * @param p_currentTicks
+         *         the ticks of the level after advancing
+         * @param p_expirer
+         *         called for every expired entry
+         */
+        private void expire(final int p_level, final long p_previousTicks, final long p_currentTicks,
+                final Consumer<CacheEntry<KeyType, ValueType>> p_expirer) {
+            CacheEntry<KeyType, ValueType> sentinel;
+            CacheEntry<KeyType, ValueType> entry;
+            CacheEntry<KeyType, ValueType> next;
+            int start = (int) (p_previousTicks & BUCKET_MASK);
+            int steps = (int) Math.min(p_currentTicks - p_previousTicks + 1, BUCKETS);
+
+            for (int i = start; i < start + steps; i++) {
+                sentinel = m_wheel[p_level][i & BUCKET_MASK];
+                entry = sentinel.m_timerNext;
+                sentinel.m_timerPrev = sentinel;
+                sentinel.m_timerNext = sentinel;
+
+                while (entry != sentinel) {
+                    next = entry.m_timerNext;
+                    entry.m_timerPrev = null;
+                    entry.m_timerNext = null;
+
+                    if (entry.m_expiresAt <= m_time) {
+                        p_expirer.accept(entry);
+                    } else {
+                        schedule(entry);
+                    }
+
+                    entry = next;
+                }
+            }
         }
 
     }
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Buffers cache accesses recorded by readers. Readers append the accessed entries to small ring buffers (selected by
+ * thread) without taking a lock. The owner of the cache's exclusive lock drains the buffers in batches and applies
+ * the accesses to the eviction policy. Accesses are dropped if a ring is full or contended, which only affects the
+ * precision of the access order, never the consistency of the policy.
+ *
+ * @param <KeyType>
+ *         Type of the key
+ * @param <ValueType>
+ *         Type of the value
+ */
+final class CacheReadBuffer<KeyType, ValueType> {
+
+    // Constants
+    private static final int RING_SIZE = 16;
+    private static final int RING_MASK = RING_SIZE - 1;
+    private static final int DRAIN_THRESHOLD = RING_SIZE / 2;
+    private static final int MAX_RINGS = 64;
+
+    /**
+     * Result of an offer
+     */
+    enum Result {
+        SUCCESS, DRAIN, FAILED
+    }
+
+    // Attributes
+    private final Ring<KeyType, ValueType>[] m_rings;
+    private final int m_ringMask;
+
+    // Constructors
+
+    /**
+     * Creates an instance of CacheReadBuffer with one ring per available processor
+     */
+    CacheReadBuffer() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an instance of CacheReadBuffer
+     *
+     * @param p_rings
+     *         the number of rings (rounded up to a power of two)
+     */
+    @SuppressWarnings("unchecked")
+    CacheReadBuffer(final int p_rings) {
+        int rings = Integer.highestOneBit(Math.max(1, Math.min(p_rings, MAX_RINGS)));
+
+        if (rings < p_rings && rings < MAX_RINGS) {
+            rings <<= 1;
+        }
+
+        m_rings = new Ring[rings];
+        for (int i = 0; i < rings; i++) {
+            m_rings[i] = new Ring<KeyType, ValueType>();
+        }
+        m_ringMask = rings - 1;
+    }
+
+    // Methods
+
+    /**
+     * Records an access of the current thread
+     *
+     * @param p_entry
+     *         the accessed cache entry
+     * @return DRAIN if the ring should be drained (the access might have been dropped because the ring is full),
+     * FAILED if the access was dropped because of contention
+     */
+    Result offer(final Cache.CacheEntry<KeyType, ValueType> p_entry) {
+        return offer(p_entry, 0);
+    }
+
+    /**
+     * Records an access of the current thread
+     *
+     * @param p_entry
+     *         the accessed cache entry
+     * @param p_time
+     *         the time of the access in ms (0 if not needed)
+     * @return DRAIN if the ring should be drained (the access might have been dropped because the ring is full),
+     * FAILED if the access was dropped because of contention
+     */
+    Result offer(final Cache.CacheEntry<KeyType, ValueType> p_entry, final long p_time) {
+        long threadId = Thread.currentThread().getId();
+        Ring<KeyType, ValueType> ring = m_rings[(int) (threadId * 0x9E3779B97F4A7C15L >>> 40) & m_ringMask];
+
+        return ring.offer(p_entry, p_time);
+    }
+
+    /**
+     * Drains all rings. Must be called by one thread at a time only (i.e. with the exclusive lock of the cache).
+     *
+     * @param p_consumer
+     *         applies the recorded accesses (entry and time of the access)
+     */
+    void drainTo(final ObjLongConsumer<Cache.CacheEntry<KeyType, ValueType>> p_consumer) {
+        for (Ring<KeyType, ValueType> ring : m_rings) {
+            ring.drainTo(p_consumer);
+        }
+    }
+
+    // Classes
+
+    /**
+     * Bounded multi producer, single consumer ring buffer
+     *
+     * @param <KeyType>
+     *         Type of the key
+     * @param <ValueType>
+     *         Type of the value
+     */
+    private static final class Ring<KeyType, ValueType> {
+
+        // Attributes
+        private final AtomicReferenceArray<Cache.CacheEntry<KeyType, ValueType>> m_buffer;
+        private final AtomicLongArray m_times;
+        private final AtomicLong m_writeCounter;
+        private volatile long m_readCounter;
+
+        // Constructors
+
+        /**
+         * Creates an instance of Ring
+         */
+        Ring() {
+            m_buffer = new AtomicReferenceArray<Cache.CacheEntry<KeyType, ValueType>>(RING_SIZE);
+            m_times = new AtomicLongArray(RING_SIZE);
+            m_writeCounter = new AtomicLong(0);
+            m_readCounter = 0;
+        }
+
+        // Methods
+
+        /**
+         * Appends an entry
+         *
+         * @param p_entry
+         *         the cache entry
+         * @param p_time
+         *         the time of the access
+         * @return the result
+         */
+        Result offer(final Cache.CacheEntry<KeyType, ValueType> p_entry, final long p_time) {
+            long head = m_readCounter;
+            long tail = m_writeCounter.get();
+            long size = tail - head;
+
+            if (size >= RING_SIZE) {
+                return Result.DRAIN;
+            }
+
+            if (!m_writeCounter.compareAndSet(tail, tail + 1)) {
+                return Result.FAILED;
+            }
+
+            // The time is visible to the consumer once the entry is published
+            m_times.lazySet((int) (tail & RING_MASK), p_time);
+            m_buffer.lazySet((int) (tail & RING_MASK), p_entry);
+
+            return size + 1 >= DRAIN_THRESHOLD ? Result.DRAIN : Result.SUCCESS;
+        }
+
+        /**
+         * Removes all published entries
+         *
+         * @param p_consumer
+         *         the consumer for the entries
+         */
+        void drainTo(final ObjLongConsumer<Cache.CacheEntry<KeyType, ValueType>> p_consumer) {
+            long head = m_readCounter;
+            long tail = m_writeCounter.get();
+            Cache.CacheEntry<KeyType, ValueType> entry;
+            int index;
+
+            while (head < tail) {
+                index = (int) (head & RING_MASK);
+                entry = m_buffer.get(index);
+                if (entry == null) {
+                    // slot claimed but not published yet
+                    break;
+                }
+
+                m_buffer.lazySet(index, null);
+                p_consumer.accept(entry, m_times.get(index));
+                head++;
+            }
+
+            m_readCounter = head;
+        }
+
+    }
+
+}
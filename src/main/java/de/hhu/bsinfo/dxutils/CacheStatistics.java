@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+import de.hhu.bsinfo.dxutils.stats.AbstractOperation;
+import de.hhu.bsinfo.dxutils.stats.StatisticsManager;
+import de.hhu.bsinfo.dxutils.stats.TimePercentilePool;
+import de.hhu.bsinfo.dxutils.stats.ValuePool;
+
+/**
+ * Statistics of a Cache: hits, misses, removed entries by cause and load latency. All counters are per thread
+ * operation pools, so recording does not contend. The operations are registered with the StatisticsManager (as
+ * operations of the class Cache) and named after the cache.
+ */
+public final class CacheStatistics {
+
+    // Attributes
+    private final ValuePool m_hits;
+    private final ValuePool m_misses;
+    private final ValuePool m_evictions;
+    private final ValuePool m_expirations;
+    private final ValuePool m_removals;
+    private final TimePercentilePool m_loadTime;
+
+    // Constructors
+
+    /**
+     * Creates an instance of CacheStatistics
+     *
+     * @param p_name
+     *         the name of the cache (prefix of the operation names)
+     */
+    CacheStatistics(final String p_name) {
+        m_hits = new ValuePool(Cache.class, p_name + "-Hits");
+        m_misses = new ValuePool(Cache.class, p_name + "-Misses");
+        m_evictions = new ValuePool(Cache.class, p_name + "-Evictions");
+        m_expirations = new ValuePool(Cache.class, p_name + "-Expirations");
+        m_removals = new ValuePool(Cache.class, p_name + "-Removals");
+        m_loadTime = new TimePercentilePool(Cache.class, p_name + "-LoadTime");
+    }
+
+    // Getters
+
+    /**
+     * Gets the number of successful lookups
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return m_hits.getTotalValue();
+    }
+
+    /**
+     * Gets the number of failed lookups
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return m_misses.getTotalValue();
+    }
+
+    /**
+     * Gets the ratio of successful lookups
+     *
+     * @return the hit rate (0 if there was no lookup yet)
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long lookups = hits + getMisses();
+
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    /**
+     * Gets the number of entries evicted because of the size or weight limit
+     *
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return m_evictions.getTotalValue();
+    }
+
+    /**
+     * Gets the number of entries removed because their TTL expired
+     *
+     * @return the number of expirations
+     */
+    public long getExpirations() {
+        return m_expirations.getTotalValue();
+    }
+
+    /**
+     * Gets the number of entries removed explicitly (remove, removeAll, clear)
+     *
+     * @return the number of removals
+     */
+    public long getRemovals() {
+        return m_removals.getTotalValue();
+    }
+
+    /**
+     * Gets the latency of loads (including refreshes) in ns
+     *
+     * @return the load time operation
+     */
+    public TimePercentilePool getLoadTime() {
+        return m_loadTime;
+    }
+
+    // Methods
+
+    /**
+     * Records lookups
+     *
+     * @param p_hits
+     *         the number of hits
+     * @param p_misses
+     *         the number of misses
+     */
+    void recordLookups(final int p_hits, final int p_misses) {
+        if (p_hits > 0) {
+            m_hits.add(p_hits);
+        }
+
+        if (p_misses > 0) {
+            m_misses.add(p_misses);
+        }
+    }
+
+    /**
+     * Records an eviction
+     */
+    void recordEviction() {
+        m_evictions.inc();
+    }
+
+    /**
+     * Records an expiration
+     */
+    void recordExpiration() {
+        m_expirations.inc();
+    }
+
+    /**
+     * Records an explicit removal
+     */
+    void recordRemoval() {
+        m_removals.inc();
+    }
+
+    /**
+     * Records the duration of a load
+     *
+     * @param p_timeNs
+     *         the duration in ns
+     */
+    void recordLoad(final long p_timeNs) {
+        m_loadTime.record(p_timeNs);
+    }
+
+    /**
+     * Registers all operations with the StatisticsManager
+     */
+    void register() {
+        for (AbstractOperation operation : operations()) {
+            StatisticsManager.get().registerOperation(Cache.class, operation);
+        }
+    }
+
+    /**
+     * Deregisters all operations from the StatisticsManager
+     */
+    void deregister() {
+        for (AbstractOperation operation : operations()) {
+            StatisticsManager.get().deregisterOperation(Cache.class, operation);
+        }
+    }
+
+    /**
+     * Gets all operations
+     *
+     * @return the operations
+     */
+    private AbstractOperation[] operations() {
+        return new AbstractOperation[] {m_hits, m_misses, m_evictions, m_expirations, m_removals, m_loadTime};
+    }
+
+}
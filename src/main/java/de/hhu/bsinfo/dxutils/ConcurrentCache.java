@@ -0,0 +1,679 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Implements a concurrent cache. The key space is split into independently locked stripes, each with its own
+ * eviction policy and size limit. Lookups do not take a lock: the table is a ConcurrentHashMap and accesses are
+ * buffered and applied to the eviction policy in batches by the thread holding the stripe lock.
+ *
+ * @param <KeyType>
+ *         Type of the key
+ * @param <ValueType>
+ *         Type of the value
+ */
+public class ConcurrentCache<KeyType, ValueType> {
+
+    // Constants
+    private static final int DEFAULT_STRIPES = 16;
+    private static final int READ_BUFFER_RINGS_PER_STRIPE = 4;
+
+    // Attributes
+    private final Stripe<KeyType, ValueType>[] m_stripes;
+    private final int m_stripeMask;
+
+    // Constructors
+
+    /**
+     * Creates an instance of ConcurrentCache
+     *
+     * @param p_maxSize
+     *         the maximum of cached elements
+     */
+    public ConcurrentCache(final int p_maxSize) {
+        this(p_maxSize, Cache.POLICY.LRU);
+    }
+
+    /**
+     * Creates an instance of ConcurrentCache
+     *
+     * @param p_maxSize
+     *         the maximum of cached elements
+     * @param p_policyEnum
+     *         the POLICY
+     */
+    public ConcurrentCache(final int p_maxSize, final Cache.POLICY p_policyEnum) {
+        this(p_maxSize, DEFAULT_STRIPES,
+                () -> Cache.<KeyType, ValueType>createPolicy(p_policyEnum, stripeSize(p_maxSize, DEFAULT_STRIPES)));
+    }
+
+    /**
+     * Creates an instance of ConcurrentCache
+     *
+     * @param p_maxSize
+     *         the maximum of cached elements (distributed evenly over all stripes)
+     * @param p_stripes
+     *         the number of stripes (rounded up to a power of two)
+     * @param p_policyFactory
+     *         creates one eviction policy per stripe
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentCache(final int p_maxSize, final int p_stripes,
+            final Supplier<Cache.EvictionPolicy<KeyType, ValueType>> p_policyFactory) {
+        int stripes;
+        int stripeSize;
+
+        assert p_maxSize > 0;
+        assert p_stripes > 0;
+        assert p_policyFactory != null;
+
+        stripes = stripeCount(p_stripes);
+        stripeSize = stripeSize(p_maxSize, stripes);
+
+        m_stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            m_stripes[i] = new Stripe<KeyType, ValueType>(stripeSize, p_policyFactory.get());
+        }
+        m_stripeMask = stripes - 1;
+    }
+
+    // Getters
+
+    /**
+     * Gets the number of stripes
+     *
+     * @return the number of stripes
+     */
+    public int getStripeCount() {
+        return m_stripes.length;
+    }
+
+    /**
+     * Gets the number of cached elements
+     *
+     * @return the number of cached elements
+     */
+    public int size() {
+        int size = 0;
+
+        for (Stripe<KeyType, ValueType> stripe : m_stripes) {
+            size += stripe.m_map.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * Gets the number of successful lookups of a stripe
+     *
+     * @param p_stripe
+     *         the stripe index
+     * @return the number of hits
+     */
+    public long getHits(final int p_stripe) {
+        return m_stripes[p_stripe].m_hits.sum();
+    }
+
+    /**
+     * Gets the number of failed lookups of a stripe
+     *
+     * @param p_stripe
+     *         the stripe index
+     * @return the number of misses
+     */
+    public long getMisses(final int p_stripe) {
+        return m_stripes[p_stripe].m_misses.sum();
+    }
+
+    /**
+     * Gets the number of successful lookups of all stripes
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        long hits = 0;
+
+        for (Stripe<KeyType, ValueType> stripe : m_stripes) {
+            hits += stripe.m_hits.sum();
+        }
+
+        return hits;
+    }
+
+    /**
+     * Gets the number of failed lookups of all stripes
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        long misses = 0;
+
+        for (Stripe<KeyType, ValueType> stripe : m_stripes) {
+            misses += stripe.m_misses.sum();
+        }
+
+        return misses;
+    }
+
+    // Methods
+
+    /**
+     * Creates a new cache entry or updates an existing one
+     *
+     * @param p_key
+     *         the key
+     * @param p_value
+     *         the value
+     */
+    public final void put(final KeyType p_key, final ValueType p_value) {
+        assert p_key != null;
+
+        stripeFor(p_key).put(p_key, p_value);
+    }
+
+    /**
+     * Gets the value of a cache entry for the given key
+     *
+     * @param p_key
+     *         the key
+     * @return the value of the cache entry or null if no entry exists
+     */
+    public final ValueType get(final KeyType p_key) {
+        assert p_key != null;
+
+        return stripeFor(p_key).get(p_key);
+    }
+
+    /**
+     * Gets the values of the cache entries for the given keys
+     *
+     * @param p_keys
+     *         the keys
+     * @param p_values
+     *         the array to store the values in (at the keys' positions, null if no entry exists)
+     * @return the number of found entries
+     */
+    public final int getAll(final KeyType[] p_keys, final ValueType[] p_values) {
+        int ret = 0;
+
+        assert p_keys != null;
+        assert p_values != null && p_values.length >= p_keys.length;
+
+        for (int i = 0; i < p_keys.length; i++) {
+            p_values[i] = get(p_keys[i]);
+            if (p_values[i] != null) {
+                ret++;
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Gets the values of the cache entries for the given keys
+     *
+     * @param p_keys
+     *         the keys
+     * @param p_result
+     *         the map to put the found entries in
+     * @return the number of found entries
+     */
+    public final int getAll(final Collection<KeyType> p_keys, final Map<KeyType, ValueType> p_result) {
+        ValueType value;
+        int ret = 0;
+
+        assert p_keys != null;
+        assert p_result != null;
+
+        for (KeyType key : p_keys) {
+            value = get(key);
+            if (value != null) {
+                p_result.put(key, value);
+                ret++;
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Creates or updates cache entries for all given key-value pairs. The pairs are grouped by stripe and every
+     * stripe lock is acquired once.
+     *
+     * @param p_entries
+     *         the key-value pairs
+     */
+    @SuppressWarnings("unchecked")
+    public final void putAll(final Map<KeyType, ValueType> p_entries) {
+        KeyType[] keys;
+        ValueType[] values;
+        int[] order;
+        int[] bounds;
+        int i = 0;
+
+        assert p_entries != null;
+
+        keys = (KeyType[]) new Object[p_entries.size()];
+        values = (ValueType[]) new Object[p_entries.size()];
+        for (Map.Entry<KeyType, ValueType> entry : p_entries.entrySet()) {
+            assert entry.getKey() != null;
+
+            keys[i] = entry.getKey();
+            values[i] = entry.getValue();
+            i++;
+        }
+
+        bounds = new int[m_stripes.length + 1];
+        order = groupByStripe(keys, bounds);
+        for (int stripe = 0; stripe < m_stripes.length; stripe++) {
+            if (bounds[stripe] < bounds[stripe + 1]) {
+                m_stripes[stripe].putAll(keys, values, order, bounds[stripe], bounds[stripe + 1]);
+            }
+        }
+    }
+
+    /**
+     * Removes the cache entry for the given key
+     *
+     * @param p_key
+     *         the key
+     */
+    public final void remove(final KeyType p_key) {
+        assert p_key != null;
+
+        stripeFor(p_key).remove(p_key);
+    }
+
+    /**
+     * Removes the cache entries for the given keys. The keys are grouped by stripe and every stripe lock is acquired
+     * once.
+     *
+     * @param p_keys
+     *         the keys
+     */
+    @SuppressWarnings("unchecked")
+    public final void removeAll(final Collection<KeyType> p_keys) {
+        KeyType[] keys;
+        int[] order;
+        int[] bounds;
+
+        assert p_keys != null;
+
+        keys = p_keys.toArray((KeyType[]) new Object[p_keys.size()]);
+        bounds = new int[m_stripes.length + 1];
+        order = groupByStripe(keys, bounds);
+        for (int stripe = 0; stripe < m_stripes.length; stripe++) {
+            if (bounds[stripe] < bounds[stripe + 1]) {
+                m_stripes[stripe].removeAll(keys, order, bounds[stripe], bounds[stripe + 1]);
+            }
+        }
+    }
+
+    /**
+     * Checks if a cache entry exists for the given key
+     *
+     * @param p_key
+     *         the key
+     * @return true if a cache entry exists, false otherwise
+     */
+    public final boolean contains(final KeyType p_key) {
+        assert p_key != null;
+
+        return stripeFor(p_key).m_map.containsKey(p_key);
+    }
+
+    /**
+     * Removes all entries from the cache
+     */
+    public final void clear() {
+        for (Stripe<KeyType, ValueType> stripe : m_stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * Rounds the number of stripes up to a power of two
+     *
+     * @param p_stripes
+     *         the requested number of stripes
+     * @return the number of stripes
+     */
+    private static int stripeCount(final int p_stripes) {
+        int stripes = Integer.highestOneBit(p_stripes);
+
+        if (stripes < p_stripes) {
+            stripes <<= 1;
+        }
+
+        return stripes;
+    }
+
+    /**
+     * Gets the maximum of cached elements per stripe
+     *
+     * @param p_maxSize
+     *         the maximum of cached elements
+     * @param p_stripes
+     *         the requested number of stripes
+     * @return the maximum of cached elements per stripe
+     */
+    private static int stripeSize(final int p_maxSize, final int p_stripes) {
+        int stripes = stripeCount(p_stripes);
+
+        return Math.max(1, (int) (((long) p_maxSize + stripes - 1) / stripes));
+    }
+
+    /**
+     * Gets the stripe responsible for the given key
+     *
+     * @param p_key
+     *         the key
+     * @return the stripe
+     */
+    private Stripe<KeyType, ValueType> stripeFor(final KeyType p_key) {
+        return m_stripes[stripeIndex(p_key)];
+    }
+
+    /**
+     * Gets the index of the stripe responsible for the given key
+     *
+     * @param p_key
+     *         the key
+     * @return the stripe index
+     */
+    private int stripeIndex(final KeyType p_key) {
+        int hash = p_key.hashCode();
+
+        // spread higher bits as the stripe is selected with the lower bits only
+        hash ^= hash >>> 16;
+        hash *= 0x45d9f3b;
+        hash ^= hash >>> 16;
+
+        return hash & m_stripeMask;
+    }
+
+    /**
+     * Sorts keys by stripe (counting sort)
+     *
+     * @param p_keys
+     *         the keys
+     * @param p_bounds
+     *         array with length stripes + 1, filled with the start positions of every stripe in the returned order
+     * @return the positions of the keys in p_keys ordered by stripe
+     */
+    private int[] groupByStripe(final KeyType[] p_keys, final int[] p_bounds) {
+        int[] stripes = new int[p_keys.length];
+        int[] order = new int[p_keys.length];
+        int[] next;
+
+        for (int i = 0; i < p_keys.length; i++) {
+            stripes[i] = stripeIndex(p_keys[i]);
+            p_bounds[stripes[i] + 1]++;
+        }
+
+        for (int i = 1; i < p_bounds.length; i++) {
+            p_bounds[i] += p_bounds[i - 1];
+        }
+
+        next = p_bounds.clone();
+        for (int i = 0; i < p_keys.length; i++) {
+            order[next[stripes[i]]++] = i;
+        }
+
+        return order;
+    }
+
+    // Classes
+
+    /**
+     * Independently locked part of the cache
+     *
+     * @param <KeyType>
+     *         Type of the key
+     * @param <ValueType>
+     *         Type of the value
+     */
+    private static final class Stripe<KeyType, ValueType> {
+
+        // Attributes
+        private final ConcurrentHashMap<KeyType, Cache.CacheEntry<KeyType, ValueType>> m_map;
+        private final int m_maxSize;
+        private final Cache.EvictionPolicy<KeyType, ValueType> m_policy;
+
+        private final ReentrantLock m_lock;
+        private final CacheReadBuffer<KeyType, ValueType> m_readBuffer;
+        private final ObjLongConsumer<Cache.CacheEntry<KeyType, ValueType>> m_accessApplier;
+
+        private final LongAdder m_hits;
+        private final LongAdder m_misses;
+
+        // Constructors
+
+        /**
+         * Creates an instance of Stripe
+         *
+         * @param p_maxSize
+         *         the maximum of cached elements in this stripe
+         * @param p_policy
+         *         the eviction policy
+         */
+        Stripe(final int p_maxSize, final Cache.EvictionPolicy<KeyType, ValueType> p_policy) {
+            m_map = new ConcurrentHashMap<KeyType, Cache.CacheEntry<KeyType, ValueType>>();
+            m_maxSize = p_maxSize;
+            m_policy = p_policy;
+
+            m_lock = new ReentrantLock(false);
+            m_readBuffer = new CacheReadBuffer<KeyType, ValueType>(READ_BUFFER_RINGS_PER_STRIPE);
+            m_accessApplier = this::applyAccess;
+
+            m_hits = new LongAdder();
+            m_misses = new LongAdder();
+        }
+
+        // Methods
+
+        /**
+         * Creates a new cache entry or updates an existing one
+         *
+         * @param p_key
+         *         the key
+         * @param p_value
+         *         the value
+         */
+        void put(final KeyType p_key, final ValueType p_value) {
+            m_lock.lock();
+
+            m_readBuffer.drainTo(m_accessApplier);
+
+            insert(p_key, p_value);
+
+            m_lock.unlock();
+        }
+
+        /**
+         * Creates or updates cache entries with a single lock acquisition
+         *
+         * @param p_keys
+         *         the keys
+         * @param p_values
+         *         the values
+         * @param p_order
+         *         positions in p_keys and p_values
+         * @param p_from
+         *         the first position in p_order to process
+         * @param p_to
+         *         the end (exclusive) in p_order
+         */
+        void putAll(final KeyType[] p_keys, final ValueType[] p_values, final int[] p_order, final int p_from,
+                final int p_to) {
+            m_lock.lock();
+
+            m_readBuffer.drainTo(m_accessApplier);
+
+            for (int i = p_from; i < p_to; i++) {
+                insert(p_keys[p_order[i]], p_values[p_order[i]]);
+            }
+
+            m_lock.unlock();
+        }
+
+        /**
+         * Creates a new cache entry or updates an existing one. Caller must hold the stripe lock.
+         *
+         * @param p_key
+         *         the key
+         * @param p_value
+         *         the value
+         */
+        private void insert(final KeyType p_key, final ValueType p_value) {
+            Cache.CacheEntry<KeyType, ValueType> entry;
+
+            entry = m_map.get(p_key);
+            if (entry != null) {
+                entry.setValue(p_value);
+            } else {
+                if (m_map.size() >= m_maxSize) {
+                    entry = m_map.remove(m_policy.evict(m_map.values()));
+                    if (entry != null) {
+                        m_policy.removeEntry(entry, m_map.values());
+                    }
+                }
+
+                entry = new Cache.CacheEntry<KeyType, ValueType>(p_key, p_value);
+                m_policy.newEntry(entry);
+
+                m_map.put(p_key, entry);
+            }
+
+            entry.access();
+            m_policy.accessEntry(entry);
+        }
+
+        /**
+         * Gets the value of a cache entry for the given key without blocking
+         *
+         * @param p_key
+         *         the key
+         * @return the value of the cache entry or null if no entry exists
+         */
+        ValueType get(final KeyType p_key) {
+            Cache.CacheEntry<KeyType, ValueType> entry;
+
+            entry = m_map.get(p_key);
+            if (entry == null) {
+                m_misses.increment();
+                return null;
+            }
+
+            m_hits.increment();
+
+            // Drain only if no writer is active instead of waiting for it
+            if (m_readBuffer.offer(entry) == CacheReadBuffer.Result.DRAIN && m_lock.tryLock()) {
+                m_readBuffer.drainTo(m_accessApplier);
+
+                m_lock.unlock();
+            }
+
+            return entry.getValue();
+        }
+
+        /**
+         * Applies a buffered access. Entries removed in the meantime are skipped. Caller must hold the stripe lock.
+         *
+         * @param p_entry
+         *         the cache entry
+         * @param p_time
+         *         the time of the access (not recorded)
+         */
+        private void applyAccess(final Cache.CacheEntry<KeyType, ValueType> p_entry, final long p_time) {
+            if (m_map.get(p_entry.getKey()) == p_entry) {
+                p_entry.access();
+                m_policy.accessEntry(p_entry);
+            }
+        }
+
+        /**
+         * Removes the cache entry for the given key
+         *
+         * @param p_key
+         *         the key
+         */
+        void remove(final KeyType p_key) {
+            Cache.CacheEntry<KeyType, ValueType> entry;
+
+            m_lock.lock();
+
+            entry = m_map.remove(p_key);
+            if (entry != null) {
+                m_policy.removeEntry(entry, m_map.values());
+            }
+
+            m_lock.unlock();
+        }
+
+        /**
+         * Removes cache entries with a single lock acquisition
+         *
+         * @param p_keys
+         *         the keys
+         * @param p_order
+         *         positions in p_keys
+         * @param p_from
+         *         the first position in p_order to process
+         * @param p_to
+         *         the end (exclusive) in p_order
+         */
+        void removeAll(final KeyType[] p_keys, final int[] p_order, final int p_from, final int p_to) {
+            Cache.CacheEntry<KeyType, ValueType> entry;
+
+            m_lock.lock();
+
+            for (int i = p_from; i < p_to; i++) {
+                entry = m_map.remove(p_keys[p_order[i]]);
+                if (entry != null) {
+                    m_policy.removeEntry(entry, m_map.values());
+                }
+            }
+
+            m_lock.unlock();
+        }
+
+        /**
+         * Removes all entries from the stripe
+         */
+        void clear() {
+            m_lock.lock();
+
+            for (Cache.CacheEntry<KeyType, ValueType> entry : m_map.values()) {
+                m_map.remove(entry.getKey());
+                m_policy.removeEntry(entry, m_map.values());
+            }
+
+            m_lock.unlock();
+        }
+
+    }
+
+}
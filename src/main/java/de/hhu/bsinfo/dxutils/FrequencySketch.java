@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+/**
+ * Count-min sketch with 4 bit counters estimating the access frequency of keys. Four counters are incremented per
+ * access and the minimum is the estimation. All counters are halved periodically (after 10 * capacity increments) so
+ * the history ages and old popularity does not outweigh recent accesses.
+ */
+final class FrequencySketch {
+
+    // Constants
+    private static final int MAX_TABLE_LENGTH = 1 << 22;
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+            0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    // Attributes
+    private final long[] m_table;
+    private final int m_tableMask;
+    private final int m_sampleSize;
+    private int m_increments;
+
+    // Constructors
+
+    /**
+     * Creates an instance of FrequencySketch
+     *
+     * @param p_capacity
+     *         the number of elements which should be tracked (i.e. the cache size)
+     */
+    FrequencySketch(final int p_capacity) {
+        int length = Integer.highestOneBit(Math.max(16, Math.min(p_capacity, MAX_TABLE_LENGTH)));
+
+        if (length < p_capacity && length < MAX_TABLE_LENGTH) {
+            length <<= 1;
+        }
+
+        m_table = new long[length];
+        m_tableMask = length - 1;
+        m_sampleSize = (int) Math.min(10L * length, Integer.MAX_VALUE);
+        m_increments = 0;
+    }
+
+    // Methods
+
+    /**
+     * Estimates the access frequency
+     *
+     * @param p_hash
+     *         the hash code of the key
+     * @return the estimated frequency (0 - 15)
+     */
+    int frequency(final int p_hash) {
+        int frequency = MAX_COUNT;
+
+        for (int i = 0; i < SEEDS.length; i++) {
+            long hash = indexHash(p_hash, i);
+            int count = (int) (m_table[(int) hash & m_tableMask] >>> offset(hash) & 0xF);
+
+            if (count < frequency) {
+                frequency = count;
+            }
+        }
+
+        return frequency;
+    }
+
+    /**
+     * Increments the counters of a key (if not saturated)
+     *
+     * @param p_hash
+     *         the hash code of the key
+     */
+    void increment(final int p_hash) {
+        boolean incremented = false;
+
+        for (int i = 0; i < SEEDS.length; i++) {
+            long hash = indexHash(p_hash, i);
+            int index = (int) hash & m_tableMask;
+            int offset = offset(hash);
+
+            if ((m_table[index] >>> offset & 0xF) < MAX_COUNT) {
+                m_table[index] += 1L << offset;
+                incremented = true;
+            }
+        }
+
+        if (incremented && ++m_increments >= m_sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Halves all counters
+     */
+    private void reset() {
+        for (int i = 0; i < m_table.length; i++) {
+            m_table[i] = m_table[i] >>> 1 & RESET_MASK;
+        }
+
+        m_increments /= 2;
+    }
+
+    /**
+     * Computes the hash for the i-th counter
+     *
+     * @param p_hash
+     *         the hash code of the key
+     * @param p_i
+     *         the counter index
+     * @return the hash (lower bits select the table slot, bits 32 to 35 the counter within the slot)
+     */
+    private static long indexHash(final int p_hash, final int p_i) {
+        long hash = (p_hash + SEEDS[p_i]) * SEEDS[p_i];
+
+        return hash ^ hash >>> 29;
+    }
+
+    /**
+     * Gets the bit offset of the counter within a slot
+     *
+     * @param p_hash
+     *         the hash from indexHash
+     * @return the bit offset
+     */
+    private static int offset(final long p_hash) {
+        return (int) (p_hash >>> 32 & 0xF) << 2;
+    }
+
+}
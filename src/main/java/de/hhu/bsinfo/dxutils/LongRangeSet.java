@@ -0,0 +1,617 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+import de.hhu.bsinfo.dxutils.serialization.Exportable;
+import de.hhu.bsinfo.dxutils.serialization.Exporter;
+import de.hhu.bsinfo.dxutils.serialization.Importable;
+import de.hhu.bsinfo.dxutils.serialization.Importer;
+import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
+
+/**
+ * Sorted set of longs stored as disjoint ranges (start and inclusive end, ascending and never adjacent). Mostly
+ * consecutive values like chunk IDs of one creator need 16 bytes per range instead of 8 bytes per value.
+ * Exported as the number of ranges followed by the gap to the previous range and the length of every range as
+ * variable-length numbers (7 bits per byte), so a range of consecutive IDs takes a few bytes on the wire.
+ */
+public class LongRangeSet implements Importable, Exportable {
+
+    private static final int INITIAL_RANGES = 4;
+
+    // start and end of range i at 2 * i and 2 * i + 1
+    private long[] m_ranges;
+    private int m_rangeCount;
+    private long m_size;
+
+    /**
+     * Default constructor
+     */
+    public LongRangeSet() {
+        m_ranges = new long[INITIAL_RANGES * 2];
+    }
+
+    /**
+     * Copy constructor
+     *
+     * @param p_set
+     *         Set to copy
+     */
+    public LongRangeSet(final LongRangeSet p_set) {
+        m_ranges = Arrays.copyOf(p_set.m_ranges, Math.max(p_set.m_rangeCount, 1) * 2);
+        m_rangeCount = p_set.m_rangeCount;
+        m_size = p_set.m_size;
+    }
+
+    /**
+     * Create a set with the values of an array list (in any order)
+     *
+     * @param p_list
+     *         List with values to add
+     * @return LongRangeSet with the values of the list
+     */
+    public static LongRangeSet copy(final ArrayListLong p_list) {
+        LongRangeSet ret = new LongRangeSet();
+
+        ret.addAll(p_list.getArray(), 0, p_list.getSize());
+
+        return ret;
+    }
+
+    /**
+     * Get the number of values
+     *
+     * @return Number of values
+     */
+    public long getSize() {
+        return m_size;
+    }
+
+    /**
+     * Get the number of ranges
+     *
+     * @return Number of ranges
+     */
+    public int getRangeCount() {
+        return m_rangeCount;
+    }
+
+    /**
+     * Check if the set is empty
+     *
+     * @return True on empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return m_rangeCount == 0;
+    }
+
+    /**
+     * Get the first value of a range
+     *
+     * @param p_index
+     *         Index of the range (less than the range count)
+     * @return First value of the range
+     */
+    public long getRangeStart(final int p_index) {
+        return m_ranges[p_index * 2];
+    }
+
+    /**
+     * Get the last value of a range
+     *
+     * @param p_index
+     *         Index of the range (less than the range count)
+     * @return Last value of the range
+     */
+    public long getRangeEnd(final int p_index) {
+        return m_ranges[p_index * 2 + 1];
+    }
+
+    /**
+     * Check if a value is in the set (binary search over the ranges)
+     *
+     * @param p_val
+     *         Value to check
+     * @return True if the value is in the set
+     */
+    public boolean contains(final long p_val) {
+        int index = findRange(p_val);
+
+        return index >= 0 && p_val <= m_ranges[index * 2 + 1];
+    }
+
+    /**
+     * Add a value
+     *
+     * @param p_val
+     *         Value to add
+     * @return True if the value was added, false if it was in the set already
+     */
+    public boolean add(final long p_val) {
+        long size = m_size;
+
+        addRange(p_val, p_val);
+
+        return m_size != size;
+    }
+
+    /**
+     * Add values of a primitive array (in any order). Ascending values are appended without shifting any ranges.
+     *
+     * @param p_array
+     *         Array with values to add
+     * @param p_offset
+     *         Index of the first value to add
+     * @param p_length
+     *         Number of values to add
+     */
+    public void addAll(final long[] p_array, final int p_offset, final int p_length) {
+        for (int i = p_offset; i < p_offset + p_length; i++) {
+            addRange(p_array[i], p_array[i]);
+        }
+    }
+
+    /**
+     * Add all values of a range. Overlapping and adjacent ranges are merged.
+     *
+     * @param p_start
+     *         First value of the range
+     * @param p_end
+     *         Last value of the range (inclusive)
+     */
+    public void addRange(final long p_start, final long p_end) {
+        int first;
+        int last;
+        long start;
+        long end;
+
+        assert p_start <= p_end;
+
+        // Ranges overlapping or adjacent to the new one
+        first = firstRangeEndingAtOrAfter(p_start);
+        last = findRange(p_end);
+        if (last + 1 < m_rangeCount && m_ranges[(last + 1) * 2] - 1 == p_end) {
+            last++;
+        }
+
+        if (first > last) {
+            insertRanges(first, 1);
+            m_ranges[first * 2] = p_start;
+            m_ranges[first * 2 + 1] = p_end;
+            m_size += p_end - p_start + 1;
+            return;
+        }
+
+        start = Math.min(p_start, m_ranges[first * 2]);
+        end = Math.max(p_end, m_ranges[last * 2 + 1]);
+        for (int i = first; i <= last; i++) {
+            m_size -= m_ranges[i * 2 + 1] - m_ranges[i * 2] + 1;
+        }
+        m_size += end - start + 1;
+
+        m_ranges[first * 2] = start;
+        m_ranges[first * 2 + 1] = end;
+        removeRanges(first + 1, last - first);
+    }
+
+    /**
+     * Remove a value
+     *
+     * @param p_val
+     *         Value to remove
+     * @return True if the value was removed, false if it was not in the set
+     */
+    public boolean remove(final long p_val) {
+        int index = findRange(p_val);
+        long start;
+        long end;
+
+        if (index < 0 || p_val > m_ranges[index * 2 + 1]) {
+            return false;
+        }
+
+        start = m_ranges[index * 2];
+        end = m_ranges[index * 2 + 1];
+        if (start == end) {
+            removeRanges(index, 1);
+        } else if (p_val == start) {
+            m_ranges[index * 2] = p_val + 1;
+        } else if (p_val == end) {
+            m_ranges[index * 2 + 1] = p_val - 1;
+        } else {
+            // Split the range
+            insertRanges(index + 1, 1);
+            m_ranges[index * 2 + 1] = p_val - 1;
+            m_ranges[(index + 1) * 2] = p_val + 1;
+            m_ranges[(index + 1) * 2 + 1] = end;
+        }
+        m_size--;
+
+        return true;
+    }
+
+    /**
+     * Remove all values
+     */
+    public void clear() {
+        m_rangeCount = 0;
+        m_size = 0;
+    }
+
+    /**
+     * Create the union of this and another set (linear in the number of ranges of both sets)
+     *
+     * @param p_set
+     *         Other set
+     * @return New set with the values of both sets
+     */
+    public LongRangeSet union(final LongRangeSet p_set) {
+        LongRangeSet ret = new LongRangeSet();
+        int i = 0;
+        int j = 0;
+
+        ret.m_ranges = new long[Math.max(m_rangeCount + p_set.m_rangeCount, 1) * 2];
+        while (i < m_rangeCount || j < p_set.m_rangeCount) {
+            if (j == p_set.m_rangeCount || i < m_rangeCount && m_ranges[i * 2] <= p_set.m_ranges[j * 2]) {
+                ret.append(m_ranges[i * 2], m_ranges[i * 2 + 1]);
+                i++;
+            } else {
+                ret.append(p_set.m_ranges[j * 2], p_set.m_ranges[j * 2 + 1]);
+                j++;
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Create the intersection of this and another set (linear in the number of ranges of both sets)
+     *
+     * @param p_set
+     *         Other set
+     * @return New set with the values in both sets
+     */
+    public LongRangeSet intersection(final LongRangeSet p_set) {
+        LongRangeSet ret = new LongRangeSet();
+        int i = 0;
+        int j = 0;
+        long start;
+        long end;
+
+        while (i < m_rangeCount && j < p_set.m_rangeCount) {
+            start = Math.max(m_ranges[i * 2], p_set.m_ranges[j * 2]);
+            end = Math.min(m_ranges[i * 2 + 1], p_set.m_ranges[j * 2 + 1]);
+            if (start <= end) {
+                ret.append(start, end);
+            }
+
+            // Continue with the range ending first
+            if (m_ranges[i * 2 + 1] < p_set.m_ranges[j * 2 + 1]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Pass all values in ascending order to a consumer
+     *
+     * @param p_consumer
+     *         Consumer of the values
+     */
+    public void forEach(final LongConsumer p_consumer) {
+        for (int i = 0; i < m_rangeCount; i++) {
+            long end = m_ranges[i * 2 + 1];
+            long val = m_ranges[i * 2];
+
+            p_consumer.accept(val);
+            while (val != end) {
+                p_consumer.accept(++val);
+            }
+        }
+    }
+
+    /**
+     * Copy all values in ascending order to an array list
+     *
+     * @return Array list with all values
+     */
+    public ArrayListLong toArrayListLong() {
+        ArrayListLong ret;
+
+        assert m_size <= Integer.MAX_VALUE;
+
+        ret = new ArrayListLong(Math.max(1, (int) m_size));
+
+        forEach(ret::add);
+
+        return ret;
+    }
+
+    @Override
+    public void exportObject(final Exporter p_exporter) {
+        long previous = 0;
+
+        p_exporter.writeCompactNumber(m_rangeCount);
+        for (int i = 0; i < m_rangeCount; i++) {
+            writeVarLong(p_exporter, m_ranges[i * 2] - previous);
+            writeVarLong(p_exporter, m_ranges[i * 2 + 1] - m_ranges[i * 2]);
+            previous = m_ranges[i * 2 + 1];
+        }
+    }
+
+    @Override
+    public void importObject(final Importer p_importer) {
+        long previous;
+
+        m_rangeCount = p_importer.readCompactNumber(m_rangeCount);
+        m_size = 0;
+        if (m_ranges.length < m_rangeCount * 2) {
+            m_ranges = new long[m_rangeCount * 2];
+        }
+
+        // The deltas are derived from the ranges imported so far, so an importer can resume a partial import
+        for (int i = 0; i < m_rangeCount; i++) {
+            previous = i > 0 ? m_ranges[i * 2 - 1] : 0;
+            m_ranges[i * 2] = previous + readVarLong(p_importer, m_ranges[i * 2] - previous);
+            m_ranges[i * 2 + 1] = m_ranges[i * 2] + readVarLong(p_importer, m_ranges[i * 2 + 1] - m_ranges[i * 2]);
+            m_size += m_ranges[i * 2 + 1] - m_ranges[i * 2] + 1;
+        }
+    }
+
+    @Override
+    public int sizeofObject() {
+        int ret = ObjectSizeUtil.sizeofCompactedNumber(m_rangeCount);
+        long previous = 0;
+
+        for (int i = 0; i < m_rangeCount; i++) {
+            ret += sizeofVarLong(m_ranges[i * 2] - previous) + sizeofVarLong(m_ranges[i * 2 + 1] - m_ranges[i * 2]);
+            previous = m_ranges[i * 2 + 1];
+        }
+
+        return ret;
+    }
+
+    @Override
+    public boolean equals(final Object p_object) {
+        if (p_object instanceof LongRangeSet) {
+            LongRangeSet set = (LongRangeSet) p_object;
+            if (set.m_rangeCount == m_rangeCount) {
+                for (int i = 0; i < m_rangeCount * 2; i++) {
+                    if (set.m_ranges[i] != m_ranges[i]) {
+                        return false;
+                    }
+                }
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        int ret = 1;
+
+        for (int i = 0; i < m_rangeCount * 2; i++) {
+            ret = 31 * ret + Long.hashCode(m_ranges[i]);
+        }
+
+        return ret;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+
+        for (int i = 0; i < m_rangeCount; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(m_ranges[i * 2]);
+            if (m_ranges[i * 2 + 1] != m_ranges[i * 2]) {
+                builder.append('-').append(m_ranges[i * 2 + 1]);
+            }
+        }
+
+        return builder.append(']').toString();
+    }
+
+    /**
+     * Find the last range starting at or before a value
+     *
+     * @param p_val
+     *         Value
+     * @return Index of the range or -1 if all ranges start after the value
+     */
+    private int findRange(final long p_val) {
+        int low = 0;
+        int high = m_rangeCount - 1;
+        int mid;
+
+        // Most values are appended
+        if (m_rangeCount > 0 && m_ranges[high * 2] <= p_val) {
+            return high;
+        }
+
+        while (low <= high) {
+            mid = low + high >>> 1;
+            if (m_ranges[mid * 2] <= p_val) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return high;
+    }
+
+    /**
+     * Find the first range which ends at or after a value or directly before it (so the value can be merged)
+     *
+     * @param p_val
+     *         Value
+     * @return Index of the range or the range count if all ranges end before the value
+     */
+    private int firstRangeEndingAtOrAfter(final long p_val) {
+        int low = 0;
+        int high = m_rangeCount - 1;
+        int mid;
+        long end;
+
+        while (low <= high) {
+            mid = low + high >>> 1;
+            end = m_ranges[mid * 2 + 1];
+            if (end >= p_val || end + 1 == p_val) {
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Append a range after all ranges of the set. Merges the range with the last range if they overlap or are
+     * adjacent.
+     *
+     * @param p_start
+     *         First value of the range (not less than the start of the last range)
+     * @param p_end
+     *         Last value of the range
+     */
+    private void append(final long p_start, final long p_end) {
+        int last = m_rangeCount - 1;
+        long lastEnd;
+
+        if (last >= 0) {
+            lastEnd = m_ranges[last * 2 + 1];
+            if (lastEnd >= p_start || lastEnd + 1 == p_start) {
+                if (p_end > lastEnd) {
+                    m_ranges[last * 2 + 1] = p_end;
+                    m_size += p_end - lastEnd;
+                }
+                return;
+            }
+        }
+
+        insertRanges(m_rangeCount, 1);
+        m_ranges[m_rangeCount * 2 - 2] = p_start;
+        m_ranges[m_rangeCount * 2 - 1] = p_end;
+        m_size += p_end - p_start + 1;
+    }
+
+    /**
+     * Make room for ranges at an index (the array grows geometrically)
+     *
+     * @param p_index
+     *         Index of the first new range
+     * @param p_count
+     *         Number of new ranges
+     */
+    private void insertRanges(final int p_index, final int p_count) {
+        if ((m_rangeCount + p_count) * 2 > m_ranges.length) {
+            m_ranges = Arrays.copyOf(m_ranges, Math.max(m_ranges.length + (m_ranges.length >> 1),
+                    (m_rangeCount + p_count) * 2));
+        }
+
+        System.arraycopy(m_ranges, p_index * 2, m_ranges, (p_index + p_count) * 2, (m_rangeCount - p_index) * 2);
+        m_rangeCount += p_count;
+    }
+
+    /**
+     * Remove ranges at an index
+     *
+     * @param p_index
+     *         Index of the first range to remove
+     * @param p_count
+     *         Number of ranges to remove
+     */
+    private void removeRanges(final int p_index, final int p_count) {
+        System.arraycopy(m_ranges, (p_index + p_count) * 2, m_ranges, p_index * 2,
+                (m_rangeCount - p_index - p_count) * 2);
+        m_rangeCount -= p_count;
+    }
+
+    /**
+     * Write an unsigned variable-length number (7 bits per byte, the most significant bit marks a following byte)
+     *
+     * @param p_exporter
+     *         Exporter to write to
+     * @param p_val
+     *         Value to write (interpreted as unsigned)
+     */
+    private static void writeVarLong(final Exporter p_exporter, final long p_val) {
+        long val = p_val;
+
+        while ((val & ~0x7FL) != 0) {
+            p_exporter.writeByte((byte) (val & 0x7F | 0x80));
+            val >>>= 7;
+        }
+        p_exporter.writeByte((byte) val);
+    }
+
+    /**
+     * Read an unsigned variable-length number. The bytes of the current value are passed to the importer, so an
+     * importer returning them for bytes read before gets the same number.
+     *
+     * @param p_importer
+     *         Importer to read from
+     * @param p_current
+     *         Current value
+     * @return Value
+     */
+    private static long readVarLong(final Importer p_importer, final long p_current) {
+        int length = sizeofVarLong(p_current);
+        long ret = 0;
+        int shift = 0;
+        byte b;
+
+        do {
+            if (shift < length * 7) {
+                b = (byte) (p_current >>> shift & 0x7F | (shift + 7 < length * 7 ? 0x80 : 0));
+            } else {
+                // Beyond the current value: a set bit keeps the continuation of the bytes read before
+                b = 1;
+            }
+
+            b = p_importer.readByte(b);
+            ret |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0 && shift < Long.SIZE);
+
+        return ret;
+    }
+
+    /**
+     * Get the size of an unsigned variable-length number
+     *
+     * @param p_val
+     *         Value (interpreted as unsigned)
+     * @return Number of bytes
+     */
+    private static int sizeofVarLong(final long p_val) {
+        return Math.max(1, (64 - Long.numberOfLeadingZeros(p_val) + 6) / 7);
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+import de.hhu.bsinfo.dxutils.serialization.Exportable;
+import de.hhu.bsinfo.dxutils.serialization.Exporter;
+import de.hhu.bsinfo.dxutils.serialization.Importable;
+import de.hhu.bsinfo.dxutils.serialization.Importer;
+
+/**
+ * List of longs stored off-heap in pages allocated with UnsafeMemory. The size is a long, so the list can hold more
+ * than Integer.MAX_VALUE elements, and the garbage collector never scans or copies the elements. The list grows by
+ * allocating new pages, existing pages are never copied. Only the (small) array of page addresses is on-heap.
+ * Exported as the number of elements (as long) followed by the elements. Elements skipped by the Exporter/Importer
+ * (e.g. transferred with a previous buffer) are not copied.
+ * Not thread-safe. The memory must be released with free() (or close()).
+ */
+public class OffHeapArrayListLong implements Importable, Exportable, AutoCloseable {
+
+    // Constants
+    // 2^17 longs = 1 MB per page
+    private static final int DEFAULT_PAGE_SHIFT = 17;
+    // Elements are exported and imported in blocks of this size
+    private static final int TRANSFER_SIZE = 1024;
+
+    // Attributes
+    private final int m_pageShift;
+    private final long m_pageMask;
+    private long[] m_pages;
+    private int m_pageCount;
+    private long m_size;
+
+    // Constructors
+
+    /**
+     * Creates an instance of OffHeapArrayListLong with 1 MB pages.
+     */
+    public OffHeapArrayListLong() {
+        this(DEFAULT_PAGE_SHIFT);
+    }
+
+    /**
+     * Creates an instance of OffHeapArrayListLong.
+     *
+     * @param p_pageShift
+     *         the page size as power of two (number of longs per page is 2^p_pageShift, at most 2^27)
+     */
+    public OffHeapArrayListLong(final int p_pageShift) {
+        assert p_pageShift >= 0 && p_pageShift <= 27;
+
+        m_pageShift = p_pageShift;
+        m_pageMask = (1L << p_pageShift) - 1;
+        m_pages = new long[8];
+    }
+
+    // Getters
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return the number of elements
+     */
+    public long getSize() {
+        return m_size;
+    }
+
+    /**
+     * Returns whether the list is empty or not.
+     *
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return m_size == 0;
+    }
+
+    /**
+     * Returns the size of the off-heap memory.
+     *
+     * @return the size in bytes
+     */
+    public long getAllocatedMemory() {
+        return ((long) m_pageCount << m_pageShift) * Long.BYTES;
+    }
+
+    // Methods
+
+    /**
+     * Makes sure the list can hold the given number of elements without allocating pages.
+     *
+     * @param p_capacity
+     *         the minimum capacity
+     */
+    public void ensureCapacity(final long p_capacity) {
+        while ((long) m_pageCount << m_pageShift < p_capacity) {
+            if (m_pageCount == m_pages.length) {
+                m_pages = Arrays.copyOf(m_pages, m_pages.length * 2);
+            }
+            m_pages[m_pageCount++] = UnsafeMemory.allocate(Long.BYTES << m_pageShift);
+        }
+    }
+
+    /**
+     * Appends an element.
+     *
+     * @param p_val
+     *         the value
+     */
+    public void add(final long p_val) {
+        ensureCapacity(m_size + 1);
+
+        UnsafeMemory.writeLong(address(m_size), p_val);
+        m_size++;
+    }
+
+    /**
+     * Appends values of a primitive array.
+     *
+     * @param p_array
+     *         the array with the values
+     * @param p_offset
+     *         the index of the first value to add
+     * @param p_length
+     *         the number of values to add
+     */
+    public void addAll(final long[] p_array, final int p_offset, final int p_length) {
+        int offset = p_offset;
+        int remaining = p_length;
+        int length;
+
+        ensureCapacity(m_size + p_length);
+
+        while (remaining > 0) {
+            // Up to the end of the current page
+            length = (int) Math.min(remaining, (1L << m_pageShift) - (m_size & m_pageMask));
+            UnsafeMemory.writeLongs(address(m_size), p_array, offset, length);
+            offset += length;
+            remaining -= length;
+            m_size += length;
+        }
+    }
+
+    /**
+     * Returns the element at the given index.
+     *
+     * @param p_index
+     *         the index (less than the size)
+     * @return the element
+     */
+    public long get(final long p_index) {
+        checkIndex(p_index);
+
+        return UnsafeMemory.readLong(address(p_index));
+    }
+
+    /**
+     * Replaces the element at the given index.
+     *
+     * @param p_index
+     *         the index (less than the size)
+     * @param p_val
+     *         the value
+     */
+    public void set(final long p_index, final long p_val) {
+        checkIndex(p_index);
+
+        UnsafeMemory.writeLong(address(p_index), p_val);
+    }
+
+    /**
+     * Removes the element at the given index. All following elements are shifted to the front.
+     *
+     * @param p_index
+     *         the index (less than the size)
+     * @return the removed element
+     */
+    public long remove(final long p_index) {
+        long ret = get(p_index);
+        long index = p_index;
+        long pageEnd;
+        long address;
+        int count;
+
+        while (index < m_size - 1) {
+            pageEnd = Math.min((index | m_pageMask) + 1, m_size);
+
+            // Shift the rest of the page and move the first element of the next page to its end
+            count = (int) (pageEnd - index - 1);
+            address = address(index);
+            UnsafeMemory.copyBytes(address + Long.BYTES, address, count * Long.BYTES);
+            if (pageEnd == m_size) {
+                break;
+            }
+            UnsafeMemory.writeLong(address(pageEnd - 1), UnsafeMemory.readLong(address(pageEnd)));
+            index = pageEnd;
+        }
+        m_size--;
+
+        return ret;
+    }
+
+    /**
+     * Removes and returns the last element.
+     *
+     * @return the last element
+     */
+    public long removeLast() {
+        return remove(m_size - 1);
+    }
+
+    /**
+     * Passes all elements in order to the given consumer.
+     *
+     * @param p_consumer
+     *         the consumer
+     */
+    public void forEach(final LongConsumer p_consumer) {
+        for (long i = 0; i < m_size; i++) {
+            p_consumer.accept(UnsafeMemory.readLong(address(i)));
+        }
+    }
+
+    /**
+     * Removes all elements. The pages are kept.
+     */
+    public void clear() {
+        m_size = 0;
+    }
+
+    /**
+     * Releases the off-heap memory. The list is empty afterwards.
+     */
+    public void free() {
+        for (int i = 0; i < m_pageCount; i++) {
+            UnsafeMemory.free(m_pages[i]);
+        }
+        m_pageCount = 0;
+        m_size = 0;
+    }
+
+    @Override
+    public void close() {
+        free();
+    }
+
+    @Override
+    public void exportObject(final Exporter p_exporter) {
+        long[] buffer = new long[(int) Math.min(m_size, TRANSFER_SIZE)];
+        long index = 0;
+        int length;
+
+        p_exporter.writeLong(m_size);
+        while (index < m_size) {
+            index += p_exporter.skipWrite(m_size - index, Long.BYTES);
+            if (index == m_size) {
+                break;
+            }
+
+            // Up to the end of the current page
+            length = (int) Math.min(Math.min(m_size - index, buffer.length), (index | m_pageMask) + 1 - index);
+            UnsafeMemory.readLongs(address(index), buffer, 0, length);
+            p_exporter.writeLongs(buffer, 0, length);
+            index += length;
+        }
+    }
+
+    @Override
+    public void importObject(final Importer p_importer) {
+        long[] buffer;
+        long index = 0;
+        int length;
+
+        // The size is set before the elements are imported, so an importer can resume a partial import
+        m_size = p_importer.readLong(m_size);
+        ensureCapacity(m_size);
+
+        buffer = new long[(int) Math.min(m_size, TRANSFER_SIZE)];
+        while (index < m_size) {
+            index += p_importer.skipRead(m_size - index, Long.BYTES);
+            if (index == m_size) {
+                break;
+            }
+
+            length = (int) Math.min(Math.min(m_size - index, buffer.length), (index | m_pageMask) + 1 - index);
+            p_importer.readLongs(buffer, 0, length);
+            UnsafeMemory.writeLongs(address(index), buffer, 0, length);
+            index += length;
+        }
+    }
+
+    /**
+     * Returns the size of the exported list. Only valid if less than 2 GB.
+     *
+     * @return the size in bytes
+     */
+    @Override
+    public int sizeofObject() {
+        assert m_size < (Integer.MAX_VALUE - Long.BYTES) / Long.BYTES;
+
+        return (int) (Long.BYTES + m_size * Long.BYTES);
+    }
+
+    /**
+     * Returns the off-heap address of the given index.
+     *
+     * @param p_index
+     *         the index (less than the capacity)
+     * @return the address
+     */
+    private long address(final long p_index) {
+        return m_pages[(int) (p_index >>> m_pageShift)] + ((p_index & m_pageMask) << 3);
+    }
+
+    /**
+     * Checks that the index is less than the size.
+     *
+     * @param p_index
+     *         the index
+     */
+    private void checkIndex(final long p_index) {
+        if (p_index < 0 || p_index >= m_size) {
+            throw new IndexOutOfBoundsException("Index " + p_index + " out of bounds for size " + m_size);
+        }
+    }
+
+}
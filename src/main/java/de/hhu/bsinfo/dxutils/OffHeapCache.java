@@ -0,0 +1,471 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import de.hhu.bsinfo.dxutils.hashtable.LongIntHashTable;
+import de.hhu.bsinfo.dxutils.serialization.Exportable;
+import de.hhu.bsinfo.dxutils.serialization.Importable;
+import de.hhu.bsinfo.dxutils.serialization.UnsafeMemoryImExporter;
+
+/**
+ * Cache for serialized values stored off-heap. Values are exported into slabs allocated with UnsafeMemory. On the
+ * heap, there are only primitive arrays: a LongIntHashTable mapping keys to slots and the slot table (slab, offset
+ * and length of every value). Space of removed values is reclaimed by compacting slabs in place. Entries are evicted
+ * with the CLOCK algorithm if the number of entries or the memory is exhausted.
+ * The memory must be released with free().
+ */
+public class OffHeapCache {
+
+    // Constants
+    // Every value is preceded by its slot (4 bytes) and its length (4 bytes) for compaction
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+
+    // Attributes
+    private final int m_maxEntries;
+    private final int m_slabSize;
+    private final int m_maxSlabs;
+
+    // key -> slot
+    private final LongIntHashTable m_index;
+
+    // slot table
+    private final long[] m_keys;
+    private final int[] m_slabs;
+    private final int[] m_offsets;
+    private final int[] m_lengths;
+    private final boolean[] m_referenced;
+    private final int[] m_freeSlots;
+    private int m_freeSlotCount;
+    private int m_clockHand;
+    private int m_count;
+
+    // slabs
+    private final long[] m_slabAddresses;
+    private final int[] m_slabUsed;
+    private final int[] m_slabLive;
+    private int m_slabCount;
+    private int m_currentSlab;
+
+    private final ReadWriteLock m_lock;
+
+    // Constructors
+
+    /**
+     * Creates an instance of OffHeapCache
+     *
+     * @param p_maxEntries
+     *         the maximum of cached elements
+     * @param p_slabSize
+     *         the size of a slab in bytes (limits the size of a value)
+     * @param p_maxSlabs
+     *         the maximum number of slabs
+     */
+    public OffHeapCache(final int p_maxEntries, final int p_slabSize, final int p_maxSlabs) {
+        assert p_maxEntries > 0;
+        assert p_slabSize > RECORD_HEADER_SIZE;
+        assert p_maxSlabs > 0;
+
+        m_maxEntries = p_maxEntries;
+        m_slabSize = p_slabSize;
+        m_maxSlabs = p_maxSlabs;
+
+        m_index = new LongIntHashTable(p_maxEntries);
+
+        m_keys = new long[p_maxEntries];
+        m_slabs = new int[p_maxEntries];
+        m_offsets = new int[p_maxEntries];
+        m_lengths = new int[p_maxEntries];
+        m_referenced = new boolean[p_maxEntries];
+        m_freeSlots = new int[p_maxEntries];
+        for (int i = 0; i < p_maxEntries; i++) {
+            m_freeSlots[i] = p_maxEntries - 1 - i;
+        }
+        m_freeSlotCount = p_maxEntries;
+        m_clockHand = 0;
+        m_count = 0;
+
+        m_slabAddresses = new long[p_maxSlabs];
+        m_slabUsed = new int[p_maxSlabs];
+        m_slabLive = new int[p_maxSlabs];
+        m_slabAddresses[0] = UnsafeMemory.allocate(p_slabSize);
+        m_slabCount = 1;
+        m_currentSlab = 0;
+
+        m_lock = new ReentrantReadWriteLock(false);
+    }
+
+    // Getters
+
+    /**
+     * Gets the number of cached elements
+     *
+     * @return the number of cached elements
+     */
+    public int size() {
+        int ret;
+
+        m_lock.readLock().lock();
+
+        ret = m_count;
+
+        m_lock.readLock().unlock();
+
+        return ret;
+    }
+
+    /**
+     * Gets the amount of allocated off-heap memory
+     *
+     * @return the allocated memory in bytes
+     */
+    public long getAllocatedMemory() {
+        long ret;
+
+        m_lock.readLock().lock();
+
+        ret = (long) m_slabCount * m_slabSize;
+
+        m_lock.readLock().unlock();
+
+        return ret;
+    }
+
+    // Methods
+
+    /**
+     * Serializes a value into the cache. An existing value for the key is replaced.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @param p_value
+     *         the value
+     * @return true if the value was cached, false if it is larger than a slab
+     */
+    public boolean put(final long p_key, final Exportable p_value) {
+        UnsafeMemoryImExporter exporter;
+        int length;
+        int offset;
+        int slot;
+        long address;
+
+        assert p_key != 0;
+        assert p_value != null;
+
+        length = p_value.sizeofObject();
+
+        m_lock.writeLock().lock();
+
+        removeKey(p_key);
+
+        if (RECORD_HEADER_SIZE + length > m_slabSize) {
+            m_lock.writeLock().unlock();
+
+            return false;
+        }
+
+        if (m_freeSlotCount == 0) {
+            evictEntry();
+        }
+
+        offset = allocate(RECORD_HEADER_SIZE + length);
+        slot = m_freeSlots[--m_freeSlotCount];
+        address = m_slabAddresses[m_currentSlab] + offset;
+
+        UnsafeMemory.writeInt(address, slot);
+        UnsafeMemory.writeInt(address + Integer.BYTES, length);
+        exporter = new UnsafeMemoryImExporter(address + RECORD_HEADER_SIZE);
+        exporter.exportObject(p_value);
+        assert exporter.getPosition() == length;
+
+        m_keys[slot] = p_key;
+        m_slabs[slot] = m_currentSlab;
+        m_offsets[slot] = offset;
+        m_lengths[slot] = length;
+        m_referenced[slot] = false;
+        m_count++;
+
+        m_index.put(p_key, slot);
+
+        m_lock.writeLock().unlock();
+
+        return true;
+    }
+
+    /**
+     * Deserializes a cached value
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @param p_value
+     *         the object to import the value into
+     * @return true if the key was found, false otherwise
+     */
+    public boolean get(final long p_key, final Importable p_value) {
+        UnsafeMemoryImExporter importer;
+        boolean ret = false;
+        int slot;
+
+        assert p_key != 0;
+        assert p_value != null;
+
+        m_lock.readLock().lock();
+
+        slot = m_index.get(p_key);
+        if (slot != -1) {
+            // Racy, but a lost reference bit only affects the eviction order
+            m_referenced[slot] = true;
+
+            importer = new UnsafeMemoryImExporter(
+                    m_slabAddresses[m_slabs[slot]] + m_offsets[slot] + RECORD_HEADER_SIZE);
+            importer.importObject(p_value);
+            ret = true;
+        }
+
+        m_lock.readLock().unlock();
+
+        return ret;
+    }
+
+    /**
+     * Checks if a value is cached for the given key
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @return true if a value is cached, false otherwise
+     */
+    public boolean contains(final long p_key) {
+        boolean ret;
+        int slot;
+
+        assert p_key != 0;
+
+        m_lock.readLock().lock();
+
+        slot = m_index.get(p_key);
+        ret = slot != -1;
+
+        m_lock.readLock().unlock();
+
+        return ret;
+    }
+
+    /**
+     * Removes the value for the given key
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     */
+    public void remove(final long p_key) {
+        assert p_key != 0;
+
+        m_lock.writeLock().lock();
+
+        removeKey(p_key);
+
+        m_lock.writeLock().unlock();
+    }
+
+    /**
+     * Removes all values. The slabs are kept.
+     */
+    public void clear() {
+        m_lock.writeLock().lock();
+
+        m_index.clear();
+        Arrays.fill(m_keys, 0);
+        for (int i = 0; i < m_maxEntries; i++) {
+            m_freeSlots[i] = m_maxEntries - 1 - i;
+        }
+        m_freeSlotCount = m_maxEntries;
+        m_count = 0;
+
+        Arrays.fill(m_slabUsed, 0);
+        Arrays.fill(m_slabLive, 0);
+
+        m_lock.writeLock().unlock();
+    }
+
+    /**
+     * Releases the off-heap memory. The cache must not be used afterwards.
+     */
+    public void free() {
+        m_lock.writeLock().lock();
+
+        for (int i = 0; i < m_slabCount; i++) {
+            UnsafeMemory.free(m_slabAddresses[i]);
+        }
+        m_slabCount = 0;
+
+        m_lock.writeLock().unlock();
+    }
+
+    /**
+     * Removes the value for the given key if cached. Caller must hold the write lock.
+     *
+     * @param p_key
+     *         the key
+     */
+    private void removeKey(final long p_key) {
+        int slot = m_index.get(p_key);
+
+        if (slot != -1) {
+            removeSlot(slot);
+        }
+    }
+
+    /**
+     * Frees a slot and marks its record as dead. Caller must hold the write lock.
+     *
+     * @param p_slot
+     *         the slot
+     */
+    private void removeSlot(final int p_slot) {
+        m_index.remove(m_keys[p_slot]);
+        m_slabLive[m_slabs[p_slot]] -= RECORD_HEADER_SIZE + m_lengths[p_slot];
+        m_keys[p_slot] = 0;
+        m_freeSlots[m_freeSlotCount++] = p_slot;
+        m_count--;
+    }
+
+    /**
+     * Evicts an entry chosen by the CLOCK algorithm. Caller must hold the write lock.
+     */
+    private void evictEntry() {
+        int slot;
+
+        assert m_count > 0;
+
+        while (true) {
+            slot = m_clockHand;
+            m_clockHand = (m_clockHand + 1) % m_maxEntries;
+
+            if (m_keys[slot] != 0) {
+                if (m_referenced[slot]) {
+                    m_referenced[slot] = false;
+                } else {
+                    removeSlot(slot);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Allocates space for a record in the current slab. Switches to an empty, a new or a compacted slab if the
+     * current one is full and evicts entries if no slab has enough free space. Caller must hold the write lock.
+     *
+     * @param p_size
+     *         the size of the record (must not exceed the slab size)
+     * @return the offset in the current slab
+     */
+    private int allocate(final int p_size) {
+        int offset;
+        int slab;
+
+        while (m_slabUsed[m_currentSlab] + p_size > m_slabSize) {
+            slab = reclaimSlab(p_size);
+            if (slab != -1) {
+                m_currentSlab = slab;
+            } else {
+                evictEntry();
+            }
+        }
+
+        offset = m_slabUsed[m_currentSlab];
+        m_slabUsed[m_currentSlab] += p_size;
+        m_slabLive[m_currentSlab] += p_size;
+
+        return offset;
+    }
+
+    /**
+     * Finds a slab with enough free space at its end. Caller must hold the write lock.
+     *
+     * @param p_size
+     *         the needed space
+     * @return the slab or -1 if no slab has enough free space (even after compaction)
+     */
+    private int reclaimSlab(final int p_size) {
+        int best = 0;
+
+        for (int i = 0; i < m_slabCount; i++) {
+            if (m_slabLive[i] == 0) {
+                m_slabUsed[i] = 0;
+                return i;
+            }
+
+            if (m_slabLive[i] < m_slabLive[best]) {
+                best = i;
+            }
+        }
+
+        if (m_slabCount < m_maxSlabs) {
+            m_slabAddresses[m_slabCount] = UnsafeMemory.allocate(m_slabSize);
+            m_slabUsed[m_slabCount] = 0;
+            m_slabLive[m_slabCount] = 0;
+
+            return m_slabCount++;
+        }
+
+        if (m_slabSize - m_slabLive[best] >= p_size) {
+            compact(best);
+            return best;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Moves all live records of a slab to its beginning. Caller must hold the write lock.
+     *
+     * @param p_slab
+     *         the slab
+     */
+    private void compact(final int p_slab) {
+        long base = m_slabAddresses[p_slab];
+        int used = m_slabUsed[p_slab];
+        int read = 0;
+        int write = 0;
+        int recordSize;
+        int slot;
+
+        while (read < used) {
+            slot = UnsafeMemory.readInt(base + read);
+            recordSize = RECORD_HEADER_SIZE + UnsafeMemory.readInt(base + read + Integer.BYTES);
+
+            // The slot might have been reused for a record somewhere else
+            if (m_keys[slot] != 0 && m_slabs[slot] == p_slab && m_offsets[slot] == read) {
+                if (write != read) {
+                    UnsafeMemory.copyBytes(base + read, base + write, recordSize);
+                    m_offsets[slot] = write;
+                }
+                write += recordSize;
+            }
+
+            read += recordSize;
+        }
+
+        assert write == m_slabLive[p_slab];
+
+        m_slabUsed[p_slab] = write;
+    }
+
+}
@@ -291,6 +291,17 @@ public final class UnsafeMemory {
         return MS_UNSAFE_HANDLER.getUnsafe().getLong(p_ptr);
     }
 
+    /**
+     * Read a single long value with volatile semantics.
+     *
+     * @param p_ptr
+     *         Memory position to read from.
+     * @return Long read.
+     */
+    public static long readLongVolatile(final long p_ptr) {
+        return MS_UNSAFE_HANDLER.getUnsafe().getLongVolatile(null, p_ptr);
+    }
+
     /**
      * Read a single float value.
      *
@@ -0,0 +1,683 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.hhu.bsinfo.dxutils.UnsafeMemory;
+
+/**
+ * Concurrent hash table storing key-value tuples whereas keys and values are longs. The table is stored off-heap
+ * (open addressing with linear probing, key and value of a slot one after another) and is lock-free: keys and
+ * values are updated with compare-and-swap, reads are lock-free (plain probing without locks).
+ * A key is never removed from its slot (removing a key clears the value), so probe sequences never break.
+ * The table is resized cooperatively: a full table links a new table and every writer migrates a chunk of slots
+ * before its own operation. Migrated slots are sealed, operations on sealed slots continue in the next table. Removed
+ * keys are not migrated, so the new table has twice the size only if most claimed slots are still mapped, otherwise
+ * it has the same size (the table does not grow under insert/remove churn).
+ * Every operation pins the table it starts with (in a counter per thread stripe) and might continue in the newer
+ * tables. Replaced tables are released in the order they were replaced, as soon as they are not pinned anymore.
+ * Keys must not be 0, values must not be Long.MIN_VALUE or Long.MIN_VALUE + 1 (used internally).
+ * The memory must be released with free().
+ */
+public class ConcurrentLongHashTable {
+
+    // Constants
+    private static final Logger LOGGER = LogManager.getFormatterLogger(ConcurrentLongHashTable.class.getSimpleName());
+
+    private static final int INITIAL_SIZE = 1024;
+    // Lower than for the single-threaded tables to keep probe sequences short while a resize is in progress
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int MIGRATION_CHUNK = 1024;
+    private static final int SLOT_SIZE = 2 * Long.BYTES;
+    // One pin counter per cache line
+    private static final int PIN_PADDING = 8;
+    private static final int PIN_STRIPES =
+            Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) * 2);
+
+    // Value of a slot without value (free, claimed but not written yet or removed)
+    private static final long NO_VALUE = Long.MIN_VALUE;
+    // Value of a slot migrated to the next table
+    private static final long MOVED = Long.MIN_VALUE + 1;
+
+    // Attributes
+    private final AtomicReference<Table> m_table;
+    private final LongAdder m_size;
+    // Oldest table not released yet, newer tables are linked with m_next
+    private final AtomicReference<Table> m_oldest;
+
+    // Constructors
+
+    /**
+     * Creates an instance of ConcurrentLongHashTable.
+     */
+    public ConcurrentLongHashTable() {
+        this(INITIAL_SIZE);
+    }
+
+    /**
+     * Creates an instance of ConcurrentLongHashTable.
+     *
+     * @param p_initialSize
+     *         the initial size (rounded up to the next power of two)
+     */
+    public ConcurrentLongHashTable(final int p_initialSize) {
+        assert p_initialSize > 0;
+
+        m_table = new AtomicReference<>(new Table(HashFunctionCollection.tableSize(p_initialSize)));
+        m_size = new LongAdder();
+        m_oldest = new AtomicReference<>(m_table.get());
+    }
+
+    // Getters
+
+    /**
+     * Returns the size. Concurrent updates might not be reflected.
+     *
+     * @return the number of entries in the hash table
+     */
+    public long size() {
+        return m_size.sum();
+    }
+
+    /**
+     * Returns the capacity of the current table.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return m_table.get().m_capacity;
+    }
+
+    /**
+     * Returns the size of the off-heap memory of the current table, tables being resized to and replaced tables not
+     * released yet.
+     *
+     * @return the size in bytes
+     */
+    public long getAllocatedMemory() {
+        Table table = m_oldest.get();
+        long ret = 0;
+
+        while (table != null) {
+            ret += (long) table.m_capacity * SLOT_SIZE;
+            table = table.m_next.get();
+        }
+
+        return ret;
+    }
+
+    // Methods
+
+    /**
+     * Returns the value to which the specified key is mapped. Lock-free.
+     *
+     * @param p_key
+     *         the searched key (must not be 0)
+     * @return the value to which the key is mapped or -1 if the key is not mapped
+     */
+    public long get(final long p_key) {
+        int stripe = pinStripe();
+        Table pinned = pin(stripe);
+        Table table = pinned;
+        long address;
+        long ret = NO_VALUE;
+
+        assert p_key != 0;
+
+        while (table != null) {
+            address = slotOf(table, p_key);
+            if (address == 0) {
+                break;
+            }
+
+            if (address != -1) {
+                ret = UnsafeMemory.readLongVolatile(address + Long.BYTES);
+                if (ret != MOVED) {
+                    break;
+                }
+            }
+
+            table = table.m_next.get();
+        }
+
+        unpin(pinned, stripe);
+
+        return ret == NO_VALUE || ret == MOVED ? -1 : ret;
+    }
+
+    /**
+     * Returns whether the specified key is mapped. Lock-free.
+     *
+     * @param p_key
+     *         the searched key (must not be 0)
+     * @return true if the key is mapped, false otherwise
+     */
+    public boolean containsKey(final long p_key) {
+        int stripe = pinStripe();
+        Table pinned = pin(stripe);
+        Table table = pinned;
+        long address;
+        long value;
+        boolean ret = false;
+
+        assert p_key != 0;
+
+        while (table != null) {
+            address = slotOf(table, p_key);
+            if (address == 0) {
+                break;
+            }
+
+            if (address != -1) {
+                value = UnsafeMemory.readLongVolatile(address + Long.BYTES);
+                if (value != MOVED) {
+                    ret = value != NO_VALUE;
+                    break;
+                }
+            }
+
+            table = table.m_next.get();
+        }
+
+        unpin(pinned, stripe);
+
+        return ret;
+    }
+
+    /**
+     * Maps the given key to the given value.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @param p_value
+     *         the value (must not be Long.MIN_VALUE or Long.MIN_VALUE + 1)
+     * @return the old value or -1 if the key was not mapped
+     */
+    public long put(final long p_key, final long p_value) {
+        int stripe = pinStripe();
+        Table pinned;
+        Table table;
+        long ret;
+
+        assert p_key != 0;
+        assert p_value != NO_VALUE && p_value != MOVED;
+
+        if (m_oldest.get().m_retired) {
+            release();
+        }
+
+        pinned = pin(stripe);
+        table = pinned;
+        if (table.m_next.get() != null) {
+            helpMigration(table);
+        }
+
+        ret = put(table, p_key, p_value);
+        while (ret == MOVED) {
+            table = nextTable(table);
+            ret = put(table, p_key, p_value);
+        }
+
+        unpin(pinned, stripe);
+
+        if (ret == NO_VALUE) {
+            m_size.increment();
+            ret = -1;
+        }
+
+        return ret;
+    }
+
+    /**
+     * Removes the given key.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @return the value the key was mapped to or -1 if the key was not mapped
+     */
+    public long remove(final long p_key) {
+        int stripe = pinStripe();
+        Table pinned;
+        Table table;
+        long address;
+        long ret = NO_VALUE;
+
+        assert p_key != 0;
+
+        if (m_oldest.get().m_retired) {
+            release();
+        }
+
+        pinned = pin(stripe);
+        table = pinned;
+        if (table.m_next.get() != null) {
+            helpMigration(table);
+        }
+
+        while (true) {
+            address = slotOf(table, p_key);
+            if (address == 0) {
+                break;
+            }
+
+            if (address != -1) {
+                ret = UnsafeMemory.readLongVolatile(address + Long.BYTES);
+                while (ret != NO_VALUE && ret != MOVED &&
+                        !UnsafeMemory.compareAndSwapLong(address + Long.BYTES, ret, NO_VALUE)) {
+                    ret = UnsafeMemory.readLongVolatile(address + Long.BYTES);
+                }
+
+                if (ret != MOVED) {
+                    break;
+                }
+            }
+
+            table = nextTable(table);
+        }
+
+        unpin(pinned, stripe);
+
+        if (ret == NO_VALUE || ret == MOVED) {
+            return -1;
+        }
+
+        m_size.decrement();
+
+        return ret;
+    }
+
+    /**
+     * Releases the off-heap memory of all tables. The table must not be used afterwards.
+     */
+    public void free() {
+        Table table = m_oldest.getAndSet(null);
+
+        m_table.set(null);
+        while (table != null) {
+            UnsafeMemory.free(table.m_address);
+            table = table.m_next.get();
+        }
+    }
+
+    /**
+     * Gets the pin counter of the current thread.
+     *
+     * @return the index of the pin counter
+     */
+    private static int pinStripe() {
+        return ((int) (Thread.currentThread().getId() * 0x9E3779B97F4A7C15L >>> 40) & PIN_STRIPES - 1) * PIN_PADDING;
+    }
+
+    /**
+     * Pins the current table, so it (and all newer tables) are not released until unpin() is called.
+     *
+     * @param p_stripe
+     *         the pin counter of the current thread
+     * @return the current table
+     */
+    private Table pin(final int p_stripe) {
+        Table ret;
+
+        while (true) {
+            ret = m_table.get();
+            ret.m_pins.incrementAndGet(p_stripe);
+
+            // A table replaced meanwhile might have been released already (retired is set before checking the pins)
+            if (!ret.m_retired) {
+                return ret;
+            }
+
+            ret.m_pins.decrementAndGet(p_stripe);
+        }
+    }
+
+    /**
+     * Unpins a table.
+     *
+     * @param p_table
+     *         the pinned table
+     * @param p_stripe
+     *         the pin counter of the current thread
+     */
+    private static void unpin(final Table p_table, final int p_stripe) {
+        p_table.m_pins.decrementAndGet(p_stripe);
+    }
+
+    /**
+     * Releases the replaced tables which are not pinned anymore. A table is released only after all older tables,
+     * because operations pinning an older table might continue in the newer ones.
+     */
+    private void release() {
+        Table table = m_oldest.get();
+
+        while (table.m_retired && !table.isPinned()) {
+            if (m_oldest.compareAndSet(table, table.m_next.get())) {
+                UnsafeMemory.free(table.m_address);
+            }
+            table = m_oldest.get();
+        }
+    }
+
+    /**
+     * Finds the slot of a key without claiming it.
+     *
+     * @param p_table
+     *         the table
+     * @param p_key
+     *         the key
+     * @return the address of the slot, 0 if the key is not in the table or -1 if the key might be in the next table
+     */
+    private static long slotOf(final Table p_table, final long p_key) {
+        int index = HashFunctionCollection.hash(p_key) & p_table.m_mask;
+        long address;
+        long key;
+
+        for (int i = 0; i < p_table.m_capacity; i++) {
+            address = p_table.m_address + (long) index * SLOT_SIZE;
+
+            key = UnsafeMemory.readLongVolatile(address);
+            if (key == p_key) {
+                return address;
+            }
+
+            if (key == 0) {
+                // A sealed free slot means the key might have been inserted in the next table
+                return UnsafeMemory.readLongVolatile(address + Long.BYTES) == MOVED ? -1 : 0;
+            }
+
+            index = index + 1 & p_table.m_mask;
+        }
+
+        return p_table.m_next.get() != null ? -1 : 0;
+    }
+
+    /**
+     * Maps the given key to the given value in the given table. Claims a free slot if the key is not in the table.
+     *
+     * @param p_table
+     *         the table
+     * @param p_key
+     *         the key
+     * @param p_value
+     *         the value
+     * @return the old value, NO_VALUE if the key was not mapped or MOVED if the operation has to be repeated on the
+     * next table
+     */
+    private long put(final Table p_table, final long p_key, final long p_value) {
+        int index = HashFunctionCollection.hash(p_key) & p_table.m_mask;
+        long address;
+        long key;
+        long old;
+
+        for (int i = 0; i < p_table.m_capacity; i++) {
+            address = p_table.m_address + (long) index * SLOT_SIZE;
+
+            key = UnsafeMemory.readLongVolatile(address);
+            if (key == 0) {
+                if (UnsafeMemory.compareAndSwapLong(address, 0, p_key)) {
+                    key = p_key;
+
+                    if (p_table.m_claimed.incrementAndGet() >= p_table.m_threshold) {
+                        startResize(p_table);
+                    }
+                } else {
+                    key = UnsafeMemory.readLongVolatile(address);
+                }
+            }
+
+            if (key == p_key) {
+                while (true) {
+                    old = UnsafeMemory.readLongVolatile(address + Long.BYTES);
+                    if (old == MOVED ||
+                            UnsafeMemory.compareAndSwapLong(address + Long.BYTES, old, p_value)) {
+                        return old;
+                    }
+                }
+            }
+
+            index = index + 1 & p_table.m_mask;
+        }
+
+        // Every slot is claimed by another key
+        startResize(p_table);
+
+        return MOVED;
+    }
+
+    /**
+     * Links a new table unless another thread did already. The new table has twice the size if at least half of the
+     * claimed slots are mapped, otherwise it has the same size (removed keys are not migrated).
+     *
+     * @param p_table
+     *         the full table
+     */
+    private void startResize(final Table p_table) {
+        int capacity;
+
+        if (p_table.m_resizing.compareAndSet(false, true)) {
+            capacity = p_table.m_capacity;
+            if (m_size.sum() >= p_table.m_threshold / 2) {
+                capacity *= 2;
+            }
+
+            LOGGER.trace("Resizing (capacity: %d -> %d)", p_table.m_capacity, capacity);
+
+            p_table.m_next.set(new Table(capacity));
+        }
+    }
+
+    /**
+     * Gets the next table of a table which is resized. Helps with the migration.
+     *
+     * @param p_table
+     *         the table
+     * @return the next table
+     */
+    private Table nextTable(final Table p_table) {
+        Table ret;
+
+        ret = p_table.m_next.get();
+        while (ret == null) {
+            // Another thread is allocating the next table
+            startResize(p_table);
+            Thread.yield();
+            ret = p_table.m_next.get();
+        }
+
+        helpMigration(p_table);
+
+        return ret;
+    }
+
+    /**
+     * Migrates the next chunk of slots of a table to its next table. Publishes the next table if all slots are
+     * migrated.
+     *
+     * @param p_table
+     *         the table
+     */
+    private void helpMigration(final Table p_table) {
+        Table next;
+        int start;
+        int end;
+
+        start = p_table.m_migrationIndex.getAndAdd(MIGRATION_CHUNK);
+        if (start >= p_table.m_capacity) {
+            return;
+        }
+
+        next = p_table.m_next.get();
+        end = Math.min(start + MIGRATION_CHUNK, p_table.m_capacity);
+        for (int i = start; i < end; i++) {
+            migrateSlot(p_table, next, p_table.m_address + (long) i * SLOT_SIZE);
+        }
+
+        if (p_table.m_migrated.addAndGet(end - start) == p_table.m_capacity) {
+            p_table.m_done = true;
+
+            // Tables are published in order, the next table might have been migrated before this one
+            Table table = m_table.get();
+            while (table != null && table.m_done && m_table.compareAndSet(table, table.m_next.get())) {
+                table.m_retired = true;
+                table = table.m_next.get();
+            }
+
+            release();
+        }
+    }
+
+    /**
+     * Copies a slot to the next table and seals it. The value is copied before sealing, so the next table never
+     * misses a value which can be found in the table. The slot is copied again if it was updated meanwhile.
+     *
+     * @param p_table
+     *         the table
+     * @param p_next
+     *         the next table
+     * @param p_address
+     *         the address of the slot
+     */
+    private void migrateSlot(final Table p_table, final Table p_next, final long p_address) {
+        boolean copied = false;
+        long key;
+        long value;
+
+        while (true) {
+            key = UnsafeMemory.readLongVolatile(p_address);
+            value = UnsafeMemory.readLongVolatile(p_address + Long.BYTES);
+            if (value == MOVED) {
+                return;
+            }
+
+            if (key == 0) {
+                if (value == NO_VALUE && UnsafeMemory.compareAndSwapLong(p_address + Long.BYTES, NO_VALUE, MOVED)) {
+                    return;
+                }
+
+                // The slot was claimed meanwhile
+                continue;
+            }
+
+            // Removed values are only copied if an older value was copied before
+            if (value != NO_VALUE || copied) {
+                copy(p_next, key, value);
+                copied = true;
+            }
+
+            if (UnsafeMemory.compareAndSwapLong(p_address + Long.BYTES, value, MOVED)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes a migrated value to a table (or its successors if the table is resized as well).
+     *
+     * @param p_table
+     *         the table
+     * @param p_key
+     *         the key
+     * @param p_value
+     *         the value (might be NO_VALUE)
+     */
+    private void copy(final Table p_table, final long p_key, final long p_value) {
+        Table table = p_table;
+
+        while (put(table, p_key, p_value) == MOVED) {
+            table = nextTable(table);
+        }
+    }
+
+    // Classes
+
+    /**
+     * Off-heap slots and the resize state of one table
+     */
+    private static final class Table {
+
+        // Attributes
+        private final long m_address;
+        private final int m_capacity;
+        private final int m_mask;
+        private final int m_threshold;
+
+        private final AtomicInteger m_claimed;
+        private final AtomicBoolean m_resizing;
+        private final AtomicReference<Table> m_next;
+        private final AtomicInteger m_migrationIndex;
+        private final AtomicInteger m_migrated;
+        private volatile boolean m_done;
+
+        // Operations using this table (one counter per thread stripe) and whether it was replaced
+        private final AtomicLongArray m_pins;
+        private volatile boolean m_retired;
+
+        // Constructors
+
+        /**
+         * Creates an instance of Table
+         *
+         * @param p_capacity
+         *         the number of slots (power of two)
+         */
+        private Table(final int p_capacity) {
+            m_capacity = p_capacity;
+            m_mask = p_capacity - 1;
+            m_threshold = Math.max(1, (int) (p_capacity * LOAD_FACTOR));
+
+            m_address = UnsafeMemory.allocate((long) p_capacity * SLOT_SIZE);
+            UnsafeMemory.set(m_address, (long) p_capacity * SLOT_SIZE, (byte) 0);
+            for (int i = 0; i < p_capacity; i++) {
+                UnsafeMemory.writeLong(m_address + (long) i * SLOT_SIZE + Long.BYTES, NO_VALUE);
+            }
+
+            m_claimed = new AtomicInteger();
+            m_resizing = new AtomicBoolean();
+            m_next = new AtomicReference<>();
+            m_migrationIndex = new AtomicInteger();
+            m_migrated = new AtomicInteger();
+            m_pins = new AtomicLongArray(PIN_STRIPES * PIN_PADDING);
+        }
+
+        // Methods
+
+        /**
+         * Checks if an operation uses this table
+         *
+         * @return true if the table is pinned
+         */
+        private boolean isPinned() {
+            for (int i = 0; i < PIN_STRIPES; i++) {
+                if (m_pins.get(i * PIN_PADDING) != 0) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+    }
+
+}
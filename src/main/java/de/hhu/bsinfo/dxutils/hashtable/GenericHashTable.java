@@ -18,6 +18,7 @@ package de.hhu.bsinfo.dxutils.hashtable;
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
@@ -25,6 +26,11 @@ import org.apache.logging.log4j.Logger;
 
 /**
  * Stores key-value tuples whereas keys are longs and values generic objects.
+ * Keys and values are stored in parallel arrays (no object per entry). The slots are divided into groups of eight
+ * with one control byte per slot: empty, deleted or the lower seven bits of the hash of the key. The control bytes
+ * of a group are stored in one long, so a probe compares the fingerprints of all eight slots at once (SWAR) and
+ * only reads the keys of matching slots. The groups are probed quadratically, a group with an empty slot ends the
+ * probe sequence.
  *
  * @author Kevin Beineke, kevin.beineke@hhu.de, 26.02.2018
  */
@@ -32,13 +38,26 @@ import org.apache.logging.log4j.Logger;
 public final class GenericHashTable<T> {
 
     private static final int INITIAL_SIZE = 100;
-    private static final float LOAD_FACTOR = 0.9f;
+    private static final float LOAD_FACTOR = 0.875f;
+    private static final int GROUP_SIZE = 8;
+
+    // control bytes of free slots (the most significant bit is set), full slots store 7 bits of the hash
+    private static final int EMPTY = 0x80;
+    private static final int DELETED = 0xFE;
+    private static final long LSBS = 0x0101010101010101L;
+    private static final long MSBS = 0x8080808080808080L;
 
     private static final Logger LOGGER = LogManager.getFormatterLogger(GenericHashTable.class.getSimpleName());
 
-    private HashTableElement<T>[] m_table;
+    // eight control bytes per long, byte i belongs to slot i of the group
+    private long[] m_control;
+    private long[] m_keys;
+    private Object[] m_values;
     private int m_elementCapacity;
+    private int m_groupMask;
     private int m_count;
+    // empty slots which can be filled before the load factor is reached (deleted slots are not counted)
+    private int m_growthLeft;
 
     private ArrayList<HashTableElement<T>> m_list;
 
@@ -46,27 +65,20 @@ public final class GenericHashTable<T> {
      * Creates an instance of GenericHashTable.
      */
     public GenericHashTable() {
-        m_count = 0;
-        m_elementCapacity = INITIAL_SIZE;
-
-        m_table = new HashTableElement[m_elementCapacity];
-        m_list = new ArrayList<>();
+        this(INITIAL_SIZE);
     }
 
     /**
      * Creates an instance of GenericHashTable.
      *
      * @param p_initialSize
-     *         the initial size
+     *         the initial size (rounded up to the next power of two, at least one group)
      */
     public GenericHashTable(final int p_initialSize) {
 
         assert p_initialSize > 0;
 
-        m_count = 0;
-        m_elementCapacity = p_initialSize;
-
-        m_table = new HashTableElement[m_elementCapacity];
+        allocate(Math.max(GROUP_SIZE, HashFunctionCollection.tableSize(p_initialSize)));
         m_list = new ArrayList<>();
     }
 
@@ -108,24 +120,15 @@ public final class GenericHashTable<T> {
 
     /**
      * Converts hash table with all entries to an ArrayList with pairs.
+     * The elements are created on every call, setting the value of an element does not change the table.
      *
      * @return view on ArrayList with entries as pairs of index + value
      */
     public List<HashTableElement<T>> convert() {
-        int count = 0;
-        for (int i = 0; i < m_elementCapacity; i++) {
-            HashTableElement<T> element = m_table[i];
-            if (element != null) {
-                if (m_list.size() > count) {
-                    m_list.set(count, element);
-                } else {
-                    m_list.add(element);
-                }
-                count++;
-            }
-        }
+        m_list.clear();
+        forEach((p_key, p_value) -> m_list.add(new HashTableElement<>(p_key, p_value)));
 
-        return m_list.subList(0, m_count);
+        return m_list;
     }
 
     /**
@@ -136,17 +139,53 @@ public final class GenericHashTable<T> {
      * @return the list with all values.
      */
     public T[] values(final Class p_class) {
-        T[] ret = (T[]) Array.newInstance(p_class, m_count);
+        return values((T[]) Array.newInstance(p_class, m_count), 0);
+    }
 
-        int count = 0;
-        for (int i = 0; i < m_elementCapacity; i++) {
-            HashTableElement<T> element = m_table[i];
-            if (element != null) {
-                ret[count++] = element.getValue();
+    /**
+     * Copies all values to the given array (without reflection and allocation).
+     *
+     * @param p_array
+     *         the array (at least p_offset + size() elements)
+     * @param p_offset
+     *         the index of the first value
+     * @return the given array
+     */
+    public T[] values(final T[] p_array, final int p_offset) {
+        assert p_array.length >= p_offset + m_count;
+
+        int count = p_offset;
+        long full;
+
+        for (int group = 0; group <= m_groupMask; group++) {
+            full = ~m_control[group] & MSBS;
+            while (full != 0) {
+                p_array[count++] = (T) m_values[group * GROUP_SIZE + (Long.numberOfTrailingZeros(full) >>> 3)];
+                full &= full - 1;
             }
         }
 
-        return ret;
+        return p_array;
+    }
+
+    /**
+     * Passes all entries to the given consumer without allocating. The table must not be modified meanwhile.
+     *
+     * @param p_consumer
+     *         the consumer
+     */
+    public void forEach(final LongObjectConsumer<? super T> p_consumer) {
+        long full;
+        int slot;
+
+        for (int group = 0; group <= m_groupMask; group++) {
+            full = ~m_control[group] & MSBS;
+            while (full != 0) {
+                slot = group * GROUP_SIZE + (Long.numberOfTrailingZeros(full) >>> 3);
+                p_consumer.accept(m_keys[slot], (T) m_values[slot]);
+                full &= full - 1;
+            }
+        }
     }
 
     /**
@@ -157,102 +196,261 @@ public final class GenericHashTable<T> {
      * @return the value to which the key is mapped in GenericHashTable
      */
     public T get(final long p_key) {
-        T ret = null;
-        HashTableElement<T> iter;
-        int index;
+        int slot = find(p_key, HashFunctionCollection.hash64(p_key));
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
+        return slot != -1 ? (T) m_values[slot] : null;
+    }
+
+    /**
+     * Maps the given key-value tuple in GenericHashTable.
+     *
+     * @param p_key
+     *         the key
+     */
+    public void put(final long p_key, final T p_value) {
+        long hash = HashFunctionCollection.hash64(p_key);
+        int slot;
+
+        slot = find(p_key, hash);
+        if (slot != -1) {
+            // Replace value in entry
+            m_values[slot] = p_value;
+            return;
+        }
 
-        iter = m_table[index];
-        while (iter != null) {
-            if (iter.getKey() == p_key) {
-                ret = iter.getValue();
-                break;
+        // Add new entry
+        slot = findFree(hash);
+        if (getControl(slot) == EMPTY) {
+            if (m_growthLeft == 0) {
+                rehash();
+                slot = findFree(hash);
             }
-            index = (index + 1) % m_elementCapacity;
-            iter = m_table[index];
+            m_growthLeft--;
         }
 
-        return ret;
+        setControl(slot, (int) hash & 0x7F);
+        m_keys[slot] = p_key;
+        m_values[slot] = p_value;
+        m_count++;
     }
 
     /**
-     * Maps the given key-value tuple in GenericHashTable.
+     * Removes the given key from GenericHashTable.
      *
      * @param p_key
      *         the key
+     * @return the value the key was mapped to or null if the key was not found
      */
-    public void put(final long p_key, final T p_value) {
-        HashTableElement<T> iter;
-        int index;
-
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
+    public T remove(final long p_key) {
+        T ret;
+        int slot;
 
-        iter = m_table[index];
-        while (iter != null) {
-            if (iter.getKey() == p_key) {
-                // Replace value in entry
-                iter.setValue(p_value);
-                return;
-            }
-            index = (index + 1) % m_elementCapacity;
-            iter = m_table[index];
+        slot = find(p_key, HashFunctionCollection.hash64(p_key));
+        if (slot == -1) {
+            return null;
         }
 
-        // Add new entry
-        m_table[index] = new HashTableElement<T>(p_key, p_value);
-        if (++m_count >= m_elementCapacity * LOAD_FACTOR) {
-            rehash();
+        ret = (T) m_values[slot];
+        m_values[slot] = null;
+        m_count--;
+
+        // No probe sequence went past a group with an empty slot, the slot can be empty as well
+        if (matchEmpty(m_control[slot / GROUP_SIZE]) != 0) {
+            setControl(slot, EMPTY);
+            m_growthLeft++;
+        } else {
+            setControl(slot, DELETED);
         }
+
+        return ret;
     }
 
     /**
      * Clears the GenericHashTable.
      */
     public void clear() {
-        int length = m_table.length;
+        Arrays.fill(m_control, MSBS);
+        Arrays.fill(m_values, null);
+
+        m_count = 0;
+        m_growthLeft = (int) (m_elementCapacity * LOAD_FACTOR);
+    }
 
-        /* The array and list is never truncated as the maximum number of concurrently accessed
-         backup zones is rather low */
+    /**
+     * Finds the slot of the given key.
+     *
+     * @param p_key
+     *         the key
+     * @param p_hash
+     *         the hash of the key
+     * @return the slot or -1 if the key was not found
+     */
+    private int find(final long p_key, final long p_hash) {
+        long pattern = (p_hash & 0x7F) * LSBS;
+        int group = (int) (p_hash >>> 7) & m_groupMask;
+        int step = 0;
+        long control;
+        long matches;
+        int slot;
+
+        while (true) {
+            control = m_control[group];
+
+            // Only slots with a matching fingerprint are compared
+            matches = matchByte(control, pattern);
+            while (matches != 0) {
+                slot = group * GROUP_SIZE + (Long.numberOfTrailingZeros(matches) >>> 3);
+                if (m_keys[slot] == p_key) {
+                    return slot;
+                }
+                matches &= matches - 1;
+            }
+
+            if (matchEmpty(control) != 0) {
+                return -1;
+            }
 
-        // This is faster than Arrays.fill
-        m_table[0] = null;
-        for (int i = 1; i < length; i += i) {
-            System.arraycopy(m_table, 0, m_table, i, length - i < i ? length - i : i);
+            group = group + ++step & m_groupMask;
         }
+    }
+
+    /**
+     * Finds the first empty or deleted slot in the probe sequence of the given hash.
+     *
+     * @param p_hash
+     *         the hash
+     * @return the slot
+     */
+    private int findFree(final long p_hash) {
+        int group = (int) (p_hash >>> 7) & m_groupMask;
+        int step = 0;
+        long free;
+
+        while (true) {
+            free = m_control[group] & MSBS;
+            if (free != 0) {
+                return group * GROUP_SIZE + (Long.numberOfTrailingZeros(free) >>> 3);
+            }
+
+            group = group + ++step & m_groupMask;
+        }
+    }
+
+    /**
+     * Marks the control bytes equal to the byte repeated in the pattern. Bytes above a match might be marked as well,
+     * but only full slots are marked.
+     *
+     * @param p_control
+     *         the control bytes of a group
+     * @param p_pattern
+     *         the searched byte in every byte
+     * @return the most significant bit of every matching byte
+     */
+    private static long matchByte(final long p_control, final long p_pattern) {
+        long x = p_control ^ p_pattern;
+
+        return x - LSBS & ~x & MSBS;
+    }
+
+    /**
+     * Marks the empty control bytes (most significant bit set and bit 1 not set, which distinguishes EMPTY from
+     * DELETED).
+     *
+     * @param p_control
+     *         the control bytes of a group
+     * @return the most significant bit of every empty byte
+     */
+    private static long matchEmpty(final long p_control) {
+        return p_control & ~p_control << 6 & MSBS;
+    }
 
+    /**
+     * Gets the control byte of a slot.
+     *
+     * @param p_slot
+     *         the slot
+     * @return the control byte
+     */
+    private int getControl(final int p_slot) {
+        return (int) (m_control[p_slot / GROUP_SIZE] >>> (p_slot % GROUP_SIZE) * 8) & 0xFF;
+    }
+
+    /**
+     * Sets the control byte of a slot.
+     *
+     * @param p_slot
+     *         the slot
+     * @param p_control
+     *         the control byte
+     */
+    private void setControl(final int p_slot, final int p_control) {
+        int shift = (p_slot % GROUP_SIZE) * 8;
+        int group = p_slot / GROUP_SIZE;
+
+        m_control[group] = m_control[group] & ~(0xFFL << shift) | (long) p_control << shift;
+    }
+
+    /**
+     * Allocates empty arrays.
+     *
+     * @param p_capacity
+     *         the number of slots (power of two, at least one group)
+     */
+    private void allocate(final int p_capacity) {
+        m_elementCapacity = p_capacity;
+        m_groupMask = p_capacity / GROUP_SIZE - 1;
+        m_control = new long[p_capacity / GROUP_SIZE];
+        m_keys = new long[p_capacity];
+        m_values = new Object[p_capacity];
+
+        Arrays.fill(m_control, MSBS);
         m_count = 0;
+        m_growthLeft = (int) (p_capacity * LOAD_FACTOR);
     }
 
     /**
-     * Increases the capacity of and internally reorganizes GenericHashTable.
+     * Increases the capacity of and internally reorganizes GenericHashTable. The capacity is kept if at least half of
+     * the used slots are deleted ones.
      */
     private void rehash() {
-        int index = 0;
         int oldCount;
-        int oldElementCapacity;
-        HashTableElement<T>[] oldTable;
-        HashTableElement<T>[] newTable;
+        long[] oldControl;
+        long[] oldKeys;
+        Object[] oldValues;
+        long full;
+        int slot;
+        int newSlot;
+        long hash;
 
         LOGGER.trace("Re-hashing (count:  %d)", m_count);
 
         oldCount = m_count;
-        oldElementCapacity = m_elementCapacity;
-        oldTable = m_table;
+        oldControl = m_control;
+        oldKeys = m_keys;
+        oldValues = m_values;
+
+        if (m_count * 2 < m_elementCapacity * LOAD_FACTOR) {
+            allocate(m_elementCapacity);
+        } else {
+            allocate(m_elementCapacity * 2);
+        }
 
-        m_elementCapacity = m_elementCapacity * 2 + 1;
+        for (int group = 0; group < oldControl.length; group++) {
+            full = ~oldControl[group] & MSBS;
+            while (full != 0) {
+                slot = group * GROUP_SIZE + (Long.numberOfTrailingZeros(full) >>> 3);
+                hash = HashFunctionCollection.hash64(oldKeys[slot]);
 
-        newTable = new HashTableElement[m_elementCapacity];
-        m_table = newTable;
+                newSlot = findFree(hash);
+                setControl(newSlot, (int) hash & 0x7F);
+                m_keys[newSlot] = oldKeys[slot];
+                m_values[newSlot] = oldValues[slot];
 
-        m_count = 0;
-        while (index < oldElementCapacity) {
-            HashTableElement<T> element = oldTable[index];
-            if (element != null) {
-                put(element.getKey(), element.getValue());
+                full &= full - 1;
             }
-            index = (index + 1) % m_elementCapacity;
         }
+
         m_count = oldCount;
+        m_growthLeft -= oldCount;
     }
 }
@@ -9,7 +9,34 @@ public final class HashFunctionCollection {
     }
 
     /**
-     * Hashes the given int key.
+     * Returns the table size for the given number of elements, i.e. the next power of two.
+     *
+     * @param p_size
+     *         the number of elements (must be greater than 0 and at most 2^30)
+     * @return the smallest power of two greater than or equal to p_size
+     */
+    static int tableSize(final int p_size) {
+        assert p_size > 0 && p_size <= 1 << 30;
+
+        return p_size == 1 ? 1 : Integer.highestOneBit(p_size - 1) << 1;
+    }
+
+    /**
+     * Returns the table size for the given number of elements, i.e. the next power of two.
+     *
+     * @param p_size
+     *         the number of elements (must be greater than 0 and at most 2^62)
+     * @return the smallest power of two greater than or equal to p_size
+     */
+    static long tableSize(final long p_size) {
+        assert p_size > 0 && p_size <= 1L << 62;
+
+        return p_size == 1 ? 1 : Long.highestOneBit(p_size - 1) << 1;
+    }
+
+    /**
+     * Hashes the given int key with the MurmurHash3 finalizer. All input bits affect the low bits of the hash value,
+     * which are used to index power-of-two tables.
      *
      * @param p_key
      *         the key
@@ -18,48 +45,38 @@ public final class HashFunctionCollection {
     static int hash(final int p_key) {
         int hash = p_key;
 
-        hash = (hash >> 16 ^ hash) * 0x45d9f3b;
-        hash = (hash >> 16 ^ hash) * 0x45d9f3b;
-        return hash >> 16 ^ hash;
+        hash = (hash ^ hash >>> 16) * 0x85ebca6b;
+        hash = (hash ^ hash >>> 13) * 0xc2b2ae35;
+        return hash ^ hash >>> 16;
     }
 
     /**
-     * Hashes the given long key with MurmurHash3.
+     * Hashes the given long key with the 64-bit MurmurHash3 finalizer folded to 32 bits. All input bits (e.g. the
+     * creator ID in the upper 16 bits of a chunk ID) affect the low bits of the hash value.
      *
      * @param p_key
      *         the key
      * @return the hash value
      */
     public static int hash(final long p_key) {
-        final int c1 = 0xcc9e2d51;
-        final int c2 = 0x1b873593;
-        int h1 = 0x9747b28c;
-        int k1;
-
-        k1 = ((short) p_key & 0xff) + ((int) p_key & 0xff00) + ((int) p_key & 0xff0000) + ((int) p_key & 0xff000000);
-        k1 *= c1;
-        k1 = k1 << 15 | k1 >>> 17;
-        k1 *= c2;
-        h1 ^= k1;
-        h1 = h1 << 13 | h1 >>> 19;
-        h1 = h1 * 5 + 0xe6546b64;
+        long hash = hash64(p_key);
 
-        k1 = (int) ((p_key & 0xff00000000L) + (p_key & 0xff0000000000L) + (p_key & 0xff000000000000L) +
-                (p_key & 0xff000000000000L));
-        k1 *= c1;
-        k1 = k1 << 15 | k1 >>> 17;
-        k1 *= c2;
-        h1 ^= k1;
-        h1 = h1 << 13 | h1 >>> 19;
-        h1 = h1 * 5 + 0xe6546b64;
+        return (int) (hash ^ hash >>> 32);
+    }
 
-        h1 ^= 8;
-        h1 ^= h1 >>> 16;
-        h1 *= 0x85ebca6b;
-        h1 ^= h1 >>> 13;
-        h1 *= 0xc2b2ae35;
-        h1 ^= h1 >>> 16;
+    /**
+     * Hashes the given long key with the 64-bit MurmurHash3 finalizer. To be used for tables with more than 2^32
+     * slots.
+     *
+     * @param p_key
+     *         the key
+     * @return the hash value
+     */
+    static long hash64(final long p_key) {
+        long hash = p_key;
 
-        return h1;
+        hash = (hash ^ hash >>> 33) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ hash >>> 33) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ hash >>> 33;
     }
 }
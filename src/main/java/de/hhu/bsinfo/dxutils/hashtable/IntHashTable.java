@@ -22,23 +22,46 @@ import java.util.List;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import de.hhu.bsinfo.dxutils.serialization.Exportable;
+import de.hhu.bsinfo.dxutils.serialization.Exporter;
+import de.hhu.bsinfo.dxutils.serialization.Importable;
+import de.hhu.bsinfo.dxutils.serialization.Importer;
+import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
+
 /**
  * Stores key-value tuples whereas keys and values are ints.
  * To be used if memory efficiency is important (and garbage collector should be relieved).
+ * The capacity is always a power of two, so slots are addressed with a bit mask instead of a division.
+ * The capacity is doubled incrementally: the previous table is kept and every write operation moves a few of its
+ * slots to the new table (and the entry of the written key). Lookups consider both tables until all slots are
+ * moved, so no single operation re-inserts all entries.
+ * Exported as capacity, size, Robin Hood flag and the raw slots, so an import needs no
+ * re-hashing.
  *
  * @author Kevin Beineke, kevin.beineke@hhu.de, 26.02.2018
  */
-public class IntHashTable {
+public class IntHashTable implements Importable, Exportable {
 
     private static final int INITIAL_SIZE = 100;
     private static final float LOAD_FACTOR = 0.9f;
+    // slots of the previous table moved per write operation while growing
+    private static final int MIGRATION_STEP = 8;
 
     private static final Logger LOGGER = LogManager.getFormatterLogger(IntHashTable.class.getSimpleName());
 
     private int[] m_table;
     private int m_elementCapacity;
+    private int m_mask;
     private int m_count;
 
+    // previous table while its entries are moved after growing (null otherwise)
+    private int[] m_oldTable;
+    private int m_oldCapacity;
+    private int m_oldMask;
+    // slots of the previous table whose entry was moved out of order (by a write operation on its key)
+    private long[] m_oldMoved;
+    private int m_migrationIndex;
+
     private ArrayList<int[]> m_list;
 
     /**
@@ -46,7 +69,8 @@ public class IntHashTable {
      */
     public IntHashTable() {
         m_count = 0;
-        m_elementCapacity = INITIAL_SIZE;
+        m_elementCapacity = HashFunctionCollection.tableSize(INITIAL_SIZE);
+        m_mask = m_elementCapacity - 1;
 
         m_table = new int[m_elementCapacity * 2]; // keys and values are stored one after another -> double size
         m_list = new ArrayList<>();
@@ -56,14 +80,15 @@ public class IntHashTable {
      * Creates an instance of IntHashTable.
      *
      * @param p_initialSize
-     *         the initial size
+     *         the initial size (rounded up to the next power of two)
      */
     public IntHashTable(final int p_initialSize) {
 
         assert p_initialSize > 0;
 
         m_count = 0;
-        m_elementCapacity = p_initialSize;
+        m_elementCapacity = HashFunctionCollection.tableSize(p_initialSize);
+        m_mask = m_elementCapacity - 1;
 
         m_table = new int[m_elementCapacity * 2]; // keys and values are stored one after another -> double size
         m_list = new ArrayList<>();
@@ -111,15 +136,19 @@ public class IntHashTable {
      * @return the int array.
      */
     public int[] getTable() {
+        finishMigration();
+
         return m_table;
     }
 
     /**
      * Converts the hash table with all entries to an ArrayList with pairs.
+     * Allocates an array per entry on first use, forEach() and exportEntries() do not allocate.
      *
      * @return view on ArrayList with entries as pairs of index + value (int array)
      */
     public List<int[]> convert() {
+        finishMigration();
 
         int count = 0;
         for (int i = 0; i < m_elementCapacity; i++) {
@@ -142,6 +171,137 @@ public class IntHashTable {
         return m_list.subList(0, m_count);
     }
 
+    /**
+     * Passes all entries to the given consumer without allocating. The table must not be modified meanwhile.
+     *
+     * @param p_consumer
+     *         the consumer
+     */
+    public void forEach(final IntIntConsumer p_consumer) {
+        int key;
+
+        for (int i = 0; i < m_elementCapacity; i++) {
+            key = getKey(i);
+            if (key != 0) {
+                p_consumer.accept(key, getValue(i));
+            }
+        }
+
+        // Entries not moved to the table yet
+        if (m_oldTable != null) {
+            for (int i = m_migrationIndex; i < m_oldCapacity; i++) {
+                key = getOldKey(i);
+                if (key != 0 && (m_oldMoved[i >>> 6] & 1L << i) == 0) {
+                    p_consumer.accept(key, getOldValue(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies all keys and values to the given arrays without allocating. The value of a key is stored at the same
+     * index as the key.
+     *
+     * @param p_keys
+     *         the array for the keys (at least p_offset + size() elements) or null to skip the keys
+     * @param p_values
+     *         the array for the values (at least p_offset + size() elements) or null to skip the values
+     * @param p_offset
+     *         the index of the first entry in both arrays
+     * @return the number of copied entries
+     */
+    public int exportEntries(final int[] p_keys, final int[] p_values, final int p_offset) {
+        int index = p_offset;
+        int key;
+
+        assert p_keys == null || p_keys.length >= p_offset + m_count;
+        assert p_values == null || p_values.length >= p_offset + m_count;
+
+        for (int i = 0; i < m_elementCapacity; i++) {
+            key = getKey(i);
+            if (key != 0) {
+                if (p_keys != null) {
+                    p_keys[index] = key;
+                }
+                if (p_values != null) {
+                    p_values[index] = getValue(i);
+                }
+                index++;
+            }
+        }
+
+        // Entries not moved to the table yet
+        if (m_oldTable != null) {
+            for (int i = m_migrationIndex; i < m_oldCapacity; i++) {
+                key = getOldKey(i);
+                if (key != 0 && (m_oldMoved[i >>> 6] & 1L << i) == 0) {
+                    if (p_keys != null) {
+                        p_keys[index] = key;
+                    }
+                    if (p_values != null) {
+                        p_values[index] = getOldValue(i);
+                    }
+                    index++;
+                }
+            }
+        }
+
+        return index - p_offset;
+    }
+
+    /**
+     * Writes the number of entries followed by all key-value tuples to the given exporter.
+     *
+     * @param p_exporter
+     *         the exporter
+     */
+    public void exportEntries(final Exporter p_exporter) {
+        p_exporter.writeInt(m_count);
+        forEach((p_key, p_value) -> {
+            p_exporter.writeInt(p_key);
+            p_exporter.writeInt(p_value);
+        });
+    }
+
+    /**
+     * Writes the raw slots with a single bulk write, an imported table needs no re-hashing.
+     *
+     * @param p_exporter
+     *         the exporter
+     */
+    @Override
+    public void exportObject(final Exporter p_exporter) {
+        finishMigration();
+
+        p_exporter.writeInt(m_elementCapacity);
+        p_exporter.writeInt(m_count);
+        p_exporter.writeBoolean(false);
+        p_exporter.writeInts(m_table);
+    }
+
+    @Override
+    public void importObject(final Importer p_importer) {
+        m_elementCapacity = p_importer.readInt(m_elementCapacity);
+        m_mask = m_elementCapacity - 1;
+        m_count = p_importer.readInt(m_count);
+
+        // Robin Hood flag, never set for this table
+        p_importer.readBoolean(false);
+
+        if (m_table.length != m_elementCapacity * 2) {
+            m_table = new int[m_elementCapacity * 2];
+        }
+        p_importer.readInts(m_table);
+
+        m_oldTable = null;
+        m_oldMoved = null;
+    }
+
+    @Override
+    public int sizeofObject() {
+        return Integer.BYTES * 2 + ObjectSizeUtil.sizeofBoolean() + m_table.length * Integer.BYTES;
+    }
+
     /**
      * Returns the value to which the specified key is mapped in IntHashTable.
      *
@@ -156,7 +316,7 @@ public class IntHashTable {
 
         assert p_key != 0;
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
+        index = HashFunctionCollection.hash(p_key) & m_mask;
 
         iter = getKey(index);
         while (iter != 0) {
@@ -164,7 +324,16 @@ public class IntHashTable {
                 ret = getValue(index);
                 break;
             }
-            iter = getKey(++index);
+            index = index + 1 & m_mask;
+            iter = getKey(index);
+        }
+
+        // The entry might not have been moved yet
+        if (ret == -1 && m_oldTable != null) {
+            index = findOld(p_key);
+            if (index != -1) {
+                ret = getOldValue(index);
+            }
         }
 
         return ret;
@@ -184,7 +353,11 @@ public class IntHashTable {
 
         assert p_key != 0;
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
+        if (m_oldTable != null) {
+            migrate(p_key);
+        }
+
+        index = HashFunctionCollection.hash(p_key) & m_mask;
 
         iter = getKey(index);
         while (iter != 0) {
@@ -192,7 +365,8 @@ public class IntHashTable {
                 set(index, p_key, p_value);
                 return;
             }
-            iter = getKey(++index);
+            index = index + 1 & m_mask;
+            iter = getKey(index);
         }
 
         set(index, p_key, p_value);
@@ -218,7 +392,11 @@ public class IntHashTable {
 
         assert p_key != 0;
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
+        if (m_oldTable != null) {
+            migrate(p_key);
+        }
+
+        index = HashFunctionCollection.hash(p_key) & m_mask;
 
         iter = getKey(index);
         while (iter != 0) {
@@ -227,7 +405,8 @@ public class IntHashTable {
                 set(index, p_key, ret + p_value);
                 break;
             }
-            iter = getKey(++index);
+            index = index + 1 & m_mask;
+            iter = getKey(index);
         }
         if (ret == -1) {
             set(index, p_key, p_value);
@@ -241,12 +420,51 @@ public class IntHashTable {
         return ret;
     }
 
+    /**
+     * Removes the given key from IntHashTable. The following entries of the probe sequence are shifted back into the
+     * gap (backward-shift deletion), so no tombstones are left behind and probe lengths do not degrade.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @return the value the key was mapped to or -1 if the key was not found
+     */
+    public final int remove(final int p_key) {
+        int ret = -1;
+        int iter;
+        int index;
+
+        assert p_key != 0;
+
+        if (m_oldTable != null) {
+            migrate(p_key);
+        }
+
+        index = HashFunctionCollection.hash(p_key) & m_mask;
+
+        iter = getKey(index);
+        while (iter != 0) {
+            if (iter == p_key) {
+                ret = getValue(index);
+                shiftBack(index);
+                m_count--;
+                break;
+            }
+            index = index + 1 & m_mask;
+            iter = getKey(index);
+        }
+
+        return ret;
+    }
+
     /**
      * Clears the IntHashTable.
      */
     public final void clear() {
         int length = m_table.length;
 
+        m_oldTable = null;
+        m_oldMoved = null;
+
         /* The array and list is never truncated as the maximum number of concurrently accessed
          backup zones is rather low */
 
@@ -266,6 +484,8 @@ public class IntHashTable {
      * @return the old int array.
      */
     public final int[] replace() {
+        finishMigration();
+
         int[] newTable = new int[m_table.length];
         int[] oldTable = m_table;
         m_table = newTable;
@@ -278,7 +498,7 @@ public class IntHashTable {
      * Sets the key-value tuple at given index.
      *
      * @param p_index
-     *         the index
+     *         the index (less than the capacity)
      * @param p_key
      *         the key
      * @param p_value
@@ -287,7 +507,7 @@ public class IntHashTable {
     protected void set(final int p_index, final int p_key, final int p_value) {
         int index;
 
-        index = p_index % m_elementCapacity * 2;
+        index = p_index * 2;
         m_table[index] = p_key;
         m_table[index + 1] = p_value;
     }
@@ -296,52 +516,196 @@ public class IntHashTable {
      * Gets the key at given index.
      *
      * @param p_index
-     *         the index
+     *         the index (less than the capacity)
      * @return the key
      */
     protected int getKey(final int p_index) {
-        return m_table[p_index % m_elementCapacity * 2];
+        return m_table[p_index * 2];
     }
 
     /**
      * Gets the value at given index.
      *
      * @param p_index
-     *         the index
+     *         the index (less than the capacity)
      * @return the value
      */
     protected int getValue(final int p_index) {
-        return m_table[p_index % m_elementCapacity * 2 + 1];
+        return m_table[p_index * 2 + 1];
     }
 
     /**
-     * Increases the capacity of and internally reorganizes IntHashTable.
+     * Fills the gap at the given index by moving back following entries of the probe sequence whose home slot is
+     * not between the gap and their current slot.
+     *
+     * @param p_index
+     *         the index of the removed entry
      */
-    private void rehash() {
-        int index = 0;
-        int oldCount;
-        int oldElementCapacity;
-        int[] oldTable;
-        int[] newTable;
+    private void shiftBack(final int p_index) {
+        int gap = p_index;
+        int index = p_index;
+        int key;
+
+        while (true) {
+            index = index + 1 & m_mask;
+            key = getKey(index);
+            if (key == 0) {
+                break;
+            }
+
+            // Move the entry if it is at least as far from its home slot as from the gap
+            if ((index - HashFunctionCollection.hash(key) & m_mask) >= (index - gap & m_mask)) {
+                set(gap, key, getValue(index));
+                gap = index;
+            }
+        }
+
+        set(gap, 0, 0);
+    }
 
+    /**
+     * Doubles the capacity of IntHashTable. The entries of the current table are moved by the following write
+     * operations (see migrate()).
+     */
+    private void rehash() {
         LOGGER.trace("Re-hashing (count:  %d)", m_count);
 
-        oldCount = m_count;
-        oldElementCapacity = m_elementCapacity;
-        oldTable = m_table;
+        // At most one previous table
+        finishMigration();
 
-        m_elementCapacity = m_elementCapacity * 2 + 1;
-        newTable = new int[m_elementCapacity * 2];
-        m_table = newTable;
+        m_oldTable = m_table;
+        m_oldCapacity = m_elementCapacity;
+        m_oldMask = m_mask;
+        m_oldMoved = new long[(m_elementCapacity + 63) / 64];
+        m_migrationIndex = 0;
 
-        m_count = 0;
-        while (index < oldElementCapacity) {
-            if (oldTable[index * 2] != 0) {
-                add(oldTable[index * 2], oldTable[index * 2 + 1]);
+        m_elementCapacity *= 2;
+        m_mask = m_elementCapacity - 1;
+        m_table = new int[m_elementCapacity * 2];
+    }
+
+    /**
+     * Moves the next slots of the previous table and the entry of the given key (if it is still in the previous
+     * table), so that a write operation on the key only has to consider the current table.
+     *
+     * @param p_key
+     *         the key
+     */
+    private void migrate(final int p_key) {
+        int index;
+
+        migrateStep();
+
+        if (m_oldTable != null) {
+            index = findOld(p_key);
+            if (index != -1) {
+                m_oldMoved[index >>> 6] |= 1L << index;
+                insertMoved(p_key, getOldValue(index));
             }
-            index = (index + 1) % m_elementCapacity;
         }
-        m_count = oldCount;
+    }
+
+    /**
+     * Moves the next MIGRATION_STEP slots of the previous table. Releases the previous table after the last slot.
+     */
+    private void migrateStep() {
+        int end = Math.min(m_migrationIndex + MIGRATION_STEP, m_oldCapacity);
+        int index;
+        int key;
+
+        // The fields are re-read as inserting could start another resize
+        while (m_oldTable != null && m_migrationIndex < end) {
+            index = m_migrationIndex++;
+            key = getOldKey(index);
+            if (key != 0 && (m_oldMoved[index >>> 6] & 1L << index) == 0) {
+                insertMoved(key, getOldValue(index));
+            }
+        }
+
+        if (m_oldTable != null && m_migrationIndex >= m_oldCapacity) {
+            m_oldTable = null;
+            m_oldMoved = null;
+        }
+    }
+
+    /**
+     * Moves all remaining slots of the previous table.
+     */
+    private void finishMigration() {
+        while (m_oldTable != null) {
+            migrateStep();
+        }
+    }
+
+    /**
+     * Finds the index of the given key in the previous table.
+     *
+     * @param p_key
+     *         the key
+     * @return the index or -1 if the key is not in the previous table or was moved already
+     */
+    private int findOld(final int p_key) {
+        int index;
+        int probes = 0;
+        int iter;
+
+        index = HashFunctionCollection.hash(p_key) & m_oldMask;
+
+        iter = getOldKey(index);
+        // Small tables can be full when they grow
+        while (iter != 0 && probes++ < m_oldCapacity) {
+            if (iter == p_key) {
+                if (index < m_migrationIndex || (m_oldMoved[index >>> 6] & 1L << index) != 0) {
+                    return -1;
+                }
+
+                return index;
+            }
+            index = index + 1 & m_oldMask;
+            iter = getOldKey(index);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Inserts an entry of the previous table which is not in the current table. The number of entries is unchanged.
+     *
+     * @param p_key
+     *         the key
+     * @param p_value
+     *         the value
+     */
+    private void insertMoved(final int p_key, final int p_value) {
+        int index;
+
+        index = HashFunctionCollection.hash(p_key) & m_mask;
+        while (getKey(index) != 0) {
+            index = index + 1 & m_mask;
+        }
+        set(index, p_key, p_value);
+    }
+
+    /**
+     * Gets the key at given index of the previous table.
+     *
+     * @param p_index
+     *         the index (less than the previous capacity)
+     * @return the key
+     */
+    private int getOldKey(final int p_index) {
+        return m_oldTable[p_index * 2];
+    }
+
+    /**
+     * Gets the value at given index of the previous table.
+     *
+     * @param p_index
+     *         the index (less than the previous capacity)
+     * @return the value
+     */
+    private int getOldValue(final int p_index) {
+        return m_oldTable[p_index * 2 + 1];
     }
 
 }
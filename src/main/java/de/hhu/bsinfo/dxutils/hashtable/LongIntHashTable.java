@@ -17,28 +17,59 @@
 package de.hhu.bsinfo.dxutils.hashtable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import de.hhu.bsinfo.dxutils.serialization.Exportable;
+import de.hhu.bsinfo.dxutils.serialization.Exporter;
+import de.hhu.bsinfo.dxutils.serialization.Importable;
+import de.hhu.bsinfo.dxutils.serialization.Importer;
+import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
+
 /**
  * Stores key-value tuples whereas keys are longs and values ints.
  * To be used if memory efficiency is important (and garbage collector should be relieved).
+ * The capacity is always a power of two, so slots are addressed with a bit mask instead of a division.
+ * The capacity is doubled incrementally: the previous table is kept and every write operation moves a few of its
+ * slots to the new table (and the entry of the written key). Lookups consider both tables until all slots are
+ * moved, so no single operation re-inserts all entries.
+ * Exported as capacity, size, Robin Hood flag and the raw slots (followed by the displacements), so an import needs no
+ * re-hashing. MappedLongIntHashTable serves lookups from an exported table in a memory-mapped file.
+ * In Robin Hood mode, an inserted entry takes the slot of an entry closer to its home slot. This bounds the variance
+ * of the probe lengths and a lookup stops as soon as it reaches an entry closer to its home slot than the key would
+ * be (which is where a miss ends). The displacement of every entry is stored in an extra byte per slot.
  *
  * @author Kevin Beineke, kevin.beineke@hhu.de, 26.02.2018
  */
-public class LongIntHashTable {
+public class LongIntHashTable implements Importable, Exportable {
 
     private static final int INITIAL_SIZE = 100;
     private static final float LOAD_FACTOR = 0.9f;
+    // slots of the previous table moved per write operation while growing
+    private static final int MIGRATION_STEP = 8;
+    private static final int MAX_DISPLACEMENT = 255;
 
     private static final Logger LOGGER = LogManager.getFormatterLogger(LongIntHashTable.class.getSimpleName());
 
     private int[] m_table;
     private int m_elementCapacity;
+    private int m_mask;
     private int m_count;
 
+    // previous table while its entries are moved after growing (null otherwise)
+    private int[] m_oldTable;
+    private int m_oldCapacity;
+    private int m_oldMask;
+    // slots of the previous table whose entry was moved out of order (by a write operation on its key)
+    private long[] m_oldMoved;
+    private int m_migrationIndex;
+
+    // displacement of every entry from its home slot (Robin Hood mode only, null otherwise)
+    private byte[] m_displacements;
+
     private ArrayList<long[]> m_list;
 
     /**
@@ -46,7 +77,8 @@ public class LongIntHashTable {
      */
     public LongIntHashTable() {
         m_count = 0;
-        m_elementCapacity = INITIAL_SIZE;
+        m_elementCapacity = HashFunctionCollection.tableSize(INITIAL_SIZE);
+        m_mask = m_elementCapacity - 1;
 
         m_table = new int[m_elementCapacity *
                 3]; // keys (8 bytes) and values (4 bytes) are stored one after another -> triple size
@@ -57,17 +89,33 @@ public class LongIntHashTable {
      * Creates an instance of LongIntHashTable.
      *
      * @param p_initialSize
-     *         the initial size
+     *         the initial size (rounded up to the next power of two)
      */
     public LongIntHashTable(final int p_initialSize) {
+        this(p_initialSize, false);
+    }
+
+    /**
+     * Creates an instance of LongIntHashTable.
+     *
+     * @param p_initialSize
+     *         the initial size (rounded up to the next power of two)
+     * @param p_robinHood
+     *         whether to use Robin Hood probing
+     */
+    public LongIntHashTable(final int p_initialSize, final boolean p_robinHood) {
 
         assert p_initialSize > 0;
 
         m_count = 0;
-        m_elementCapacity = p_initialSize;
+        m_elementCapacity = HashFunctionCollection.tableSize(p_initialSize);
+        m_mask = m_elementCapacity - 1;
 
         m_table = new int[m_elementCapacity *
                 3]; // keys (8 bytes) and values (4 bytes) are stored one after another -> triple size
+        if (p_robinHood) {
+            m_displacements = new byte[m_elementCapacity];
+        }
         m_list = new ArrayList<>();
     }
 
@@ -107,21 +155,34 @@ public class LongIntHashTable {
         return m_count >= (int) (m_elementCapacity * LOAD_FACTOR);
     }
 
+    /**
+     * Returns whether this hash table uses Robin Hood probing.
+     *
+     * @return true if Robin Hood probing is used, false for linear probing
+     */
+    public boolean isRobinHood() {
+        return m_displacements != null;
+    }
+
     /**
      * Returns the underlying array.
      *
      * @return the int array.
      */
     public int[] getTable() {
+        finishMigration();
+
         return m_table;
     }
 
     /**
      * Converts the hash table with all entries to an ArrayList with pairs.
+     * Allocates an array per entry on first use, forEach() and exportEntries() do not allocate.
      *
      * @return view on ArrayList with entries as pairs of index + value (int array)
      */
     public List<long[]> convert() {
+        finishMigration();
 
         int count = 0;
         for (int i = 0; i < m_elementCapacity; i++) {
@@ -144,6 +205,149 @@ public class LongIntHashTable {
         return m_list.subList(0, m_count);
     }
 
+    /**
+     * Passes all entries to the given consumer without allocating. The table must not be modified meanwhile.
+     *
+     * @param p_consumer
+     *         the consumer
+     */
+    public void forEach(final LongIntConsumer p_consumer) {
+        long key;
+
+        for (int i = 0; i < m_elementCapacity; i++) {
+            key = getKey(i);
+            if (key != 0) {
+                p_consumer.accept(key, getValue(i));
+            }
+        }
+
+        // Entries not moved to the table yet
+        if (m_oldTable != null) {
+            for (int i = m_migrationIndex; i < m_oldCapacity; i++) {
+                key = getOldKey(i);
+                if (key != 0 && (m_oldMoved[i >>> 6] & 1L << i) == 0) {
+                    p_consumer.accept(key, getOldValue(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies all keys and values to the given arrays without allocating. The value of a key is stored at the same
+     * index as the key.
+     *
+     * @param p_keys
+     *         the array for the keys (at least p_offset + size() elements) or null to skip the keys
+     * @param p_values
+     *         the array for the values (at least p_offset + size() elements) or null to skip the values
+     * @param p_offset
+     *         the index of the first entry in both arrays
+     * @return the number of copied entries
+     */
+    public int exportEntries(final long[] p_keys, final int[] p_values, final int p_offset) {
+        int index = p_offset;
+        long key;
+
+        assert p_keys == null || p_keys.length >= p_offset + m_count;
+        assert p_values == null || p_values.length >= p_offset + m_count;
+
+        for (int i = 0; i < m_elementCapacity; i++) {
+            key = getKey(i);
+            if (key != 0) {
+                if (p_keys != null) {
+                    p_keys[index] = key;
+                }
+                if (p_values != null) {
+                    p_values[index] = getValue(i);
+                }
+                index++;
+            }
+        }
+
+        // Entries not moved to the table yet
+        if (m_oldTable != null) {
+            for (int i = m_migrationIndex; i < m_oldCapacity; i++) {
+                key = getOldKey(i);
+                if (key != 0 && (m_oldMoved[i >>> 6] & 1L << i) == 0) {
+                    if (p_keys != null) {
+                        p_keys[index] = key;
+                    }
+                    if (p_values != null) {
+                        p_values[index] = getOldValue(i);
+                    }
+                    index++;
+                }
+            }
+        }
+
+        return index - p_offset;
+    }
+
+    /**
+     * Writes the number of entries followed by all key-value tuples to the given exporter.
+     *
+     * @param p_exporter
+     *         the exporter
+     */
+    public void exportEntries(final Exporter p_exporter) {
+        p_exporter.writeInt(m_count);
+        forEach((p_key, p_value) -> {
+            p_exporter.writeLong(p_key);
+            p_exporter.writeInt(p_value);
+        });
+    }
+
+    /**
+     * Writes the raw slots with a single bulk write, an imported table needs no re-hashing.
+     *
+     * @param p_exporter
+     *         the exporter
+     */
+    @Override
+    public void exportObject(final Exporter p_exporter) {
+        finishMigration();
+
+        p_exporter.writeInt(m_elementCapacity);
+        p_exporter.writeInt(m_count);
+        p_exporter.writeBoolean(m_displacements != null);
+        p_exporter.writeInts(m_table);
+        if (m_displacements != null) {
+            p_exporter.writeBytes(m_displacements);
+        }
+    }
+
+    @Override
+    public void importObject(final Importer p_importer) {
+        m_elementCapacity = p_importer.readInt(m_elementCapacity);
+        m_mask = m_elementCapacity - 1;
+        m_count = p_importer.readInt(m_count);
+
+        if (p_importer.readBoolean(m_displacements != null)) {
+            if (m_displacements == null || m_displacements.length != m_elementCapacity) {
+                m_displacements = new byte[m_elementCapacity];
+            }
+        } else {
+            m_displacements = null;
+        }
+
+        if (m_table.length != m_elementCapacity * 3) {
+            m_table = new int[m_elementCapacity * 3];
+        }
+        p_importer.readInts(m_table);
+        if (m_displacements != null) {
+            p_importer.readBytes(m_displacements);
+        }
+
+        m_oldTable = null;
+        m_oldMoved = null;
+    }
+
+    @Override
+    public int sizeofObject() {
+        return Integer.BYTES * 2 + ObjectSizeUtil.sizeofBoolean() + m_table.length * Integer.BYTES +
+                (m_displacements != null ? m_displacements.length : 0);
+    }
+
     /**
      * Returns the value to which the specified key is mapped in LongIntHashTable.
      *
@@ -158,15 +362,31 @@ public class LongIntHashTable {
 
         assert p_key != 0;
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
-
-        iter = getKey(index);
-        while (iter != 0) {
-            if (iter == p_key) {
+        if (m_displacements != null) {
+            index = findRobinHood(p_key);
+            if (index != -1) {
                 ret = getValue(index);
-                break;
             }
-            iter = getKey(++index);
+        } else {
+            index = HashFunctionCollection.hash(p_key) & m_mask;
+
+            iter = getKey(index);
+            while (iter != 0) {
+                if (iter == p_key) {
+                    ret = getValue(index);
+                    break;
+                }
+                index = index + 1 & m_mask;
+                iter = getKey(index);
+            }
+        }
+
+        // The entry might not have been moved yet
+        if (ret == -1 && m_oldTable != null) {
+            index = findOld(p_key);
+            if (index != -1) {
+                ret = getOldValue(index);
+            }
         }
 
         return ret;
@@ -186,7 +406,25 @@ public class LongIntHashTable {
 
         assert p_key != 0;
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
+        if (m_oldTable != null) {
+            migrate(p_key);
+        }
+
+        if (m_displacements != null) {
+            index = findRobinHood(p_key);
+            if (index != -1) {
+                set(index, p_key, p_value);
+            } else {
+                insertRobinHood(p_key, p_value);
+                if (++m_count >= m_elementCapacity * LOAD_FACTOR) {
+                    rehash();
+                }
+            }
+
+            return;
+        }
+
+        index = HashFunctionCollection.hash(p_key) & m_mask;
 
         iter = getKey(index);
         while (iter != 0) {
@@ -194,7 +432,8 @@ public class LongIntHashTable {
                 set(index, p_key, p_value);
                 return;
             }
-            iter = getKey(++index);
+            index = index + 1 & m_mask;
+            iter = getKey(index);
         }
 
         set(index, p_key, p_value);
@@ -220,7 +459,26 @@ public class LongIntHashTable {
 
         assert p_key != 0;
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
+        if (m_oldTable != null) {
+            migrate(p_key);
+        }
+
+        if (m_displacements != null) {
+            index = findRobinHood(p_key);
+            if (index != -1) {
+                ret = getValue(index);
+                set(index, p_key, ret + p_value);
+            } else {
+                insertRobinHood(p_key, p_value);
+                if (++m_count >= m_elementCapacity * LOAD_FACTOR) {
+                    rehash();
+                }
+            }
+
+            return ret;
+        }
+
+        index = HashFunctionCollection.hash(p_key) & m_mask;
 
         iter = getKey(index);
         while (iter != 0) {
@@ -229,7 +487,8 @@ public class LongIntHashTable {
                 set(index, p_key, ret + p_value);
                 break;
             }
-            iter = getKey(++index);
+            index = index + 1 & m_mask;
+            iter = getKey(index);
         }
         if (ret == -1) {
             set(index, p_key, p_value);
@@ -243,12 +502,94 @@ public class LongIntHashTable {
         return ret;
     }
 
+    /**
+     * Removes the given key from LongIntHashTable. The following entries of the probe sequence are shifted back into
+     * the gap (backward-shift deletion), so no tombstones are left behind and probe lengths do not degrade.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @return the value the key was mapped to or -1 if the key was not found
+     */
+    public final int remove(final long p_key) {
+        int ret = -1;
+        long iter;
+        int index;
+
+        assert p_key != 0;
+
+        if (m_oldTable != null) {
+            migrate(p_key);
+        }
+
+        if (m_displacements != null) {
+            index = findRobinHood(p_key);
+            if (index != -1) {
+                ret = getValue(index);
+                shiftBackRobinHood(index);
+                m_count--;
+            }
+
+            return ret;
+        }
+
+        index = HashFunctionCollection.hash(p_key) & m_mask;
+
+        iter = getKey(index);
+        while (iter != 0) {
+            if (iter == p_key) {
+                ret = getValue(index);
+                shiftBack(index);
+                m_count--;
+                break;
+            }
+            index = index + 1 & m_mask;
+            iter = getKey(index);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Counts the entries by their displacement from their home slot. An entry with displacement d is found after
+     * d + 1 probes.
+     *
+     * @return the histogram (index: displacement, value: number of entries)
+     */
+    public int[] probeLengthHistogram() {
+        int[] histogram = new int[16];
+        int displacement;
+        long key;
+
+        finishMigration();
+
+        for (int i = 0; i < m_elementCapacity; i++) {
+            key = getKey(i);
+            if (key != 0) {
+                if (m_displacements != null) {
+                    displacement = m_displacements[i] & 0xFF;
+                } else {
+                    displacement = i - HashFunctionCollection.hash(key) & m_mask;
+                }
+
+                if (displacement >= histogram.length) {
+                    histogram = Arrays.copyOf(histogram, Math.max(displacement + 1, histogram.length * 2));
+                }
+                histogram[displacement]++;
+            }
+        }
+
+        return histogram;
+    }
+
     /**
      * Clears the LongIntHashTable.
      */
     public final void clear() {
         int length = m_table.length;
 
+        m_oldTable = null;
+        m_oldMoved = null;
+
         /* The array and list is never truncated as the maximum number of concurrently accessed
          backup zones is rather low */
 
@@ -268,6 +609,8 @@ public class LongIntHashTable {
      * @return the old long array.
      */
     public final int[] replace() {
+        finishMigration();
+
         int[] newTable = new int[m_table.length];
         int[] oldTable = m_table;
         m_table = newTable;
@@ -280,7 +623,7 @@ public class LongIntHashTable {
      * Sets the key-value tuple at given index.
      *
      * @param p_index
-     *         the index
+     *         the index (less than the capacity)
      * @param p_key
      *         the key
      * @param p_value
@@ -289,7 +632,7 @@ public class LongIntHashTable {
     protected void set(final int p_index, final long p_key, final int p_value) {
         int index;
 
-        index = p_index % m_elementCapacity * 3;
+        index = p_index * 3;
         m_table[index] = (int) (p_key >>> 32);
         m_table[index + 1] = (int) p_key;
         m_table[index + 2] = p_value;
@@ -299,54 +642,316 @@ public class LongIntHashTable {
      * Gets the key at given index.
      *
      * @param p_index
-     *         the index
+     *         the index (less than the capacity)
      * @return the key
      */
     protected long getKey(final int p_index) {
-        return (long) m_table[p_index % m_elementCapacity * 3] << 32 |
-                m_table[p_index % m_elementCapacity * 3 + 1] & 0xFFFFFFFFL;
+        return (long) m_table[p_index * 3] << 32 |
+                m_table[p_index * 3 + 1] & 0xFFFFFFFFL;
     }
 
     /**
      * Gets the value at given index.
      *
      * @param p_index
-     *         the index
+     *         the index (less than the capacity)
      * @return the value
      */
     protected int getValue(final int p_index) {
-        return m_table[p_index % m_elementCapacity * 3 + 2];
+        return m_table[p_index * 3 + 2];
     }
 
     /**
-     * Increases the capacity of and internally reorganizes LongIntHashTable.
+     * Fills the gap at the given index by moving back following entries of the probe sequence whose home slot is
+     * not between the gap and their current slot.
+     *
+     * @param p_index
+     *         the index of the removed entry
      */
-    private void rehash() {
-        int index = 0;
-        int oldCount;
-        int oldElementCapacity;
-        int[] oldTable;
-        int[] newTable;
+    private void shiftBack(final int p_index) {
+        int gap = p_index;
+        int index = p_index;
+        long key;
+
+        while (true) {
+            index = index + 1 & m_mask;
+            key = getKey(index);
+            if (key == 0) {
+                break;
+            }
+
+            // Move the entry if it is at least as far from its home slot as from the gap
+            if ((index - HashFunctionCollection.hash(key) & m_mask) >= (index - gap & m_mask)) {
+                set(gap, key, getValue(index));
+                gap = index;
+            }
+        }
+
+        set(gap, 0, 0);
+    }
+
+    /**
+     * Finds the index of the given key with Robin Hood probing.
+     *
+     * @param p_key
+     *         the key
+     * @return the index or -1 if the key was not found
+     */
+    private int findRobinHood(final long p_key) {
+        int index;
+        int displacement = 0;
+        long iter;
+
+        index = HashFunctionCollection.hash(p_key) & m_mask;
+
+        // An entry closer to its home slot than the key would be means that the key is missing (it would have
+        // taken this slot on insertion)
+        iter = getKey(index);
+        while (iter != 0 && displacement <= (m_displacements[index] & 0xFF)) {
+            if (iter == p_key) {
+                return index;
+            }
+            index = index + 1 & m_mask;
+            displacement++;
+            iter = getKey(index);
+        }
 
+        return -1;
+    }
+
+    /**
+     * Inserts a key which is not in the table with Robin Hood probing. Grows the table if the displacement of an
+     * entry would exceed MAX_DISPLACEMENT.
+     *
+     * @param p_key
+     *         the key
+     * @param p_value
+     *         the value
+     */
+    private void insertRobinHood(final long p_key, final int p_value) {
+        long key = p_key;
+        int value = p_value;
+        int displacement = 0;
+        int index;
+        long iterKey;
+        int iterValue;
+        int iterDisplacement;
+
+        index = HashFunctionCollection.hash(key) & m_mask;
+        while (true) {
+            iterKey = getKey(index);
+            if (iterKey == 0) {
+                set(index, key, value);
+                m_displacements[index] = (byte) displacement;
+                return;
+            }
+
+            iterDisplacement = m_displacements[index] & 0xFF;
+            if (iterDisplacement < displacement) {
+                // Take the slot of the entry closer to its home slot and continue with that entry
+                iterValue = getValue(index);
+                set(index, key, value);
+                m_displacements[index] = (byte) displacement;
+
+                key = iterKey;
+                value = iterValue;
+                displacement = iterDisplacement;
+            }
+
+            index = index + 1 & m_mask;
+            if (++displacement > MAX_DISPLACEMENT) {
+                rehash();
+                insertRobinHood(key, value);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Fills the gap at the given index by moving back the following displaced entries by one slot.
+     *
+     * @param p_index
+     *         the index of the removed entry
+     */
+    private void shiftBackRobinHood(final int p_index) {
+        int gap = p_index;
+        int index = p_index;
+        int displacement;
+        long key;
+
+        while (true) {
+            index = index + 1 & m_mask;
+            key = getKey(index);
+            if (key == 0) {
+                break;
+            }
+
+            displacement = m_displacements[index] & 0xFF;
+            if (displacement == 0) {
+                break;
+            }
+
+            set(gap, key, getValue(index));
+            m_displacements[gap] = (byte) (displacement - 1);
+            gap = index;
+        }
+
+        set(gap, 0, 0);
+        m_displacements[gap] = 0;
+    }
+
+    /**
+     * Doubles the capacity of LongIntHashTable. The entries of the current table are moved by the following write
+     * operations (see migrate()).
+     */
+    private void rehash() {
         LOGGER.trace("Re-hashing (count:  %d)", m_count);
 
-        oldCount = m_count;
-        oldElementCapacity = m_elementCapacity;
-        oldTable = m_table;
+        // At most one previous table
+        finishMigration();
 
-        m_elementCapacity = m_elementCapacity * 2 + 1;
-        newTable = new int[m_elementCapacity * 3];
-        m_table = newTable;
+        m_oldTable = m_table;
+        m_oldCapacity = m_elementCapacity;
+        m_oldMask = m_mask;
+        m_oldMoved = new long[(m_elementCapacity + 63) / 64];
+        m_migrationIndex = 0;
 
-        m_count = 0;
-        while (index < oldElementCapacity) {
-            long key = (long) oldTable[index * 3] << 32 | oldTable[index * 3 + 1] & 0xFFFFFFFFL;
-            if (key != 0) {
-                add(key, oldTable[index * 3 + 2]);
+        m_elementCapacity *= 2;
+        m_mask = m_elementCapacity - 1;
+        m_table = new int[m_elementCapacity * 3];
+        if (m_displacements != null) {
+            m_displacements = new byte[m_elementCapacity];
+        }
+    }
+
+    /**
+     * Moves the next slots of the previous table and the entry of the given key (if it is still in the previous
+     * table), so that a write operation on the key only has to consider the current table.
+     *
+     * @param p_key
+     *         the key
+     */
+    private void migrate(final long p_key) {
+        int index;
+
+        migrateStep();
+
+        if (m_oldTable != null) {
+            index = findOld(p_key);
+            if (index != -1) {
+                m_oldMoved[index >>> 6] |= 1L << index;
+                insertMoved(p_key, getOldValue(index));
+            }
+        }
+    }
+
+    /**
+     * Moves the next MIGRATION_STEP slots of the previous table. Releases the previous table after the last slot.
+     */
+    private void migrateStep() {
+        int end = Math.min(m_migrationIndex + MIGRATION_STEP, m_oldCapacity);
+        int index;
+        long key;
+
+        // The fields are re-read as inserting could start another resize
+        while (m_oldTable != null && m_migrationIndex < end) {
+            index = m_migrationIndex++;
+            key = getOldKey(index);
+            if (key != 0 && (m_oldMoved[index >>> 6] & 1L << index) == 0) {
+                insertMoved(key, getOldValue(index));
+            }
+        }
+
+        if (m_oldTable != null && m_migrationIndex >= m_oldCapacity) {
+            m_oldTable = null;
+            m_oldMoved = null;
+        }
+    }
+
+    /**
+     * Moves all remaining slots of the previous table.
+     */
+    private void finishMigration() {
+        while (m_oldTable != null) {
+            migrateStep();
+        }
+    }
+
+    /**
+     * Finds the index of the given key in the previous table.
+     *
+     * @param p_key
+     *         the key
+     * @return the index or -1 if the key is not in the previous table or was moved already
+     */
+    private int findOld(final long p_key) {
+        int index;
+        int probes = 0;
+        long iter;
+
+        index = HashFunctionCollection.hash(p_key) & m_oldMask;
+
+        iter = getOldKey(index);
+        // Small tables can be full when they grow
+        while (iter != 0 && probes++ < m_oldCapacity) {
+            if (iter == p_key) {
+                if (index < m_migrationIndex || (m_oldMoved[index >>> 6] & 1L << index) != 0) {
+                    return -1;
+                }
+
+                return index;
             }
-            index = (index + 1) % m_elementCapacity;
+            index = index + 1 & m_oldMask;
+            iter = getOldKey(index);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Inserts an entry of the previous table which is not in the current table. The number of entries is unchanged.
+     *
+     * @param p_key
+     *         the key
+     * @param p_value
+     *         the value
+     */
+    private void insertMoved(final long p_key, final int p_value) {
+        int index;
+
+        if (m_displacements != null) {
+            insertRobinHood(p_key, p_value);
+            return;
         }
-        m_count = oldCount;
+
+        index = HashFunctionCollection.hash(p_key) & m_mask;
+        while (getKey(index) != 0) {
+            index = index + 1 & m_mask;
+        }
+        set(index, p_key, p_value);
+    }
+
+    /**
+     * Gets the key at given index of the previous table.
+     *
+     * @param p_index
+     *         the index (less than the previous capacity)
+     * @return the key
+     */
+    private long getOldKey(final int p_index) {
+        return (long) m_oldTable[p_index * 3] << 32 |
+                m_oldTable[p_index * 3 + 1] & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Gets the value at given index of the previous table.
+     *
+     * @param p_index
+     *         the index (less than the previous capacity)
+     * @return the value
+     */
+    private int getOldValue(final int p_index) {
+        return m_oldTable[p_index * 3 + 2];
     }
 
 }
@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Maps long keys to lists of long values without objects per key. The values are stored in fixed-size segments in
+ * a shared long array (arena). Every segment starts with a header (index of the next segment in the upper 32 bits,
+ * number of used slots in the lower 32 bits) followed by the values. The segments of a key are chained in append
+ * order, only the last one is not full. A LongHashTable maps every key to its first and last segment, so appending
+ * is O(1). Segments of removed keys are kept in a free list and reused.
+ * Keys must not be 0. Not thread-safe.
+ */
+public class LongLongMultiMap {
+
+    // Constants
+    private static final int DEFAULT_SEGMENT_SIZE = 8;
+    private static final int INITIAL_SEGMENTS = 64;
+    private static final int NO_SEGMENT = -1;
+
+    // Attributes
+    // key -> first segment << 32 | last segment
+    private final LongHashTable m_index;
+    private final int m_segmentSize;
+    private long[] m_arena;
+    private int m_usedSegments;
+    private int m_freeSegment;
+    private long m_valueCount;
+
+    // Constructors
+
+    /**
+     * Creates an instance of LongLongMultiMap.
+     */
+    public LongLongMultiMap() {
+        this(INITIAL_SEGMENTS, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates an instance of LongLongMultiMap.
+     *
+     * @param p_initialKeys
+     *         the expected number of keys
+     * @param p_segmentSize
+     *         the size of a segment in longs including the header (values per segment + 1)
+     */
+    public LongLongMultiMap(final int p_initialKeys, final int p_segmentSize) {
+        assert p_initialKeys > 0;
+        assert p_segmentSize > 1;
+
+        m_index = new LongHashTable(p_initialKeys);
+        m_segmentSize = p_segmentSize;
+        m_arena = new long[p_initialKeys * p_segmentSize];
+        m_freeSegment = NO_SEGMENT;
+    }
+
+    // Getters
+
+    /**
+     * Returns the number of keys.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return m_index.size();
+    }
+
+    /**
+     * Returns the number of values of all keys.
+     *
+     * @return the number of values
+     */
+    public long valueCount() {
+        return m_valueCount;
+    }
+
+    /**
+     * Returns whether this map is empty or not.
+     *
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return m_index.isEmpty();
+    }
+
+    /**
+     * Returns the size of the arena.
+     *
+     * @return the size in bytes
+     */
+    public long getAllocatedMemory() {
+        return (long) m_arena.length * Long.BYTES;
+    }
+
+    // Methods
+
+    /**
+     * Returns whether values are mapped to the given key.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @return true if the key has at least one value
+     */
+    public boolean containsKey(final long p_key) {
+        return m_index.get(p_key) != -1;
+    }
+
+    /**
+     * Appends a value to the values of the given key.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @param p_value
+     *         the value
+     */
+    public void add(final long p_key, final long p_value) {
+        long segments;
+        int last;
+        int next;
+        long header;
+
+        segments = m_index.get(p_key);
+        if (segments == -1) {
+            last = allocateSegment();
+            m_index.put(p_key, (long) last << 32 | last);
+        } else {
+            last = (int) segments;
+            header = m_arena[last * m_segmentSize];
+
+            // Chain a new segment if the last one is full
+            if ((int) header == m_segmentSize - 1) {
+                next = allocateSegment();
+                m_arena[last * m_segmentSize] = (long) next << 32 | header & 0xFFFFFFFFL;
+                m_index.put(p_key, segments & 0xFFFFFFFF00000000L | next);
+                last = next;
+            }
+        }
+
+        header = m_arena[last * m_segmentSize];
+        m_arena[last * m_segmentSize + 1 + (int) header] = p_value;
+        m_arena[last * m_segmentSize] = header + 1;
+        m_valueCount++;
+    }
+
+    /**
+     * Returns the number of values of the given key.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @return the number of values (0 if the key is not mapped)
+     */
+    public int count(final long p_key) {
+        long segments = m_index.get(p_key);
+
+        return segments != -1 ? countValues(segments) : 0;
+    }
+
+    /**
+     * Passes the values of the given key in append order to the given consumer.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @param p_consumer
+     *         the consumer
+     */
+    public void forEach(final long p_key, final LongConsumer p_consumer) {
+        long segments;
+        int segment;
+        long header;
+        int offset;
+
+        segments = m_index.get(p_key);
+        if (segments == -1) {
+            return;
+        }
+
+        segment = (int) (segments >>> 32);
+        while (segment != NO_SEGMENT) {
+            offset = segment * m_segmentSize;
+            header = m_arena[offset];
+            for (int i = 1; i <= (int) header; i++) {
+                p_consumer.accept(m_arena[offset + i]);
+            }
+            segment = (int) (header >> 32);
+        }
+    }
+
+    /**
+     * Passes all key-value tuples to the given consumer (the values of a key in append order).
+     *
+     * @param p_consumer
+     *         the consumer
+     */
+    public void forEach(final LongLongConsumer p_consumer) {
+        m_index.forEach((p_key, p_segments) -> {
+            int segment = (int) (p_segments >>> 32);
+            long header;
+
+            while (segment != NO_SEGMENT) {
+                header = m_arena[segment * m_segmentSize];
+                for (int i = 1; i <= (int) header; i++) {
+                    p_consumer.accept(p_key, m_arena[segment * m_segmentSize + i]);
+                }
+                segment = (int) (header >> 32);
+            }
+        });
+    }
+
+    /**
+     * Copies the values of the given key in append order to the given array.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @param p_array
+     *         the array (at least p_offset + count(p_key) elements)
+     * @param p_offset
+     *         the index of the first value
+     * @return the number of copied values
+     */
+    public int copyValues(final long p_key, final long[] p_array, final int p_offset) {
+        long segments;
+        int segment;
+        long header;
+        int index = p_offset;
+
+        segments = m_index.get(p_key);
+        if (segments == -1) {
+            return 0;
+        }
+
+        segment = (int) (segments >>> 32);
+        while (segment != NO_SEGMENT) {
+            header = m_arena[segment * m_segmentSize];
+            System.arraycopy(m_arena, segment * m_segmentSize + 1, p_array, index, (int) header);
+            index += (int) header;
+            segment = (int) (header >> 32);
+        }
+
+        return index - p_offset;
+    }
+
+    /**
+     * Removes the given key with all its values. The segments are reused for other keys.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @return the number of removed values (0 if the key was not mapped)
+     */
+    public int remove(final long p_key) {
+        long segments;
+        int first;
+        int last;
+        int ret;
+
+        segments = m_index.remove(p_key);
+        if (segments == -1) {
+            return 0;
+        }
+
+        ret = countValues(segments);
+
+        // Prepend the whole chain to the free list
+        first = (int) (segments >>> 32);
+        last = (int) segments;
+        m_arena[last * m_segmentSize] = (long) m_freeSegment << 32;
+        m_freeSegment = first;
+        m_valueCount -= ret;
+
+        return ret;
+    }
+
+    /**
+     * Removes all keys and values. The arena is kept.
+     */
+    public void clear() {
+        m_index.clear();
+        m_usedSegments = 0;
+        m_freeSegment = NO_SEGMENT;
+        m_valueCount = 0;
+    }
+
+    /**
+     * Counts the values of a chain.
+     *
+     * @param p_segments
+     *         the first segment in the upper and the last segment in the lower 32 bits
+     * @return the number of values
+     */
+    private int countValues(final long p_segments) {
+        int segment = (int) (p_segments >>> 32);
+        int ret = 0;
+
+        // All segments but the last one are full
+        while (segment != (int) p_segments) {
+            ret += m_segmentSize - 1;
+            segment = (int) (m_arena[segment * m_segmentSize] >> 32);
+        }
+
+        return ret + (int) m_arena[segment * m_segmentSize];
+    }
+
+    /**
+     * Takes a segment from the free list or from the end of the arena (which is grown if necessary).
+     *
+     * @return the index of the empty segment
+     */
+    private int allocateSegment() {
+        int ret;
+
+        if (m_freeSegment != NO_SEGMENT) {
+            ret = m_freeSegment;
+            m_freeSegment = (int) (m_arena[ret * m_segmentSize] >> 32);
+        } else {
+            if ((long) (m_usedSegments + 1) * m_segmentSize > m_arena.length) {
+                long length = Math.min((long) m_arena.length * 2, Integer.MAX_VALUE - 8);
+                if ((long) (m_usedSegments + 1) * m_segmentSize > length) {
+                    throw new IllegalStateException("LongLongMultiMap is full");
+                }
+                m_arena = Arrays.copyOf(m_arena, (int) length);
+            }
+            ret = m_usedSegments++;
+        }
+
+        m_arena[ret * m_segmentSize] = (long) NO_SEGMENT << 32;
+
+        return ret;
+    }
+
+}
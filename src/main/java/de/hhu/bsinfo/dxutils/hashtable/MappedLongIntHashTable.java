@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view on a LongIntHashTable exported with exportObject() (e.g. to a file). Lookups are served directly from
+ * the buffer, so a memory-mapped file can be used right away without importing or re-hashing the entries.
+ * The byte order of the buffer must be the one of the exporter (big-endian for RandomAccessFileImExporter and
+ * ByteBufferImExporter with the default order). Tables exported in Robin Hood mode are probed linearly, which is
+ * valid as no entry is moved past an empty slot. A ByteBuffer limits the exported table to 2 GB.
+ */
+public class MappedLongIntHashTable {
+
+    // Constants
+    // capacity, size and Robin Hood flag
+    private static final int HEADER_SIZE = Integer.BYTES * 2 + 1;
+    // key and value are stored as three ints one after another
+    private static final int SLOT_SIZE = Integer.BYTES * 3;
+
+    // Attributes
+    private final ByteBuffer m_buffer;
+    private final int m_offset;
+    private final int m_elementCapacity;
+    private final int m_mask;
+    private final int m_count;
+
+    // Constructors
+
+    /**
+     * Creates an instance of MappedLongIntHashTable.
+     *
+     * @param p_buffer
+     *         the buffer with an exported LongIntHashTable at its current position
+     */
+    public MappedLongIntHashTable(final ByteBuffer p_buffer) {
+        m_buffer = p_buffer;
+        m_elementCapacity = p_buffer.getInt(p_buffer.position());
+        m_count = p_buffer.getInt(p_buffer.position() + Integer.BYTES);
+        m_mask = m_elementCapacity - 1;
+        m_offset = p_buffer.position() + HEADER_SIZE;
+
+        assert Integer.bitCount(m_elementCapacity) == 1;
+        assert p_buffer.limit() - m_offset >= (long) m_elementCapacity * SLOT_SIZE;
+    }
+
+    /**
+     * Maps a file with an exported LongIntHashTable (read-only). The mapping stays valid after the file is closed.
+     *
+     * @param p_file
+     *         the file
+     * @return the table
+     * @throws IOException
+     *         if the file cannot be mapped
+     */
+    public static MappedLongIntHashTable map(final File p_file) throws IOException {
+        try (FileChannel channel = FileChannel.open(p_file.toPath(), StandardOpenOption.READ)) {
+            return new MappedLongIntHashTable(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // Getters
+
+    /**
+     * Returns the size.
+     *
+     * @return the number of entries in the hash table
+     */
+    public int size() {
+        return m_count;
+    }
+
+    /**
+     * Returns the capacity.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return m_elementCapacity;
+    }
+
+    /**
+     * Returns whether this hash table is empty or not.
+     *
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return m_count == 0;
+    }
+
+    // Methods
+
+    /**
+     * Returns the value to which the specified key is mapped.
+     *
+     * @param p_key
+     *         the searched key (must not be 0)
+     * @return the value to which the key is mapped or -1 if the key is not mapped
+     */
+    public int get(final long p_key) {
+        int ret = -1;
+        long iter;
+        int index;
+
+        assert p_key != 0;
+
+        index = HashFunctionCollection.hash(p_key) & m_mask;
+
+        iter = getKey(index);
+        while (iter != 0) {
+            if (iter == p_key) {
+                ret = getValue(index);
+                break;
+            }
+            index = index + 1 & m_mask;
+            iter = getKey(index);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Passes all entries to the given consumer.
+     *
+     * @param p_consumer
+     *         the consumer
+     */
+    public void forEach(final LongIntConsumer p_consumer) {
+        long key;
+
+        for (int i = 0; i < m_elementCapacity; i++) {
+            key = getKey(i);
+            if (key != 0) {
+                p_consumer.accept(key, getValue(i));
+            }
+        }
+    }
+
+    /**
+     * Gets the key at given index.
+     *
+     * @param p_index
+     *         the index (less than the capacity)
+     * @return the key
+     */
+    private long getKey(final int p_index) {
+        int address = m_offset + p_index * SLOT_SIZE;
+
+        return (long) m_buffer.getInt(address) << 32 | m_buffer.getInt(address + Integer.BYTES) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Gets the value at given index.
+     *
+     * @param p_index
+     *         the index (less than the capacity)
+     * @return the value
+     */
+    private int getValue(final int p_index) {
+        int address = m_offset + p_index * SLOT_SIZE;
+
+        return m_buffer.getInt(address + Integer.BYTES * 2);
+    }
+
+}
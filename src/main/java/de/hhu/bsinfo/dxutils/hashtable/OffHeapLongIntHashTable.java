@@ -0,0 +1,455 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.hhu.bsinfo.dxutils.UnsafeMemory;
+import de.hhu.bsinfo.dxutils.serialization.Exporter;
+
+/**
+ * Stores key-value tuples whereas keys are longs and values ints, like LongIntHashTable, but the slots are stored
+ * off-heap in memory allocated with UnsafeMemory. The garbage collector never scans or copies the slots and the
+ * capacity is not limited by the maximum array length (more than 2^31 slots are possible).
+ * The capacity is always a power of two. Linear probing, removed entries are deleted with backward-shift.
+ * Not thread-safe. The memory must be released with free() (or close()).
+ */
+public class OffHeapLongIntHashTable implements AutoCloseable {
+
+    // Constants
+    private static final Logger LOGGER = LogManager.getFormatterLogger(OffHeapLongIntHashTable.class.getSimpleName());
+
+    private static final long INITIAL_SIZE = 128;
+    private static final float LOAD_FACTOR = 0.9f;
+    // key (8 bytes) and value (4 bytes) are stored one after another
+    private static final int SLOT_SIZE = Long.BYTES + Integer.BYTES;
+
+    // Attributes
+    private long m_address;
+    private long m_elementCapacity;
+    private long m_mask;
+    private long m_threshold;
+    private long m_count;
+
+    // Constructors
+
+    /**
+     * Creates an instance of OffHeapLongIntHashTable.
+     */
+    public OffHeapLongIntHashTable() {
+        this(INITIAL_SIZE);
+    }
+
+    /**
+     * Creates an instance of OffHeapLongIntHashTable.
+     *
+     * @param p_initialSize
+     *         the initial size (rounded up to the next power of two)
+     */
+    public OffHeapLongIntHashTable(final long p_initialSize) {
+        assert p_initialSize > 0;
+
+        allocate(HashFunctionCollection.tableSize(p_initialSize));
+    }
+
+    // Getters
+
+    /**
+     * Returns the size.
+     *
+     * @return the number of entries in the hash table
+     */
+    public long size() {
+        return m_count;
+    }
+
+    /**
+     * Returns the capacity.
+     *
+     * @return the capacity
+     */
+    public long capacity() {
+        return m_elementCapacity;
+    }
+
+    /**
+     * Returns whether this hash table is empty or not.
+     *
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return m_count == 0;
+    }
+
+    /**
+     * Returns the size of the off-heap memory.
+     *
+     * @return the size in bytes
+     */
+    public long getAllocatedMemory() {
+        return m_elementCapacity * SLOT_SIZE;
+    }
+
+    // Methods
+
+    /**
+     * Returns the value to which the specified key is mapped in OffHeapLongIntHashTable.
+     *
+     * @param p_key
+     *         the searched key (must not be 0)
+     * @return the value to which the key is mapped or -1 if the key is not mapped
+     */
+    public final int get(final long p_key) {
+        int ret = -1;
+        long iter;
+        long index;
+
+        assert p_key != 0;
+
+        index = HashFunctionCollection.hash64(p_key) & m_mask;
+
+        iter = getKey(index);
+        while (iter != 0) {
+            if (iter == p_key) {
+                ret = getValue(index);
+                break;
+            }
+            index = index + 1 & m_mask;
+            iter = getKey(index);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Maps the given key to the given value in OffHeapLongIntHashTable.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @param p_value
+     *         the value
+     */
+    public final void put(final long p_key, final int p_value) {
+        long iter;
+        long index;
+
+        assert p_key != 0;
+
+        index = HashFunctionCollection.hash64(p_key) & m_mask;
+
+        iter = getKey(index);
+        while (iter != 0) {
+            if (iter == p_key) {
+                setValue(index, p_value);
+                return;
+            }
+            index = index + 1 & m_mask;
+            iter = getKey(index);
+        }
+
+        set(index, p_key, p_value);
+        if (++m_count >= m_threshold) {
+            rehash();
+        }
+    }
+
+    /**
+     * Maps the given key to the given value in OffHeapLongIntHashTable.
+     * If the key already exists given value is added to old value.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @param p_value
+     *         the value
+     * @return the old value or -1 if the key was not mapped
+     */
+    public final int add(final long p_key, final int p_value) {
+        int ret;
+        long iter;
+        long index;
+
+        assert p_key != 0;
+
+        index = HashFunctionCollection.hash64(p_key) & m_mask;
+
+        iter = getKey(index);
+        while (iter != 0) {
+            if (iter == p_key) {
+                ret = getValue(index);
+                setValue(index, ret + p_value);
+                return ret;
+            }
+            index = index + 1 & m_mask;
+            iter = getKey(index);
+        }
+
+        set(index, p_key, p_value);
+        if (++m_count >= m_threshold) {
+            rehash();
+        }
+
+        return -1;
+    }
+
+    /**
+     * Removes the given key from OffHeapLongIntHashTable with backward-shift deletion.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @return the value the key was mapped to or -1 if the key was not found
+     */
+    public final int remove(final long p_key) {
+        int ret = -1;
+        long iter;
+        long index;
+
+        assert p_key != 0;
+
+        index = HashFunctionCollection.hash64(p_key) & m_mask;
+
+        iter = getKey(index);
+        while (iter != 0) {
+            if (iter == p_key) {
+                ret = getValue(index);
+                shiftBack(index);
+                m_count--;
+                break;
+            }
+            index = index + 1 & m_mask;
+            iter = getKey(index);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Passes all entries to the given consumer. The table must not be modified meanwhile.
+     *
+     * @param p_consumer
+     *         the consumer
+     */
+    public void forEach(final LongIntConsumer p_consumer) {
+        long key;
+
+        for (long i = 0; i < m_elementCapacity; i++) {
+            key = getKey(i);
+            if (key != 0) {
+                p_consumer.accept(key, getValue(i));
+            }
+        }
+    }
+
+    /**
+     * Copies all keys and values to the given arrays. The value of a key is stored at the same index as the key.
+     *
+     * @param p_keys
+     *         the array for the keys (at least p_offset + size() elements) or null to skip the keys
+     * @param p_values
+     *         the array for the values (at least p_offset + size() elements) or null to skip the values
+     * @param p_offset
+     *         the index of the first entry in both arrays
+     * @return the number of copied entries
+     */
+    public int exportEntries(final long[] p_keys, final int[] p_values, final int p_offset) {
+        int index = p_offset;
+        long key;
+
+        assert p_keys == null || p_keys.length >= p_offset + m_count;
+        assert p_values == null || p_values.length >= p_offset + m_count;
+
+        for (long i = 0; i < m_elementCapacity; i++) {
+            key = getKey(i);
+            if (key != 0) {
+                if (p_keys != null) {
+                    p_keys[index] = key;
+                }
+                if (p_values != null) {
+                    p_values[index] = getValue(i);
+                }
+                index++;
+            }
+        }
+
+        return index - p_offset;
+    }
+
+    /**
+     * Writes the number of entries (as long) followed by all key-value tuples to the given exporter.
+     *
+     * @param p_exporter
+     *         the exporter
+     */
+    public void exportEntries(final Exporter p_exporter) {
+        p_exporter.writeLong(m_count);
+        forEach((p_key, p_value) -> {
+            p_exporter.writeLong(p_key);
+            p_exporter.writeInt(p_value);
+        });
+    }
+
+    /**
+     * Clears the OffHeapLongIntHashTable. The memory is kept.
+     */
+    public final void clear() {
+        UnsafeMemory.set(m_address, m_elementCapacity * SLOT_SIZE, (byte) 0);
+        m_count = 0;
+    }
+
+    /**
+     * Releases the off-heap memory. The table must not be used afterwards.
+     */
+    public final void free() {
+        if (m_address != 0) {
+            UnsafeMemory.free(m_address);
+            m_address = 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        free();
+    }
+
+    /**
+     * Allocates and clears the slots.
+     *
+     * @param p_capacity
+     *         the number of slots (power of two)
+     */
+    private void allocate(final long p_capacity) {
+        m_elementCapacity = p_capacity;
+        m_mask = p_capacity - 1;
+        m_threshold = (long) (p_capacity * (double) LOAD_FACTOR);
+        m_count = 0;
+
+        m_address = UnsafeMemory.allocate(p_capacity * SLOT_SIZE);
+        UnsafeMemory.set(m_address, p_capacity * SLOT_SIZE, (byte) 0);
+    }
+
+    /**
+     * Sets the key-value tuple at given index.
+     *
+     * @param p_index
+     *         the index (less than the capacity)
+     * @param p_key
+     *         the key
+     * @param p_value
+     *         the value
+     */
+    private void set(final long p_index, final long p_key, final int p_value) {
+        long address = m_address + p_index * SLOT_SIZE;
+
+        UnsafeMemory.writeLong(address, p_key);
+        UnsafeMemory.writeInt(address + Long.BYTES, p_value);
+    }
+
+    /**
+     * Sets the value at given index.
+     *
+     * @param p_index
+     *         the index (less than the capacity)
+     * @param p_value
+     *         the value
+     */
+    private void setValue(final long p_index, final int p_value) {
+        UnsafeMemory.writeInt(m_address + p_index * SLOT_SIZE + Long.BYTES, p_value);
+    }
+
+    /**
+     * Gets the key at given index.
+     *
+     * @param p_index
+     *         the index (less than the capacity)
+     * @return the key
+     */
+    private long getKey(final long p_index) {
+        return UnsafeMemory.readLong(m_address + p_index * SLOT_SIZE);
+    }
+
+    /**
+     * Gets the value at given index.
+     *
+     * @param p_index
+     *         the index (less than the capacity)
+     * @return the value
+     */
+    private int getValue(final long p_index) {
+        return UnsafeMemory.readInt(m_address + p_index * SLOT_SIZE + Long.BYTES);
+    }
+
+    /**
+     * Fills the gap at the given index by moving back following entries of the probe sequence whose home slot is
+     * not between the gap and their current slot.
+     *
+     * @param p_index
+     *         the index of the removed entry
+     */
+    private void shiftBack(final long p_index) {
+        long gap = p_index;
+        long index = p_index;
+        long key;
+
+        while (true) {
+            index = index + 1 & m_mask;
+            key = getKey(index);
+            if (key == 0) {
+                break;
+            }
+
+            // Move the entry if it is at least as far from its home slot as from the gap
+            if ((index - HashFunctionCollection.hash64(key) & m_mask) >= (index - gap & m_mask)) {
+                set(gap, key, getValue(index));
+                gap = index;
+            }
+        }
+
+        set(gap, 0, 0);
+    }
+
+    /**
+     * Doubles the capacity of OffHeapLongIntHashTable and re-inserts all entries. The old memory is released.
+     */
+    private void rehash() {
+        long oldAddress = m_address;
+        long oldCapacity = m_elementCapacity;
+        long oldCount = m_count;
+        long address;
+        long key;
+        long index;
+
+        LOGGER.trace("Re-hashing (count:  %d)", m_count);
+
+        allocate(oldCapacity * 2);
+
+        for (long i = 0; i < oldCapacity; i++) {
+            address = oldAddress + i * SLOT_SIZE;
+            key = UnsafeMemory.readLong(address);
+            if (key != 0) {
+                index = HashFunctionCollection.hash64(key) & m_mask;
+                while (getKey(index) != 0) {
+                    index = index + 1 & m_mask;
+                }
+                set(index, key, UnsafeMemory.readInt(address + Long.BYTES));
+            }
+        }
+        m_count = oldCount;
+
+        UnsafeMemory.free(oldAddress);
+    }
+
+}
@@ -0,0 +1,827 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils.serialization;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Implementation of an Importer/Exporter which streams an object through a sequence of fixed-size ByteBuffers, so
+ * the buffers do not have to hold the whole object. Every call of exportObject/importObject runs the export/import
+ * of the object again and transfers the bytes of the stream which fit into the current buffer. Bytes transferred
+ * with previous buffers are skipped, the only state kept between the buffers is the position in the stream (and the
+ * first bytes of a primitive split between two buffers when importing). isFinished() tells whether the object is
+ * complete or if the next buffer is needed:
+ * <pre>
+ * do {
+ *     buffer.clear();
+ *     imExporter.setBuffer(buffer);
+ *     imExporter.exportObject(object);
+ *     buffer.flip();
+ *     channel.write(buffer);
+ * } while (!imExporter.isFinished());
+ * </pre>
+ * The byte stream is the same as with ByteBufferImExporter (big-endian). The object must not be modified until it
+ * is finished. When importing, the object must pass the values it already imported as parameters to the read
+ * methods (e.g. m_value = p_importer.readInt(m_value)) and keep imported arrays, because already read values are
+ * not read again but returned from the parameters. A pass ending before the bytes transferred with previous buffers
+ * (the object was modified or does not resume its import) aborts the object with a RuntimeException.
+ */
+public class ChunkedByteBufferImExporter implements Importer, Exporter {
+    private ByteBuffer m_buffer;
+    // Position in the stream of the current object up to which the bytes have been transferred
+    private long m_done;
+    // Position in the stream after the last byte of the current buffer
+    private long m_limit;
+    // Position in the stream of the current export/import pass
+    private long m_position;
+    // First bytes of a primitive or compact number which is split between two buffers (import only)
+    private long m_partial;
+    private long m_partialPosition = -1;
+    private boolean m_finished = true;
+
+    /**
+     * Constructor
+     */
+    public ChunkedByteBufferImExporter() {
+    }
+
+    /**
+     * Constructor
+     *
+     * @param p_buffer
+     *         First buffer to write to/read from.
+     */
+    public ChunkedByteBufferImExporter(final ByteBuffer p_buffer) {
+        setBuffer(p_buffer);
+    }
+
+    /**
+     * Set the buffer to write to/read from with the next call of exportObject/importObject. The buffer is filled/read
+     * starting at its position up to its limit.
+     *
+     * @param p_buffer
+     *         Buffer to write to/read from.
+     */
+    public void setBuffer(final ByteBuffer p_buffer) {
+        m_buffer = p_buffer;
+        m_buffer.order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Check if the last exportObject/importObject call transferred the rest of the object. Otherwise, the call has to
+     * be repeated with the next buffer.
+     *
+     * @return True if the object is complete, false if the buffer was too small
+     */
+    public boolean isFinished() {
+        return m_finished;
+    }
+
+    /**
+     * Get the number of bytes of the current object transferred with previous buffers
+     *
+     * @return Number of bytes
+     */
+    public long getTransferredBytes() {
+        return m_done;
+    }
+
+    /**
+     * Abort the current object. The next exportObject/importObject call starts a new object.
+     */
+    public void reset() {
+        m_done = 0;
+        m_partial = 0;
+        m_partialPosition = -1;
+        m_finished = true;
+    }
+
+    @Override
+    public long skipWrite(final long p_length, final int p_size) {
+        return skip(p_length, p_size);
+    }
+
+    @Override
+    public long skipRead(final long p_length, final int p_size) {
+        return skip(p_length, p_size);
+    }
+
+    @Override
+    public void exportObject(final Exportable p_object) {
+        startPass();
+        p_object.exportObject(this);
+        finishPass();
+    }
+
+    @Override
+    public void importObject(final Importable p_object) {
+        startPass();
+        p_object.importObject(this);
+        finishPass();
+    }
+
+    @Override
+    public void writeBoolean(final boolean p_v) {
+        put(p_v ? 1 : 0, 1);
+    }
+
+    @Override
+    public void writeByte(final byte p_v) {
+        put(p_v, 1);
+    }
+
+    @Override
+    public void writeShort(final short p_v) {
+        put(p_v, 2);
+    }
+
+    @Override
+    public void writeChar(final char p_v) {
+        put(p_v, 2);
+    }
+
+    @Override
+    public void writeInt(final int p_v) {
+        put(p_v, 4);
+    }
+
+    @Override
+    public void writeLong(final long p_v) {
+        put(p_v, 8);
+    }
+
+    @Override
+    public void writeFloat(final float p_v) {
+        put(Float.floatToRawIntBits(p_v), 4);
+    }
+
+    @Override
+    public void writeDouble(final double p_v) {
+        put(Double.doubleToRawLongBits(p_v), 8);
+    }
+
+    @Override
+    public void writeCompactNumber(final int p_v) {
+        writeBytes(CompactNumber.compact(p_v));
+    }
+
+    @Override
+    public void writeString(final String p_str) {
+        writeByteArray(p_str.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public int writeBytes(final byte[] p_array) {
+        return writeBytes(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeBytes(final byte[] p_array, final int p_offset, final int p_length) {
+        long start = Math.max(m_position, m_done);
+        long end = Math.min(m_position + p_length, m_limit);
+
+        if (end > start) {
+            m_buffer.put(p_array, (int) (p_offset + start - m_position), (int) (end - start));
+        }
+        m_position += p_length;
+
+        return p_length;
+    }
+
+    @Override
+    public int writeShorts(final short[] p_array) {
+        return writeShorts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeShorts(final short[] p_array, final int p_offset, final int p_length) {
+        int i = skipElements(p_length, 2);
+
+        for (; i < p_length && m_position < m_limit; i++) {
+            put(p_array[p_offset + i], 2);
+        }
+        m_position += (long) (p_length - i) * 2;
+
+        return p_length;
+    }
+
+    @Override
+    public int writeChars(final char[] p_array) {
+        return writeChars(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeChars(final char[] p_array, final int p_offset, final int p_length) {
+        int i = skipElements(p_length, 2);
+
+        for (; i < p_length && m_position < m_limit; i++) {
+            put(p_array[p_offset + i], 2);
+        }
+        m_position += (long) (p_length - i) * 2;
+
+        return p_length;
+    }
+
+    @Override
+    public int writeInts(final int[] p_array) {
+        return writeInts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeInts(final int[] p_array, final int p_offset, final int p_length) {
+        int i = skipElements(p_length, 4);
+
+        for (; i < p_length && m_position < m_limit; i++) {
+            put(p_array[p_offset + i], 4);
+        }
+        m_position += (long) (p_length - i) * 4;
+
+        return p_length;
+    }
+
+    @Override
+    public int writeLongs(final long[] p_array) {
+        return writeLongs(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeLongs(final long[] p_array, final int p_offset, final int p_length) {
+        int i = skipElements(p_length, 8);
+
+        for (; i < p_length && m_position < m_limit; i++) {
+            put(p_array[p_offset + i], 8);
+        }
+        m_position += (long) (p_length - i) * 8;
+
+        return p_length;
+    }
+
+    @Override
+    public int writeFloats(final float[] p_array) {
+        return writeFloats(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeFloats(final float[] p_array, final int p_offset, final int p_length) {
+        int i = skipElements(p_length, 4);
+
+        for (; i < p_length && m_position < m_limit; i++) {
+            put(Float.floatToRawIntBits(p_array[p_offset + i]), 4);
+        }
+        m_position += (long) (p_length - i) * 4;
+
+        return p_length;
+    }
+
+    @Override
+    public int writeDoubles(final double[] p_array) {
+        return writeDoubles(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeDoubles(final double[] p_array, final int p_offset, final int p_length) {
+        int i = skipElements(p_length, 8);
+
+        for (; i < p_length && m_position < m_limit; i++) {
+            put(Double.doubleToRawLongBits(p_array[p_offset + i]), 8);
+        }
+        m_position += (long) (p_length - i) * 8;
+
+        return p_length;
+    }
+
+    @Override
+    public void writeByteArray(final byte[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeBytes(p_array);
+    }
+
+    @Override
+    public void writeShortArray(final short[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeShorts(p_array);
+    }
+
+    @Override
+    public void writeCharArray(final char[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeChars(p_array);
+    }
+
+    @Override
+    public void writeIntArray(final int[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeInts(p_array);
+    }
+
+    @Override
+    public void writeLongArray(final long[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeLongs(p_array);
+    }
+
+    @Override
+    public void writeFloatArray(final float[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeFloats(p_array);
+    }
+
+    @Override
+    public void writeDoubleArray(final double[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeDoubles(p_array);
+    }
+
+    @Override
+    public boolean readBoolean(final boolean p_bool) {
+        return get(p_bool ? 1 : 0, 1) == 1;
+    }
+
+    @Override
+    public byte readByte(final byte p_byte) {
+        return (byte) get(p_byte, 1);
+    }
+
+    @Override
+    public short readShort(final short p_short) {
+        return (short) get(p_short, 2);
+    }
+
+    @Override
+    public char readChar(final char p_char) {
+        return (char) get(p_char, 2);
+    }
+
+    @Override
+    public int readInt(final int p_int) {
+        return (int) get(p_int, 4);
+    }
+
+    @Override
+    public long readLong(final long p_long) {
+        return get(p_long, 8);
+    }
+
+    @Override
+    public float readFloat(final float p_float) {
+        return Float.intBitsToFloat((int) get(Float.floatToRawIntBits(p_float), 4));
+    }
+
+    @Override
+    public double readDouble(final double p_double) {
+        return Double.longBitsToDouble(get(Double.doubleToRawLongBits(p_double), 8));
+    }
+
+    @Override
+    public int readCompactNumber(final int p_int) {
+        long start = m_position;
+        byte[] previous = null;
+        long bytes = 0;
+        int ret = 0;
+        int i;
+
+        if (start != m_partialPosition) {
+            // The bytes of the number if it was read with a previous buffer
+            previous = p_int >= 0 && p_int <= 0xFFFFFFF ? CompactNumber.compact(p_int) : new byte[0];
+        }
+
+        for (i = 0; i < Integer.BYTES; i++) {
+            byte b;
+            if (previous != null) {
+                b = readByte(i < previous.length ? previous[i] : 0);
+            } else {
+                b = readByte((byte) (m_partial >>> (i << 3)));
+            }
+
+            if (m_position > m_limit) {
+                if (start < m_limit) {
+                    // Keep the bytes read so far for the next buffer
+                    m_partial = bytes;
+                    m_partialPosition = start;
+                }
+                break;
+            }
+
+            bytes |= (b & 0xFFL) << (i << 3);
+            ret += (b & 0x7F) << i * 7;
+            if ((b & 0x80) == 0) {
+                if (previous == null) {
+                    // The split number is complete, read it from the parameter next time
+                    m_partialPosition = -1;
+                }
+                break;
+            }
+        }
+
+        return ret;
+    }
+
+    @Override
+    public String readString(final String p_string) {
+        byte[] previous = p_string != null ? p_string.getBytes(StandardCharsets.US_ASCII) : null;
+
+        return new String(readByteArray(previous), StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public int readBytes(final byte[] p_array) {
+        return readBytes(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readBytes(final byte[] p_array, final int p_offset, final int p_length) {
+        long start = Math.max(m_position, m_done);
+        long end = Math.min(m_position + p_length, m_limit);
+
+        if (end > start) {
+            m_buffer.get(p_array, (int) (p_offset + start - m_position), (int) (end - start));
+        }
+        m_position += p_length;
+
+        return p_length;
+    }
+
+    @Override
+    public int readShorts(final short[] p_array) {
+        return readShorts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readShorts(final short[] p_array, final int p_offset, final int p_length) {
+        int i = skipElements(p_length, 2);
+
+        for (; i < p_length && m_position < m_limit; i++) {
+            p_array[p_offset + i] = (short) get(p_array[p_offset + i], 2);
+        }
+        m_position += (long) (p_length - i) * 2;
+
+        return p_length;
+    }
+
+    @Override
+    public int readChars(final char[] p_array) {
+        return readChars(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readChars(final char[] p_array, final int p_offset, final int p_length) {
+        int i = skipElements(p_length, 2);
+
+        for (; i < p_length && m_position < m_limit; i++) {
+            p_array[p_offset + i] = (char) get(p_array[p_offset + i], 2);
+        }
+        m_position += (long) (p_length - i) * 2;
+
+        return p_length;
+    }
+
+    @Override
+    public int readInts(final int[] p_array) {
+        return readInts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readInts(final int[] p_array, final int p_offset, final int p_length) {
+        int i = skipElements(p_length, 4);
+
+        for (; i < p_length && m_position < m_limit; i++) {
+            p_array[p_offset + i] = (int) get(p_array[p_offset + i], 4);
+        }
+        m_position += (long) (p_length - i) * 4;
+
+        return p_length;
+    }
+
+    @Override
+    public int readLongs(final long[] p_array) {
+        return readLongs(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readLongs(final long[] p_array, final int p_offset, final int p_length) {
+        int i = skipElements(p_length, 8);
+
+        for (; i < p_length && m_position < m_limit; i++) {
+            p_array[p_offset + i] = get(p_array[p_offset + i], 8);
+        }
+        m_position += (long) (p_length - i) * 8;
+
+        return p_length;
+    }
+
+    @Override
+    public int readFloats(final float[] p_array) {
+        return readFloats(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readFloats(final float[] p_array, final int p_offset, final int p_length) {
+        int i = skipElements(p_length, 4);
+
+        for (; i < p_length && m_position < m_limit; i++) {
+            p_array[p_offset + i] = Float.intBitsToFloat((int) get(Float.floatToRawIntBits(p_array[p_offset + i]), 4));
+        }
+        m_position += (long) (p_length - i) * 4;
+
+        return p_length;
+    }
+
+    @Override
+    public int readDoubles(final double[] p_array) {
+        return readDoubles(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readDoubles(final double[] p_array, final int p_offset, final int p_length) {
+        int i = skipElements(p_length, 8);
+
+        for (; i < p_length && m_position < m_limit; i++) {
+            p_array[p_offset + i] = Double.longBitsToDouble(get(Double.doubleToRawLongBits(p_array[p_offset + i]), 8));
+        }
+        m_position += (long) (p_length - i) * 8;
+
+        return p_length;
+    }
+
+    @Override
+    public byte[] readByteArray(final byte[] p_array) {
+        int length = readCompactNumber(p_array != null ? p_array.length : 0);
+        byte[] arr;
+
+        if (m_position > m_limit) {
+            // The length is incomplete
+            return p_array != null ? p_array : new byte[0];
+        }
+
+        arr = p_array != null && p_array.length == length ? p_array : new byte[length];
+        readBytes(arr);
+
+        return arr;
+    }
+
+    @Override
+    public short[] readShortArray(final short[] p_array) {
+        int length = readCompactNumber(p_array != null ? p_array.length : 0);
+        short[] arr;
+
+        if (m_position > m_limit) {
+            // The length is incomplete
+            return p_array != null ? p_array : new short[0];
+        }
+
+        arr = p_array != null && p_array.length == length ? p_array : new short[length];
+        readShorts(arr);
+
+        return arr;
+    }
+
+    @Override
+    public char[] readCharArray(final char[] p_array) {
+        int length = readCompactNumber(p_array != null ? p_array.length : 0);
+        char[] arr;
+
+        if (m_position > m_limit) {
+            // The length is incomplete
+            return p_array != null ? p_array : new char[0];
+        }
+
+        arr = p_array != null && p_array.length == length ? p_array : new char[length];
+        readChars(arr);
+
+        return arr;
+    }
+
+    @Override
+    public int[] readIntArray(final int[] p_array) {
+        int length = readCompactNumber(p_array != null ? p_array.length : 0);
+        int[] arr;
+
+        if (m_position > m_limit) {
+            // The length is incomplete
+            return p_array != null ? p_array : new int[0];
+        }
+
+        arr = p_array != null && p_array.length == length ? p_array : new int[length];
+        readInts(arr);
+
+        return arr;
+    }
+
+    @Override
+    public long[] readLongArray(final long[] p_array) {
+        int length = readCompactNumber(p_array != null ? p_array.length : 0);
+        long[] arr;
+
+        if (m_position > m_limit) {
+            // The length is incomplete
+            return p_array != null ? p_array : new long[0];
+        }
+
+        arr = p_array != null && p_array.length == length ? p_array : new long[length];
+        readLongs(arr);
+
+        return arr;
+    }
+
+    @Override
+    public float[] readFloatArray(final float[] p_array) {
+        int length = readCompactNumber(p_array != null ? p_array.length : 0);
+        float[] arr;
+
+        if (m_position > m_limit) {
+            // The length is incomplete
+            return p_array != null ? p_array : new float[0];
+        }
+
+        arr = p_array != null && p_array.length == length ? p_array : new float[length];
+        readFloats(arr);
+
+        return arr;
+    }
+
+    @Override
+    public double[] readDoubleArray(final double[] p_array) {
+        int length = readCompactNumber(p_array != null ? p_array.length : 0);
+        double[] arr;
+
+        if (m_position > m_limit) {
+            // The length is incomplete
+            return p_array != null ? p_array : new double[0];
+        }
+
+        arr = p_array != null && p_array.length == length ? p_array : new double[length];
+        readDoubles(arr);
+
+        return arr;
+    }
+
+    /**
+     * Start an export/import pass with the current buffer
+     */
+    private void startPass() {
+        assert m_buffer != null;
+
+        if (m_finished) {
+            m_done = 0;
+            m_partial = 0;
+            m_partialPosition = -1;
+        }
+
+        m_position = 0;
+        m_limit = m_done + m_buffer.remaining();
+    }
+
+    /**
+     * Finish an export/import pass and remember how far the stream got
+     */
+    private void finishPass() {
+        if (m_position < m_done) {
+            long done = m_done;
+
+            reset();
+            throw new RuntimeException("Object ended after " + m_position + " bytes but " + done +
+                    " bytes were transferred with previous buffers, it must not change between the buffers");
+        }
+
+        m_finished = m_position <= m_limit;
+        m_done = m_finished ? 0 : m_limit;
+    }
+
+    /**
+     * Skip elements at the current position of the stream which are not transferred with the current buffer
+     * (transferred with previous buffers or behind the end of the current buffer)
+     *
+     * @param p_length
+     *         Maximum number of elements to skip
+     * @param p_size
+     *         Size of an element in bytes
+     * @return Number of skipped elements
+     */
+    private long skip(final long p_length, final int p_size) {
+        long ret = 0;
+
+        if (m_position < m_done) {
+            ret = Math.min(p_length, (m_done - m_position) / p_size);
+        } else if (m_position >= m_limit) {
+            ret = p_length;
+        }
+        m_position += ret * p_size;
+
+        return ret;
+    }
+
+    /**
+     * Skip the elements of an array which were transferred with previous buffers
+     *
+     * @param p_length
+     *         Number of elements
+     * @param p_size
+     *         Size of an element in bytes
+     * @return Number of skipped elements
+     */
+    private int skipElements(final int p_length, final int p_size) {
+        int ret = (int) Math.min(p_length, Math.max(0, (m_done - m_position) / p_size));
+
+        m_position += (long) ret * p_size;
+
+        return ret;
+    }
+
+    /**
+     * Write the bytes of a primitive which belong to the current buffer
+     *
+     * @param p_value
+     *         Value
+     * @param p_size
+     *         Size of the primitive in bytes
+     */
+    private void put(final long p_value, final int p_size) {
+        long position = m_position;
+
+        m_position += p_size;
+        if (position >= m_done && m_position <= m_limit) {
+            switch (p_size) {
+                case 1:
+                    m_buffer.put((byte) p_value);
+                    break;
+                case 2:
+                    m_buffer.putShort((short) p_value);
+                    break;
+                case 4:
+                    m_buffer.putInt((int) p_value);
+                    break;
+                default:
+                    m_buffer.putLong(p_value);
+                    break;
+            }
+        } else {
+            // Split between two buffers
+            for (long i = Math.max(position, m_done); i < Math.min(m_position, m_limit); i++) {
+                m_buffer.put((byte) (p_value >>> (m_position - 1 - i << 3)));
+            }
+        }
+    }
+
+    /**
+     * Read a primitive. Returns the given value if the primitive was read with a previous buffer or if it is
+     * incomplete.
+     *
+     * @param p_value
+     *         Value read with a previous buffer
+     * @param p_size
+     *         Size of the primitive in bytes
+     * @return Value
+     */
+    private long get(final long p_value, final int p_size) {
+        long position = m_position;
+        long value;
+
+        m_position += p_size;
+        if (position >= m_done && m_position <= m_limit) {
+            switch (p_size) {
+                case 1:
+                    return m_buffer.get();
+                case 2:
+                    return m_buffer.getShort();
+                case 4:
+                    return m_buffer.getInt();
+                default:
+                    return m_buffer.getLong();
+            }
+        }
+
+        if (m_position <= m_done || position >= m_limit) {
+            return p_value;
+        }
+
+        // Split between two buffers
+        value = position < m_done ? m_partial : 0;
+        for (long i = Math.max(position, m_done); i < Math.min(m_position, m_limit); i++) {
+            value = value << 8 | m_buffer.get() & 0xFF;
+        }
+
+        if (m_position > m_limit) {
+            m_partial = value;
+            m_partialPosition = position;
+            return p_value;
+        }
+
+        return value;
+    }
+}
@@ -389,4 +389,19 @@ public interface Exporter {
      *         Array to write
      */
     void writeDoubleArray(final double[] p_array);
+
+    /**
+     * Skip elements at the current position which do not have to be written with this call (e.g. because they were
+     * transferred with a previous buffer). The position advances over the skipped elements, so objects with many
+     * elements can start copying at the first element needed. Skips nothing by default.
+     *
+     * @param p_length
+     *         Maximum number of elements to skip
+     * @param p_size
+     *         Size of an element in bytes
+     * @return Number of skipped elements
+     */
+    default long skipWrite(final long p_length, final int p_size) {
+        return 0;
+    }
 }
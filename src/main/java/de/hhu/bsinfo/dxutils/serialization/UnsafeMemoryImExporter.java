@@ -0,0 +1,469 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils.serialization;
+
+import java.nio.charset.StandardCharsets;
+
+import de.hhu.bsinfo.dxutils.UnsafeMemory;
+
+/**
+ * Implementation of an Importer/Exporter for native memory (e.g. allocated with UnsafeMemory). No bounds are checked:
+ * the caller has to make sure the memory area is large enough (e.g. with sizeofObject). Multi-byte values are
+ * stored in native byte order.
+ */
+public class UnsafeMemoryImExporter implements Importer, Exporter {
+    private long m_address;
+    private int m_position;
+
+    /**
+     * Constructor
+     *
+     * @param p_address
+     *         Start address of the memory area to write to/read from.
+     */
+    public UnsafeMemoryImExporter(final long p_address) {
+        m_address = p_address;
+        m_position = 0;
+    }
+
+    /**
+     * Get the number of bytes written/read.
+     *
+     * @return Position relative to the start address.
+     */
+    public int getPosition() {
+        return m_position;
+    }
+
+    /**
+     * Set a new memory area to write to/read from and reset the position.
+     *
+     * @param p_address
+     *         Start address of the memory area.
+     */
+    public void setAddress(final long p_address) {
+        m_address = p_address;
+        m_position = 0;
+    }
+
+    @Override
+    public void exportObject(final Exportable p_object) {
+        p_object.exportObject(this);
+    }
+
+    @Override
+    public void writeBoolean(final boolean p_v) {
+        writeByte((byte) (p_v ? 1 : 0));
+    }
+
+    @Override
+    public void writeByte(final byte p_v) {
+        UnsafeMemory.writeByte(m_address + m_position, p_v);
+        m_position += Byte.BYTES;
+    }
+
+    @Override
+    public void writeShort(final short p_v) {
+        UnsafeMemory.writeShort(m_address + m_position, p_v);
+        m_position += Short.BYTES;
+    }
+
+    @Override
+    public void writeChar(final char p_v) {
+        UnsafeMemory.writeChar(m_address + m_position, p_v);
+        m_position += Character.BYTES;
+    }
+
+    @Override
+    public void writeInt(final int p_v) {
+        UnsafeMemory.writeInt(m_address + m_position, p_v);
+        m_position += Integer.BYTES;
+    }
+
+    @Override
+    public void writeLong(final long p_v) {
+        UnsafeMemory.writeLong(m_address + m_position, p_v);
+        m_position += Long.BYTES;
+    }
+
+    @Override
+    public void writeFloat(final float p_v) {
+        UnsafeMemory.writeFloat(m_address + m_position, p_v);
+        m_position += Float.BYTES;
+    }
+
+    @Override
+    public void writeDouble(final double p_v) {
+        UnsafeMemory.writeDouble(m_address + m_position, p_v);
+        m_position += Double.BYTES;
+    }
+
+    @Override
+    public void writeCompactNumber(final int p_v) {
+        int length = CompactNumber.getSizeOfNumber(p_v);
+        int i;
+
+        for (i = 0; i < length - 1; i++) {
+            writeByte((byte) (p_v >> 7 * i & 0x7F | 0x80));
+        }
+
+        writeByte((byte) (p_v >> 7 * i & 0x7F));
+    }
+
+    @Override
+    public void writeString(final String p_str) {
+        writeByteArray(p_str.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public int writeBytes(final byte[] p_array) {
+        return writeBytes(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeBytes(final byte[] p_array, final int p_offset, final int p_length) {
+        UnsafeMemory.writeBytes(m_address + m_position, p_array, p_offset, p_length);
+        m_position += p_length;
+        return p_length;
+    }
+
+    @Override
+    public int writeShorts(final short[] p_array) {
+        return writeShorts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeChars(final char[] p_array) {
+        return writeChars(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeInts(final int[] p_array) {
+        return writeInts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeLongs(final long[] p_array) {
+        return writeLongs(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeFloats(final float[] p_array) {
+        return writeFloats(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeDoubles(final double[] p_array) {
+        return writeDoubles(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeShorts(final short[] p_array, final int p_offset, final int p_length) {
+        UnsafeMemory.writeShorts(m_address + m_position, p_array, p_offset, p_length);
+        m_position += p_length * Short.BYTES;
+        return p_length;
+    }
+
+    @Override
+    public int writeChars(final char[] p_array, final int p_offset, final int p_length) {
+        UnsafeMemory.writeChars(m_address + m_position, p_array, p_offset, p_length);
+        m_position += p_length * Character.BYTES;
+        return p_length;
+    }
+
+    @Override
+    public int writeInts(final int[] p_array, final int p_offset, final int p_length) {
+        UnsafeMemory.writeInts(m_address + m_position, p_array, p_offset, p_length);
+        m_position += p_length * Integer.BYTES;
+        return p_length;
+    }
+
+    @Override
+    public int writeLongs(final long[] p_array, final int p_offset, final int p_length) {
+        UnsafeMemory.writeLongs(m_address + m_position, p_array, p_offset, p_length);
+        m_position += p_length * Long.BYTES;
+        return p_length;
+    }
+
+    @Override
+    public int writeFloats(final float[] p_array, final int p_offset, final int p_length) {
+        UnsafeMemory.writeFloats(m_address + m_position, p_array, p_offset, p_length);
+        m_position += p_length * Float.BYTES;
+        return p_length;
+    }
+
+    @Override
+    public int writeDoubles(final double[] p_array, final int p_offset, final int p_length) {
+        UnsafeMemory.writeDoubles(m_address + m_position, p_array, p_offset, p_length);
+        m_position += p_length * Double.BYTES;
+        return p_length;
+    }
+
+    @Override
+    public void writeByteArray(final byte[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeBytes(p_array);
+    }
+
+    @Override
+    public void writeShortArray(final short[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeShorts(p_array);
+    }
+
+    @Override
+    public void writeCharArray(final char[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeChars(p_array);
+    }
+
+    @Override
+    public void writeIntArray(final int[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeInts(p_array);
+    }
+
+    @Override
+    public void writeLongArray(final long[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeLongs(p_array);
+    }
+
+    @Override
+    public void writeFloatArray(final float[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeFloats(p_array);
+    }
+
+    @Override
+    public void writeDoubleArray(final double[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeDoubles(p_array);
+    }
+
+    @Override
+    public void importObject(final Importable p_object) {
+        p_object.importObject(this);
+    }
+
+    @Override
+    public boolean readBoolean(final boolean p_bool) {
+        return readByte((byte) 0) == 1;
+    }
+
+    @Override
+    public byte readByte(final byte p_byte) {
+        byte ret = UnsafeMemory.readByte(m_address + m_position);
+        m_position += Byte.BYTES;
+        return ret;
+    }
+
+    @Override
+    public short readShort(final short p_short) {
+        short ret = UnsafeMemory.readShort(m_address + m_position);
+        m_position += Short.BYTES;
+        return ret;
+    }
+
+    @Override
+    public char readChar(final char p_char) {
+        char ret = UnsafeMemory.readChar(m_address + m_position);
+        m_position += Character.BYTES;
+        return ret;
+    }
+
+    @Override
+    public int readInt(final int p_int) {
+        int ret = UnsafeMemory.readInt(m_address + m_position);
+        m_position += Integer.BYTES;
+        return ret;
+    }
+
+    @Override
+    public long readLong(final long p_long) {
+        long ret = UnsafeMemory.readLong(m_address + m_position);
+        m_position += Long.BYTES;
+        return ret;
+    }
+
+    @Override
+    public float readFloat(final float p_float) {
+        float ret = UnsafeMemory.readFloat(m_address + m_position);
+        m_position += Float.BYTES;
+        return ret;
+    }
+
+    @Override
+    public double readDouble(final double p_double) {
+        double ret = UnsafeMemory.readDouble(m_address + m_position);
+        m_position += Double.BYTES;
+        return ret;
+    }
+
+    @Override
+    public int readCompactNumber(final int p_int) {
+        int ret = 0;
+        int i;
+        for (i = 0; i < Integer.BYTES; i++) {
+            byte b = readByte((byte) 0);
+            ret += (b & 0x7F) << i * 7;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+
+        return ret;
+    }
+
+    @Override
+    public String readString(final String p_string) {
+        return new String(readByteArray(null), StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public int readBytes(final byte[] p_array) {
+        return readBytes(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readBytes(final byte[] p_array, final int p_offset, final int p_length) {
+        UnsafeMemory.readBytes(m_address + m_position, p_array, p_offset, p_length);
+        m_position += p_length;
+        return p_length;
+    }
+
+    @Override
+    public int readShorts(final short[] p_array) {
+        return readShorts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readChars(final char[] p_array) {
+        return readChars(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readInts(final int[] p_array) {
+        return readInts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readLongs(final long[] p_array) {
+        return readLongs(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readFloats(final float[] p_array) {
+        return readFloats(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readDoubles(final double[] p_array) {
+        return readDoubles(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readShorts(final short[] p_array, final int p_offset, final int p_length) {
+        UnsafeMemory.readShorts(m_address + m_position, p_array, p_offset, p_length);
+        m_position += p_length * Short.BYTES;
+        return p_length;
+    }
+
+    @Override
+    public int readChars(final char[] p_array, final int p_offset, final int p_length) {
+        UnsafeMemory.readChars(m_address + m_position, p_array, p_offset, p_length);
+        m_position += p_length * Character.BYTES;
+        return p_length;
+    }
+
+    @Override
+    public int readInts(final int[] p_array, final int p_offset, final int p_length) {
+        UnsafeMemory.readInts(m_address + m_position, p_array, p_offset, p_length);
+        m_position += p_length * Integer.BYTES;
+        return p_length;
+    }
+
+    @Override
+    public int readLongs(final long[] p_array, final int p_offset, final int p_length) {
+        UnsafeMemory.readLongs(m_address + m_position, p_array, p_offset, p_length);
+        m_position += p_length * Long.BYTES;
+        return p_length;
+    }
+
+    @Override
+    public int readFloats(final float[] p_array, final int p_offset, final int p_length) {
+        UnsafeMemory.readFloats(m_address + m_position, p_array, p_offset, p_length);
+        m_position += p_length * Float.BYTES;
+        return p_length;
+    }
+
+    @Override
+    public int readDoubles(final double[] p_array, final int p_offset, final int p_length) {
+        UnsafeMemory.readDoubles(m_address + m_position, p_array, p_offset, p_length);
+        m_position += p_length * Double.BYTES;
+        return p_length;
+    }
+
+    @Override
+    public byte[] readByteArray(final byte[] p_array) {
+        byte[] arr = new byte[readCompactNumber(0)];
+        readBytes(arr);
+        return arr;
+    }
+
+    @Override
+    public short[] readShortArray(final short[] p_array) {
+        short[] arr = new short[readCompactNumber(0)];
+        readShorts(arr);
+        return arr;
+    }
+
+    @Override
+    public char[] readCharArray(final char[] p_array) {
+        char[] arr = new char[readCompactNumber(0)];
+        readChars(arr);
+        return arr;
+    }
+
+    @Override
+    public int[] readIntArray(final int[] p_array) {
+        int[] arr = new int[readCompactNumber(0)];
+        readInts(arr);
+        return arr;
+    }
+
+    @Override
+    public long[] readLongArray(final long[] p_array) {
+        long[] arr = new long[readCompactNumber(0)];
+        readLongs(arr);
+        return arr;
+    }
+
+    @Override
+    public float[] readFloatArray(final float[] p_array) {
+        float[] arr = new float[readCompactNumber(0)];
+        readFloats(arr);
+        return arr;
+    }
+
+    @Override
+    public double[] readDoubleArray(final double[] p_array) {
+        double[] arr = new double[readCompactNumber(0)];
+        readDoubles(arr);
+        return arr;
+    }
+}
@@ -251,6 +251,10 @@ public final class StatisticsManager extends Thread {
         printStatisticTablesOf(builder, TimePercentile.class);
         builder.append('\n');
 
+        builder.append(">>> TimePercentilePool\n");
+        printStatisticTablesOf(builder, TimePercentilePool.class);
+        builder.append('\n');
+
         m_opsLock.unlock();
 
         builder.append("============================================================================================" +
@@ -1,5 +1,8 @@
 package de.hhu.bsinfo.dxutils;
 
+import java.util.Arrays;
+import java.util.Random;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -291,4 +294,108 @@ public class ArrayListLongTest {
         Assert.assertEquals(6, list.get(1));
         Assert.assertEquals(2, list.getSize());
     }
+
+    @Test
+    public void addAll() {
+        ArrayListLong list = new ArrayListLong();
+
+        list.add(1);
+        list.addAll(new long[] {7, 2, 3, 4, 7}, 1, 3);
+        list.addAll(ArrayListLong.wrap(new long[] {5}));
+
+        Assert.assertEquals(5, list.getSize());
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(i + 1, list.get(i));
+        }
+    }
+
+    @Test
+    public void removeRange() {
+        ArrayListLong list = ArrayListLong.copy(new long[] {1, 2, 3, 4, 5, 6});
+
+        list.removeRange(1, 4);
+
+        Assert.assertEquals(3, list.getSize());
+        Assert.assertEquals(1, list.get(0));
+        Assert.assertEquals(5, list.get(1));
+        Assert.assertEquals(6, list.get(2));
+
+        list.removeRange(0, 0);
+        Assert.assertEquals(3, list.getSize());
+
+        try {
+            list.removeRange(2, 4);
+        } catch (ArrayIndexOutOfBoundsException ignored) {
+            return;
+        }
+
+        Assert.fail("Exception expected");
+    }
+
+    @Test
+    public void addFrontGrowth() {
+        ArrayListLong list = new ArrayListLong();
+
+        for (int i = 0; i < 10000; i++) {
+            list.addFront(i);
+        }
+
+        Assert.assertEquals(10000, list.getSize());
+        for (int i = 0; i < 10000; i++) {
+            Assert.assertEquals(9999 - i, list.get(i));
+        }
+
+        // geometric growth
+        Assert.assertTrue(list.getArray().length < 10000 * 2);
+
+        ArrayListLong copy = new ArrayListLong(list);
+        Assert.assertEquals(list, copy);
+    }
+
+    @Test
+    public void sort() {
+        Random random = new Random(42);
+
+        // Below and above the radix sort threshold, random and chunk IDs of one creator
+        for (int size : new int[] {100, 100000}) {
+            for (boolean chunkIds : new boolean[] {false, true}) {
+                ArrayListLong list = new ArrayListLong();
+                for (int i = 0; i < size; i++) {
+                    list.add(chunkIds ? 0x1234L << 48 | random.nextInt(size) : random.nextLong());
+                }
+
+                long[] expected = Arrays.copyOf(list.getArray(), size);
+                Arrays.sort(expected);
+                list.sort();
+
+                Assert.assertArrayEquals(expected, Arrays.copyOf(list.getArray(), list.getSize()));
+            }
+        }
+    }
+
+    @Test
+    public void binarySearchUnique() {
+        ArrayListLong list = ArrayListLong.copy(new long[] {-5, 1, 1, 1, 3, 7, 7});
+
+        Assert.assertEquals(-1, list.binarySearch(-10));
+        Assert.assertEquals(4, list.binarySearch(3));
+        Assert.assertEquals(-6, list.binarySearch(4));
+
+        Assert.assertEquals(3, list.unique());
+        Assert.assertEquals(ArrayListLong.copy(new long[] {-5, 1, 3, 7}), list);
+        Assert.assertEquals(0, list.unique());
+    }
+
+    @Test
+    public void merge() {
+        ArrayListLong list = ArrayListLong.copy(new long[] {1, 4, 6});
+
+        list.merge(ArrayListLong.copy(new long[] {0, 4, 5, 9}));
+        Assert.assertEquals(ArrayListLong.copy(new long[] {0, 1, 4, 4, 5, 6, 9}), list);
+
+        list.merge(list);
+        Assert.assertEquals(14, list.getSize());
+        Assert.assertEquals(0, list.get(1));
+        Assert.assertEquals(9, list.get(13));
+    }
 }
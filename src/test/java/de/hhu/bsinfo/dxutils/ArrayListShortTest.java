@@ -1,5 +1,8 @@
 package de.hhu.bsinfo.dxutils;
 
+import java.util.Arrays;
+import java.util.Random;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -291,4 +294,87 @@ public class ArrayListShortTest {
         Assert.assertEquals(6, list.get(1));
         Assert.assertEquals(2, list.getSize());
     }
+
+    @Test
+    public void addAll() {
+        ArrayListShort list = new ArrayListShort();
+
+        list.add((short) 1);
+        list.addAll(new short[] {7, 2, 3, 4, 7}, 1, 3);
+        list.addAll(ArrayListShort.wrap(new short[] {5}));
+
+        Assert.assertEquals(5, list.getSize());
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(i + 1, list.get(i));
+        }
+    }
+
+    @Test
+    public void removeRange() {
+        ArrayListShort list = ArrayListShort.copy(new short[] {1, 2, 3, 4, 5, 6});
+
+        list.removeRange(1, 4);
+
+        Assert.assertEquals(3, list.getSize());
+        Assert.assertEquals(1, list.get(0));
+        Assert.assertEquals(5, list.get(1));
+        Assert.assertEquals(6, list.get(2));
+
+        list.removeRange(0, 0);
+        Assert.assertEquals(3, list.getSize());
+
+        try {
+            list.removeRange(2, 4);
+        } catch (ArrayIndexOutOfBoundsException ignored) {
+            return;
+        }
+
+        Assert.fail("Exception expected");
+    }
+
+    @Test
+    public void addFrontGrowth() {
+        ArrayListShort list = new ArrayListShort();
+
+        for (int i = 0; i < 10000; i++) {
+            list.addFront((short) i);
+        }
+
+        Assert.assertEquals(10000, list.getSize());
+        for (int i = 0; i < 10000; i++) {
+            Assert.assertEquals(9999 - i, list.get(i));
+        }
+
+        // geometric growth
+        Assert.assertTrue(list.getArray().length < 10000 * 2);
+
+        ArrayListShort copy = new ArrayListShort(list);
+        Assert.assertEquals(list, copy);
+    }
+
+    @Test
+    public void sortUniqueMerge() {
+        Random random = new Random(42);
+
+        // Below and above the counting sort threshold
+        for (int size : new int[] {100, 100000}) {
+            ArrayListShort list = new ArrayListShort();
+            for (int i = 0; i < size; i++) {
+                list.add((short) random.nextInt());
+            }
+
+            short[] expected = Arrays.copyOf(list.getArray(), size);
+            Arrays.sort(expected);
+            list.sort();
+
+            Assert.assertArrayEquals(expected, Arrays.copyOf(list.getArray(), list.getSize()));
+        }
+
+        ArrayListShort list = ArrayListShort.copy(new short[] {-3, 2, 2, 8});
+        Assert.assertEquals(1, list.unique());
+        Assert.assertEquals(1, list.binarySearch((short) 2));
+
+        list.merge(ArrayListShort.copy(new short[] {-4, 2, 9}));
+        Assert.assertEquals(ArrayListShort.copy(new short[] {-4, -3, 2, 2, 8, 9}), list);
+    }
 }
@@ -0,0 +1,368 @@
+package de.hhu.bsinfo.dxutils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.hhu.bsinfo.dxutils.stats.StatisticsManager;
+
+public class CacheTest {
+    @Test
+    public void putGet() {
+        Cache<Long, String> cache = new Cache<>(10);
+
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+
+        Assert.assertEquals("one", cache.get(1L));
+        Assert.assertEquals("two", cache.get(2L));
+        Assert.assertNull(cache.get(3L));
+    }
+
+    @Test
+    public void remove() {
+        Cache<Long, String> cache = new Cache<>(10);
+
+        cache.put(1L, "one");
+        cache.remove(1L);
+
+        Assert.assertFalse(cache.contains(1L));
+        Assert.assertNull(cache.get(1L));
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        Cache<Long, Long> cache = new Cache<>(3, Cache.POLICY.LRU);
+
+        cache.put(1L, 1L);
+        cache.put(2L, 2L);
+        cache.put(3L, 3L);
+
+        // all accesses happen in the same millisecond -> order must still be exact
+        cache.get(1L);
+        cache.put(4L, 4L);
+
+        Assert.assertTrue(cache.contains(1L));
+        Assert.assertFalse(cache.contains(2L));
+        Assert.assertTrue(cache.contains(3L));
+        Assert.assertTrue(cache.contains(4L));
+
+        cache.put(3L, 33L);
+        cache.put(5L, 5L);
+
+        Assert.assertFalse(cache.contains(1L));
+        Assert.assertEquals(Long.valueOf(33L), cache.get(3L));
+    }
+
+    @Test
+    public void evictAfterRemoveAndClear() {
+        Cache<Long, Long> cache = new Cache<>(2, Cache.POLICY.LRU);
+
+        cache.put(1L, 1L);
+        cache.put(2L, 2L);
+        cache.remove(1L);
+        cache.put(3L, 3L);
+        cache.put(4L, 4L);
+
+        Assert.assertFalse(cache.contains(2L));
+        Assert.assertTrue(cache.contains(3L));
+        Assert.assertTrue(cache.contains(4L));
+
+        cache.clear();
+        for (long i = 10; i < 20; i++) {
+            cache.put(i, i);
+        }
+
+        Assert.assertTrue(cache.contains(18L));
+        Assert.assertTrue(cache.contains(19L));
+        Assert.assertFalse(cache.contains(17L));
+    }
+
+    @Test
+    public void concurrentAccess() throws InterruptedException {
+        Cache<Long, Long> cache = new Cache<>(256, Cache.POLICY.LRU);
+        Thread[] threads = new Thread[8];
+
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (long i = 0; i < 50000; i++) {
+                    long key = i % 512;
+                    if (cache.get(key) == null) {
+                        cache.put(key, key);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // policy must still be consistent with the map after concurrent recording of accesses
+        for (long i = 1000; i < 2000; i++) {
+            cache.put(i, i);
+        }
+
+        for (long i = 0; i < 512; i++) {
+            Assert.assertFalse(cache.contains(i));
+        }
+    }
+
+    @Test
+    public void tinyLFUScanResistance() {
+        Cache<Long, Long> cache = new Cache<>(100, Cache.POLICY.TINY_LFU);
+
+        for (int round = 0; round < 10; round++) {
+            for (long i = 0; i < 50; i++) {
+                if (cache.get(i) == null) {
+                    cache.put(i, i);
+                }
+            }
+        }
+
+        // keys used once must not flush the frequently used ones
+        for (long i = 1000; i < 11000; i++) {
+            cache.put(i, i);
+        }
+
+        int hits = 0;
+        for (long i = 0; i < 50; i++) {
+            if (cache.contains(i)) {
+                hits++;
+            }
+        }
+
+        Assert.assertTrue(hits >= 45);
+    }
+
+    @Test
+    public void perEntryTTL() throws InterruptedException {
+        Cache<Long, Long> cache = new Cache<>(2, Cache.POLICY.LRU);
+
+        cache.put(1L, 1L);
+        cache.put(2L, 2L, 50);
+
+        Assert.assertEquals(Long.valueOf(2L), cache.get(2L));
+
+        Thread.sleep(150);
+
+        Assert.assertNull(cache.get(2L));
+        Assert.assertFalse(cache.contains(2L));
+
+        // expired entry must be removed by the write instead of evicting the least recently used one
+        cache.put(3L, 3L);
+
+        Assert.assertTrue(cache.contains(1L));
+        Assert.assertTrue(cache.contains(3L));
+    }
+
+    @Test
+    public void expireAfterAccessAndWrite() throws InterruptedException {
+        Cache<Long, Long> afterAccess = new Cache<>(10, Cache.POLICY.LRU);
+        Cache<Long, Long> afterWrite = new Cache<>(10, Cache.POLICY.LRU);
+
+        afterAccess.enableTTL(200, Cache.EXPIRATION.AFTER_ACCESS);
+        afterWrite.enableTTL(200, Cache.EXPIRATION.AFTER_WRITE);
+
+        afterAccess.put(1L, 1L);
+        afterWrite.put(1L, 1L);
+
+        for (int i = 0; i < 8; i++) {
+            Thread.sleep(50);
+            afterAccess.get(1L);
+            afterWrite.get(1L);
+        }
+
+        Assert.assertTrue(afterAccess.contains(1L));
+        Assert.assertFalse(afterWrite.contains(1L));
+
+        afterAccess.disableTTL();
+        afterWrite.disableTTL();
+    }
+
+    @Test
+    public void weightBound() {
+        Cache<Long, ArrayListLong> cache = new Cache<>(100, 1000, Cache.Weigher.objectSize(), Cache.POLICY.LRU);
+
+        // 1 byte size + 12 longs = 97 bytes each
+        for (long i = 0; i < 20; i++) {
+            cache.put(i, ArrayListLong.wrap(new long[12]));
+        }
+
+        Assert.assertEquals(970, cache.getWeight());
+        Assert.assertEquals(970, cache.getEvictedWeight());
+        Assert.assertFalse(cache.contains(9L));
+        Assert.assertTrue(cache.contains(10L));
+
+        // growing an entry evicts others until the weight is under budget again
+        cache.put(19L, ArrayListLong.wrap(new long[60]));
+
+        Assert.assertTrue(cache.getWeight() <= 1000);
+        Assert.assertTrue(cache.contains(19L));
+        Assert.assertFalse(cache.contains(10L));
+
+        // entries heavier than the budget are not cached at all
+        cache.put(19L, ArrayListLong.wrap(new long[200]));
+
+        Assert.assertFalse(cache.contains(19L));
+        Assert.assertTrue(cache.getWeight() <= 1000);
+
+        cache.clear();
+
+        Assert.assertEquals(0, cache.getWeight());
+    }
+
+    @Test
+    public void loadCoalescing() throws InterruptedException {
+        Cache<Long, Long> cache = new Cache<>(10, Cache.POLICY.LRU);
+        AtomicInteger loads = new AtomicInteger();
+        Long[] results = new Long[8];
+        Thread[] threads = new Thread[8];
+
+        for (int t = 0; t < threads.length; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> results[id] = cache.get(1L, p_key -> {
+                loads.incrementAndGet();
+                try {
+                    Thread.sleep(100);
+                } catch (final InterruptedException ignored) {
+                }
+                return 42L;
+            }));
+            threads[t].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(1, loads.get());
+        for (Long result : results) {
+            Assert.assertEquals(Long.valueOf(42L), result);
+        }
+    }
+
+    @Test
+    public void loadError() throws InterruptedException {
+        Cache<Long, Long> cache = new Cache<>(10, Cache.POLICY.LRU);
+        AtomicInteger errors = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    cache.get(1L, p_key -> {
+                        try {
+                            Thread.sleep(100);
+                        } catch (final InterruptedException ignored) {
+                        }
+                        throw new StackOverflowError();
+                    });
+                } catch (final StackOverflowError e) {
+                    errors.incrementAndGet();
+                }
+            });
+            threads[t].start();
+        }
+
+        // Waiting callers must get the error instead of blocking forever
+        for (Thread thread : threads) {
+            thread.join(5000);
+            Assert.assertFalse(thread.isAlive());
+        }
+
+        Assert.assertEquals(threads.length, errors.get());
+        Assert.assertEquals(Long.valueOf(5L), cache.get(1L, p_key -> 5L));
+    }
+
+    @Test
+    public void refreshAhead() throws InterruptedException {
+        Cache<Long, Long> cache = new Cache<>(10, Cache.POLICY.LRU);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.enableTTL(300, Cache.EXPIRATION.AFTER_WRITE);
+        cache.enableRefreshAhead(200, executor);
+        cache.put(1L, 1L);
+
+        Thread.sleep(150);
+
+        // old value is returned while the refresh is in flight
+        Assert.assertEquals(Long.valueOf(1L), cache.get(1L, p_key -> (long) loads.incrementAndGet() + 1));
+
+        Thread.sleep(250);
+
+        // would have expired without the refresh
+        Assert.assertEquals(Long.valueOf(2L), cache.get(1L));
+        Assert.assertEquals(1, loads.get());
+
+        cache.disableTTL();
+        executor.shutdown();
+    }
+
+    @Test
+    public void bulkOperations() {
+        Cache<Long, Long> cache = new Cache<>(100, Cache.POLICY.LRU);
+        Map<Long, Long> entries = new HashMap<>();
+        Long[] values = new Long[4];
+
+        for (long i = 0; i < 150; i++) {
+            entries.put(i, i * 2);
+        }
+        cache.putAll(entries);
+
+        Assert.assertEquals(100, cache.getWeight());
+        Assert.assertEquals(3, cache.getAll(new Long[] {149L, 50L, 51L, 1000L}, values));
+        Assert.assertArrayEquals(new Long[] {298L, 100L, 102L, null}, values);
+
+        cache.removeAll(Arrays.asList(50L, 51L));
+        entries.clear();
+
+        Assert.assertEquals(1, cache.getAll(Arrays.asList(50L, 51L, 52L), entries));
+        Assert.assertEquals(Long.valueOf(104L), entries.get(52L));
+    }
+
+    @Test
+    public void statistics() throws InterruptedException {
+        Cache<Long, Long> cache = new Cache<>(2, Cache.POLICY.LRU);
+        CacheStatistics statistics = cache.enableStatistics("statisticsTest");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        cache.put(1L, 1L);
+        cache.put(2L, 2L);
+        cache.put(3L, 3L);
+
+        Assert.assertNull(cache.get(1L));
+        Assert.assertEquals(Long.valueOf(3L), cache.get(3L));
+        Assert.assertEquals(1, cache.getAll(new Long[] {2L, 4L}, new Long[2]));
+        Assert.assertEquals(Long.valueOf(5L), cache.get(5L, p_key -> p_key));
+
+        cache.put(6L, 6L, 1);
+        Thread.sleep(50);
+        cache.put(7L, 7L);
+        cache.remove(5L);
+
+        Assert.assertEquals(2, statistics.getHits());
+        Assert.assertEquals(3, statistics.getMisses());
+        Assert.assertEquals(0.4, statistics.getHitRate(), 0.0001);
+        Assert.assertEquals(3, statistics.getEvictions());
+        Assert.assertEquals(1, statistics.getExpirations());
+        Assert.assertEquals(1, statistics.getRemovals());
+        Assert.assertEquals(1, statistics.getLoadTime().getCounter());
+
+        StatisticsManager.get().printStatistics(new PrintStream(out), true);
+        Assert.assertTrue(out.toString().contains("statisticsTest-LoadTime"));
+
+        cache.disableStatistics();
+        Assert.assertNull(cache.getStatistics());
+    }
+}
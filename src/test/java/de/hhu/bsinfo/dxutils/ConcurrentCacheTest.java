@@ -0,0 +1,99 @@
+package de.hhu.bsinfo.dxutils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentCacheTest {
+    @Test
+    public void putGet() {
+        ConcurrentCache<Long, Long> cache = new ConcurrentCache<>(1000);
+
+        for (long i = 0; i < 100; i++) {
+            cache.put(i, i * 2);
+        }
+
+        for (long i = 0; i < 100; i++) {
+            Assert.assertEquals(Long.valueOf(i * 2), cache.get(i));
+        }
+
+        Assert.assertNull(cache.get(1000L));
+        Assert.assertEquals(100, cache.size());
+        Assert.assertEquals(100, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void sizeLimit() {
+        ConcurrentCache<Long, Long> cache = new ConcurrentCache<>(64, 4, () -> Cache.createPolicy(Cache.POLICY.LRU, 16));
+
+        for (long i = 0; i < 10000; i++) {
+            cache.put(i, i);
+        }
+
+        Assert.assertEquals(4, cache.getStripeCount());
+        Assert.assertTrue(cache.size() <= 64);
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void concurrentAccess() throws InterruptedException {
+        ConcurrentCache<Long, Long> cache = new ConcurrentCache<>(512);
+        Thread[] threads = new Thread[8];
+
+        for (int t = 0; t < threads.length; t++) {
+            final long offset = t * 1000;
+            threads[t] = new Thread(() -> {
+                for (long i = 0; i < 20000; i++) {
+                    long key = offset + i % 1000;
+                    Long value = cache.get(key);
+                    if (value == null) {
+                        cache.put(key, key);
+                    } else {
+                        Assert.assertEquals(key, (long) value);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertTrue(cache.size() <= 512);
+        Assert.assertEquals(8 * 20000, cache.getHits() + cache.getMisses());
+    }
+
+    @Test
+    public void bulkOperations() {
+        ConcurrentCache<Long, Long> cache = new ConcurrentCache<>(1000);
+        Map<Long, Long> entries = new HashMap<>();
+        Long[] keys = new Long[100];
+        Long[] values = new Long[100];
+
+        for (long i = 0; i < 100; i++) {
+            entries.put(i, i * 2);
+            keys[(int) i] = i;
+        }
+        cache.putAll(entries);
+
+        Assert.assertEquals(100, cache.size());
+        Assert.assertEquals(100, cache.getAll(keys, values));
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(Long.valueOf(i * 2), values[i]);
+        }
+
+        cache.removeAll(Arrays.asList(keys).subList(0, 50));
+        entries.clear();
+
+        Assert.assertEquals(50, cache.size());
+        Assert.assertEquals(1, cache.getAll(Arrays.asList(0L, 49L, 50L), entries));
+        Assert.assertEquals(Long.valueOf(100L), entries.get(50L));
+    }
+}
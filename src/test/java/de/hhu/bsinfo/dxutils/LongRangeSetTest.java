@@ -0,0 +1,124 @@
+package de.hhu.bsinfo.dxutils;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.hhu.bsinfo.dxutils.serialization.ByteBufferImExporter;
+
+public class LongRangeSetTest {
+    @Test
+    public void addRemove() {
+        LongRangeSet set = new LongRangeSet();
+
+        Assert.assertTrue(set.isEmpty());
+        Assert.assertTrue(set.add(5));
+        Assert.assertTrue(set.add(7));
+        Assert.assertFalse(set.add(5));
+        Assert.assertEquals(2, set.getRangeCount());
+
+        // Fills the gap and merges both ranges
+        Assert.assertTrue(set.add(6));
+        Assert.assertEquals(1, set.getRangeCount());
+        Assert.assertEquals(3, set.getSize());
+        Assert.assertEquals(5, set.getRangeStart(0));
+        Assert.assertEquals(7, set.getRangeEnd(0));
+
+        // Splits the range
+        Assert.assertTrue(set.remove(6));
+        Assert.assertFalse(set.remove(6));
+        Assert.assertEquals(2, set.getRangeCount());
+        Assert.assertTrue(set.contains(5));
+        Assert.assertFalse(set.contains(6));
+        Assert.assertTrue(set.contains(7));
+
+        set.addRange(-10, 100);
+        Assert.assertEquals(1, set.getRangeCount());
+        Assert.assertEquals(111, set.getSize());
+        Assert.assertEquals("[-10-100]", set.toString());
+    }
+
+    @Test
+    public void random() {
+        Random random = new Random(42);
+        LongRangeSet set = new LongRangeSet();
+        TreeSet<Long> reference = new TreeSet<>();
+
+        for (int i = 0; i < 100000; i++) {
+            long val = random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                Assert.assertEquals(reference.remove(val), set.remove(val));
+            } else {
+                Assert.assertEquals(reference.add(val), set.add(val));
+            }
+        }
+
+        Assert.assertEquals(reference.size(), set.getSize());
+        for (long i = -1; i <= 2000; i++) {
+            Assert.assertEquals(reference.contains(i), set.contains(i));
+        }
+
+        ArrayListLong list = set.toArrayListLong();
+        int index = 0;
+        for (long val : reference) {
+            Assert.assertEquals(val, list.get(index++));
+        }
+    }
+
+    @Test
+    public void unionIntersection() {
+        Random random = new Random(7);
+        LongRangeSet a = new LongRangeSet();
+        LongRangeSet b = new LongRangeSet();
+
+        for (int i = 0; i < 500; i++) {
+            a.add(random.nextInt(1000));
+            b.add(random.nextInt(1000));
+        }
+
+        LongRangeSet union = a.union(b);
+        LongRangeSet intersection = a.intersection(b);
+
+        for (long i = 0; i < 1000; i++) {
+            Assert.assertEquals(a.contains(i) || b.contains(i), union.contains(i));
+            Assert.assertEquals(a.contains(i) && b.contains(i), intersection.contains(i));
+        }
+
+        LongRangeSet unionCopy = new LongRangeSet();
+        union.forEach(unionCopy::add);
+        Assert.assertEquals(union, unionCopy);
+        Assert.assertEquals(union.getSize(), unionCopy.getSize());
+        Assert.assertEquals(intersection.getSize(), a.getSize() + b.getSize() - union.getSize());
+    }
+
+    @Test
+    public void exportImport() {
+        LongRangeSet set = new LongRangeSet();
+        long creator = 0xABCDL << 48;
+
+        // Chunk IDs of one creator with a few holes
+        for (long i = 1; i <= 100000; i++) {
+            if (i % 10000 != 0) {
+                set.add(creator | i);
+            }
+        }
+        set.add(Long.MIN_VALUE);
+        set.add(Long.MAX_VALUE);
+
+        ByteBuffer buffer = ByteBuffer.allocate(set.sizeofObject());
+        ByteBufferImExporter exporter = new ByteBufferImExporter(buffer);
+        exporter.exportObject(set);
+        Assert.assertEquals(set.sizeofObject(), buffer.position());
+        Assert.assertTrue(set.sizeofObject() * 1000L < set.getSize() * Long.BYTES);
+
+        buffer.flip();
+        LongRangeSet imported = new LongRangeSet();
+        new ByteBufferImExporter(buffer).importObject(imported);
+
+        Assert.assertEquals(set, imported);
+        Assert.assertEquals(set.getSize(), imported.getSize());
+    }
+}
@@ -0,0 +1,115 @@
+package de.hhu.bsinfo.dxutils;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.hhu.bsinfo.dxutils.serialization.ByteBufferImExporter;
+import de.hhu.bsinfo.dxutils.serialization.ChunkedByteBufferImExporter;
+
+public class OffHeapArrayListLongTest {
+    @Test
+    public void addGetSetRemove() {
+        // 8 longs per page
+        try (OffHeapArrayListLong list = new OffHeapArrayListLong(3)) {
+            List<Long> reference = new ArrayList<>();
+
+            for (long i = 0; i < 100; i++) {
+                list.add(i * 3);
+                reference.add(i * 3);
+            }
+            list.addAll(new long[] {-1, -2, -3, -4, -5, -6, -7, -8, -9, -10}, 1, 9);
+            for (long i = -2; i >= -10; i--) {
+                reference.add(i);
+            }
+
+            Assert.assertEquals(109, list.getSize());
+            Assert.assertEquals(14 * 8 * Long.BYTES, list.getAllocatedMemory());
+
+            list.set(50, 12345);
+            reference.set(50, 12345L);
+
+            // First, page boundaries, middle and last
+            for (long index : new long[] {0, 7, 8, 15, 50, 103}) {
+                Assert.assertEquals((long) reference.remove((int) index), list.remove(index));
+            }
+            Assert.assertEquals((long) reference.remove(reference.size() - 1), list.removeLast());
+
+            Assert.assertEquals(reference.size(), list.getSize());
+            for (int i = 0; i < reference.size(); i++) {
+                Assert.assertEquals((long) reference.get(i), list.get(i));
+            }
+
+            try {
+                list.get(list.getSize());
+                Assert.fail("Exception expected");
+            } catch (IndexOutOfBoundsException ignored) {
+            }
+
+            list.clear();
+            Assert.assertTrue(list.isEmpty());
+        }
+    }
+
+    @Test
+    public void exportImport() {
+        OffHeapArrayListLong list = new OffHeapArrayListLong(10);
+        OffHeapArrayListLong imported = new OffHeapArrayListLong(4);
+
+        for (long i = 0; i < 5000; i++) {
+            list.add(0xABCDL << 48 | i);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(list.sizeofObject());
+        new ByteBufferImExporter(buffer).exportObject(list);
+        Assert.assertEquals(list.sizeofObject(), buffer.position());
+
+        buffer.flip();
+        new ByteBufferImExporter(buffer).importObject(imported);
+
+        Assert.assertEquals(5000, imported.getSize());
+        long[] index = {0};
+        imported.forEach(p_val -> Assert.assertEquals(0xABCDL << 48 | index[0]++, p_val));
+
+        list.free();
+        imported.free();
+    }
+
+    @Test
+    public void chunkedExportImport() {
+        OffHeapArrayListLong list = new OffHeapArrayListLong(10);
+        OffHeapArrayListLong imported = new OffHeapArrayListLong(4);
+        ChunkedByteBufferImExporter exporter = new ChunkedByteBufferImExporter();
+        ChunkedByteBufferImExporter importer = new ChunkedByteBufferImExporter();
+        // Elements are split between the buffers
+        ByteBuffer buffer = ByteBuffer.allocate(1000);
+        int buffers = 0;
+
+        for (long i = 0; i < 5000; i++) {
+            list.add(0xABCDL << 48 | i);
+        }
+        imported.add(-1);
+
+        do {
+            buffer.clear();
+            exporter.setBuffer(buffer);
+            exporter.exportObject(list);
+            buffer.flip();
+            importer.setBuffer(buffer);
+            importer.importObject(imported);
+            Assert.assertEquals(exporter.isFinished(), importer.isFinished());
+            buffers++;
+        } while (!exporter.isFinished());
+
+        Assert.assertEquals((list.sizeofObject() + 999) / 1000, buffers);
+        Assert.assertEquals(5000, imported.getSize());
+        long[] index = {0};
+        imported.forEach(p_val -> Assert.assertEquals(0xABCDL << 48 | index[0]++, p_val));
+
+        list.free();
+        imported.free();
+    }
+}
@@ -0,0 +1,75 @@
+package de.hhu.bsinfo.dxutils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OffHeapCacheTest {
+    @Test
+    public void putGet() {
+        OffHeapCache cache = new OffHeapCache(10, 1024, 1);
+        ArrayListLong list = new ArrayListLong();
+
+        cache.put(1L, ArrayListLong.wrap(new long[] {1, 2, 3}));
+        cache.put(2L, ArrayListLong.wrap(new long[] {4}));
+
+        Assert.assertTrue(cache.get(1L, list));
+        Assert.assertEquals(ArrayListLong.wrap(new long[] {1, 2, 3}), list);
+        Assert.assertTrue(cache.get(2L, list));
+        Assert.assertEquals(ArrayListLong.wrap(new long[] {4}), list);
+        Assert.assertFalse(cache.get(3L, list));
+
+        cache.remove(1L);
+
+        Assert.assertFalse(cache.contains(1L));
+        Assert.assertEquals(1, cache.size());
+        Assert.assertFalse(cache.put(4L, ArrayListLong.wrap(new long[200])));
+
+        cache.free();
+    }
+
+    @Test
+    public void evictAndCompact() {
+        OffHeapCache cache = new OffHeapCache(64, 512, 4);
+        Map<Long, Integer> lengths = new HashMap<>();
+        Random random = new Random(42);
+        ArrayListLong list = new ArrayListLong();
+
+        for (int i = 0; i < 10000; i++) {
+            long key = random.nextInt(100) + 1;
+            int length = random.nextInt(40);
+            long[] array = new long[length];
+
+            for (int j = 0; j < length; j++) {
+                array[j] = key;
+            }
+
+            Assert.assertTrue(cache.put(key, ArrayListLong.wrap(array)));
+            lengths.put(key, length);
+
+            Assert.assertTrue(cache.size() <= 64);
+            Assert.assertTrue(cache.getAllocatedMemory() <= 4 * 512);
+        }
+
+        int found = 0;
+        for (Map.Entry<Long, Integer> entry : lengths.entrySet()) {
+            if (cache.get(entry.getKey(), list)) {
+                found++;
+
+                // values must survive compaction unchanged
+                Assert.assertEquals((int) entry.getValue(), list.getSize());
+                for (int j = 0; j < list.getSize(); j++) {
+                    Assert.assertEquals((long) entry.getKey(), list.get(j));
+                }
+            }
+        }
+
+        Assert.assertEquals(cache.size(), found);
+        Assert.assertTrue(found > 0);
+
+        cache.free();
+    }
+}
@@ -0,0 +1,204 @@
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentLongHashTableTest {
+    @Test
+    public void putGetRemove() {
+        ConcurrentLongHashTable table = new ConcurrentLongHashTable(4);
+
+        for (long key = 1; key <= 10000; key++) {
+            Assert.assertEquals(-1, table.put(key, key * 2));
+        }
+
+        Assert.assertEquals(10000, table.size());
+        Assert.assertTrue(table.capacity() >= 10000);
+        Assert.assertEquals(2, table.put(1, 0));
+        Assert.assertEquals(0, table.get(1));
+        Assert.assertEquals(0, table.remove(1));
+        Assert.assertEquals(-1, table.remove(1));
+        Assert.assertFalse(table.containsKey(1));
+        Assert.assertEquals(-1, table.get(10001));
+
+        for (long key = 2; key <= 10000; key++) {
+            Assert.assertEquals(key * 2, table.get(key));
+        }
+        Assert.assertEquals(9999, table.size());
+
+        table.free();
+    }
+
+    @Test
+    public void churn() throws InterruptedException {
+        final int threads = 4;
+        final ConcurrentLongHashTable table = new ConcurrentLongHashTable();
+        final AtomicInteger errors = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+
+        // removed keys leave tombstones, the table must be rebuilt instead of growing
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            Thread worker = new Thread(() -> {
+                for (long i = 1; i <= 500000; i++) {
+                    long key = (long) (id + 1) << 32 | i;
+
+                    table.put(key, i);
+                    if (i > 25 && table.remove(key - 25) != i - 25) {
+                        errors.incrementAndGet();
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        Assert.assertEquals(0, errors.get());
+        Assert.assertEquals(100, table.size());
+        Assert.assertTrue(table.capacity() <= 2048);
+
+        // replaced tables are released once no operation uses them
+        table.put(1, 1);
+        Assert.assertTrue(table.getAllocatedMemory() <= 2 * 2048 * 16);
+
+        table.free();
+    }
+
+    @Test
+    public void releaseDuringResizes() throws InterruptedException {
+        final int threads = 4;
+
+        for (int round = 0; round < 20; round++) {
+            // A tiny table resizes back-to-back while readers walk from old tables to the newer ones
+            final ConcurrentLongHashTable table = new ConcurrentLongHashTable(2);
+            final AtomicBoolean running = new AtomicBoolean(true);
+            final AtomicInteger errors = new AtomicInteger();
+            List<Thread> all = new ArrayList<>();
+            List<Thread> writers = new ArrayList<>();
+
+            for (long key = 1; key <= 4; key++) {
+                table.put(key << 40, key);
+            }
+
+            for (int t = 0; t < threads; t++) {
+                Thread reader = new Thread(() -> {
+                    while (running.get()) {
+                        for (long key = 1; key <= 4; key++) {
+                            if (table.get(key << 40) != key || !table.containsKey(key << 40)) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    }
+                });
+                all.add(reader);
+            }
+
+            for (int t = 0; t < threads; t++) {
+                final int id = t;
+                Thread writer = new Thread(() -> {
+                    for (int i = 1; i <= 20000; i++) {
+                        table.put((long) (id + 1) << 32 | i, i);
+                    }
+                });
+                writers.add(writer);
+                all.add(writer);
+            }
+
+            for (Thread thread : all) {
+                thread.start();
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            running.set(false);
+            for (Thread thread : all) {
+                thread.join();
+            }
+
+            Assert.assertEquals(0, errors.get());
+            Assert.assertEquals(4 + threads * 20000, table.size());
+            for (int t = 0; t < threads; t++) {
+                for (int i = 1; i <= 20000; i++) {
+                    Assert.assertEquals(i, table.get((long) (t + 1) << 32 | i));
+                }
+            }
+
+            table.free();
+        }
+    }
+
+    @Test
+    public void concurrentResize() throws InterruptedException {
+        final int threads = 4;
+        final int keysPerThread = 50000;
+        final ConcurrentLongHashTable table = new ConcurrentLongHashTable(16);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicInteger errors = new AtomicInteger();
+        List<Thread> writers = new ArrayList<>();
+
+        // keys present from the beginning must be found during all resizes
+        for (long key = 1; key <= 8; key++) {
+            table.put(key << 40, key);
+        }
+
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                for (long key = 1; key <= 8; key++) {
+                    if (table.get(key << 40) != key) {
+                        errors.incrementAndGet();
+                    }
+                }
+            }
+        });
+        reader.start();
+
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            Thread writer = new Thread(() -> {
+                for (int i = 1; i <= keysPerThread; i++) {
+                    // every thread updates a shared key range and inserts its own keys
+                    table.put(i % 100 + 1, i);
+                    table.put((long) (id + 1) << 32 | i, i);
+                    if (i % 3 == 0) {
+                        table.remove((long) (id + 1) << 32 | i - 1);
+                    }
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        running.set(false);
+        reader.join();
+
+        Assert.assertEquals(0, errors.get());
+
+        long expected = 8 + 100;
+        for (int t = 0; t < threads; t++) {
+            for (int i = 1; i <= keysPerThread; i++) {
+                long key = (long) (t + 1) << 32 | i;
+                boolean removed = (i + 1) % 3 == 0 && i + 1 <= keysPerThread;
+
+                Assert.assertEquals(removed ? -1 : i, table.get(key));
+                if (!removed) {
+                    expected++;
+                }
+            }
+        }
+        Assert.assertEquals(expected, table.size());
+
+        table.free();
+    }
+}
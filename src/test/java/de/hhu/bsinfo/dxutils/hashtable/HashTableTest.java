@@ -0,0 +1,388 @@
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.hhu.bsinfo.dxutils.serialization.ByteBufferImExporter;
+
+public class HashTableTest {
+    @Test
+    public void powerOfTwoCapacity() {
+        Assert.assertEquals(128, new LongHashTable().capacity());
+        Assert.assertEquals(1, new IntHashTable(1).capacity());
+        Assert.assertEquals(1024, new LongIntHashTable(1000).capacity());
+        Assert.assertEquals(1024, new IntLongHashTable(1024).capacity());
+    }
+
+    @Test
+    public void putGetRehash() {
+        LongHashTable longTable = new LongHashTable(4);
+        LongIntHashTable longIntTable = new LongIntHashTable(4);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 10000; i++) {
+            // chunk ID like keys, differing in the upper bits only, and random keys
+            long key = i % 2 == 0 ? (long) (i % 64 + 1) << 48 | i / 64 : random.nextInt(Integer.MAX_VALUE - 1) + 1;
+
+            longTable.put(key, i);
+            longIntTable.put(key, i);
+            expected.put(key, (long) i);
+        }
+
+        Assert.assertEquals(expected.size(), longTable.size());
+        Assert.assertEquals(1, Integer.bitCount(longTable.capacity()));
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            Assert.assertEquals((long) entry.getValue(), longTable.get(entry.getKey()));
+            Assert.assertEquals((int) (long) entry.getValue(), longIntTable.get(entry.getKey()));
+        }
+
+        Assert.assertEquals(-1, longTable.get(1L << 60));
+        Assert.assertEquals(-1, longIntTable.get(1L << 60));
+    }
+
+    @Test
+    public void addAndWrapAround() {
+        IntHashTable table = new IntHashTable(16);
+
+        // fill enough keys to probe across the end of the table
+        for (int key = 1; key <= 14; key++) {
+            table.put(key, key);
+        }
+
+        Assert.assertEquals(3, table.add(3, 10));
+        Assert.assertEquals(13, table.get(3));
+        Assert.assertEquals(-1, table.add(100, 5));
+        Assert.assertEquals(5, table.get(100));
+        Assert.assertEquals(15, table.size());
+
+        for (int key = 1; key <= 14; key++) {
+            Assert.assertEquals(key == 3 ? 13 : key, table.get(key));
+        }
+
+        table.clear();
+        Assert.assertTrue(table.isEmpty());
+        Assert.assertEquals(-1, table.get(1));
+    }
+
+    @Test
+    public void removeUnderChurn() {
+        LongIntHashTable table = new LongIntHashTable(1024);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // keep the table at about 75% load, so probe sequences overlap and wrap around
+        for (int i = 0; i < 200000; i++) {
+            long key = random.nextInt(1536) + 1;
+
+            if (random.nextBoolean()) {
+                table.put(key, i);
+                expected.put(key, i);
+            } else {
+                Integer old = expected.remove(key);
+                Assert.assertEquals(old == null ? -1 : (int) old, table.remove(key));
+            }
+        }
+
+        // no tombstones -> the table never had to grow
+        Assert.assertEquals(1024, table.capacity());
+        Assert.assertEquals(expected.size(), table.size());
+        for (long key = 1; key <= 1536; key++) {
+            Integer value = expected.get(key);
+            Assert.assertEquals(value == null ? -1 : (int) value, table.get(key));
+        }
+
+        for (long key = 1; key <= 1536; key++) {
+            table.remove(key);
+        }
+        Assert.assertTrue(table.isEmpty());
+        for (int value : table.getTable()) {
+            Assert.assertEquals(0, value);
+        }
+    }
+
+    @Test
+    public void removeIntKeys() {
+        IntHashTable intTable = new IntHashTable(8);
+        IntLongHashTable intLongTable = new IntLongHashTable(8);
+        LongHashTable longTable = new LongHashTable(8);
+
+        for (int key = 1; key <= 6; key++) {
+            intTable.put(key, key * 10);
+            intLongTable.put(key, key * 10L);
+            longTable.put(key, key * 10L);
+        }
+
+        Assert.assertEquals(30, intTable.remove(3));
+        Assert.assertEquals(30L, intLongTable.remove(3));
+        Assert.assertEquals(30L, longTable.remove(3));
+        Assert.assertEquals(-1, intTable.remove(3));
+        Assert.assertEquals(-1, intTable.get(3));
+        Assert.assertEquals(5, intTable.size());
+
+        for (int key = 1; key <= 6; key++) {
+            if (key != 3) {
+                Assert.assertEquals(key * 10, intTable.get(key));
+                Assert.assertEquals(key * 10L, intLongTable.get(key));
+                Assert.assertEquals(key * 10L, longTable.get(key));
+            }
+        }
+    }
+
+    @Test
+    public void robinHood() {
+        LongIntHashTable linear = new LongIntHashTable(1 << 12);
+        LongIntHashTable robinHood = new LongIntHashTable(1 << 12, true);
+        IntLongHashTable intLongRobinHood = new IntLongHashTable(4, true);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        Assert.assertTrue(robinHood.isRobinHood());
+        Assert.assertFalse(linear.isRobinHood());
+
+        // churn at about 75% load
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt(4600) + 1;
+
+            if (random.nextInt(3) != 0) {
+                linear.put(key, i);
+                robinHood.put(key, i);
+                expected.put(key, i);
+            } else {
+                Integer old = expected.remove(key);
+                Assert.assertEquals(old == null ? -1 : (int) old, robinHood.remove(key));
+                linear.remove(key);
+            }
+
+            intLongRobinHood.add((int) key, 1);
+        }
+
+        Assert.assertEquals(expected.size(), robinHood.size());
+        for (long key = 1; key <= 4600; key++) {
+            Integer value = expected.get(key);
+            Assert.assertEquals(value == null ? -1 : (int) value, robinHood.get(key));
+        }
+
+        int[] linearHistogram = linear.probeLengthHistogram();
+        int[] robinHoodHistogram = robinHood.probeLengthHistogram();
+        Assert.assertEquals(expected.size(), Arrays.stream(robinHoodHistogram).sum());
+        Assert.assertEquals(expected.size(), Arrays.stream(linearHistogram).sum());
+        Assert.assertTrue(maxProbeLength(robinHoodHistogram) < maxProbeLength(linearHistogram));
+
+        long total = 0;
+        for (int key = 1; key <= 4600; key++) {
+            total += Math.max(0, intLongRobinHood.get(key));
+        }
+        Assert.assertEquals(100000, total);
+    }
+
+    @Test
+    public void incrementalRehash() {
+        for (boolean robinHood : new boolean[] {false, true}) {
+            LongIntHashTable table = new LongIntHashTable(16, robinHood);
+            IntHashTable intTable = new IntHashTable(16);
+            Map<Long, Integer> expected = new HashMap<>();
+            Random random = new Random(42);
+            int capacity = table.capacity();
+
+            for (int i = 0; i < 50000; i++) {
+                long key = random.nextInt(40000) + 1;
+
+                switch (random.nextInt(4)) {
+                    case 0:
+                        Integer old = expected.remove(key);
+                        Assert.assertEquals(old == null ? -1 : (int) old, table.remove(key));
+                        intTable.remove((int) key);
+                        break;
+                    case 1:
+                        old = expected.get(key);
+                        Assert.assertEquals(old == null ? -1 : (int) old, table.add(key, 1));
+                        expected.put(key, old == null ? 1 : old + 1);
+                        intTable.add((int) key, 1);
+                        break;
+                    default:
+                        table.put(key, i);
+                        expected.put(key, i);
+                        intTable.put((int) key, i);
+                        break;
+                }
+
+                // entries are looked up in both tables while being moved
+                Assert.assertEquals(expected.size(), table.size());
+                if (table.capacity() != capacity || i % 1000 == 0) {
+                    capacity = table.capacity();
+                    for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+                        Assert.assertEquals((int) entry.getValue(), table.get(entry.getKey()));
+                        Assert.assertEquals((int) entry.getValue(), intTable.get((int) (long) entry.getKey()));
+                    }
+                }
+            }
+
+            Assert.assertEquals(expected.size(), table.convert().size());
+            Assert.assertEquals(expected.size(), intTable.size());
+        }
+
+        // a small table is full when it grows, a miss must not probe the previous table forever
+        LongHashTable small = new LongHashTable(4);
+        for (long key = 1; key <= 4; key++) {
+            small.put(key, key);
+        }
+        Assert.assertEquals(-1, small.get(5));
+        Assert.assertEquals(-1, small.remove(5));
+    }
+
+    @Test
+    public void forEachAndExport() {
+        LongIntHashTable table = new LongIntHashTable(64);
+        Map<Long, Integer> expected = new HashMap<>();
+
+        // stop right after growing, so entries are in both tables
+        int capacity = table.capacity();
+        for (long key = 1; table.capacity() == capacity; key++) {
+            table.put(key << 40, (int) key);
+            expected.put(key << 40, (int) key);
+        }
+
+        Map<Long, Integer> visited = new HashMap<>();
+        table.forEach((p_key, p_value) -> Assert.assertNull(visited.put(p_key, p_value)));
+        Assert.assertEquals(expected, visited);
+
+        long[] keys = new long[table.size() + 1];
+        int[] values = new int[table.size() + 1];
+        Assert.assertEquals(table.size(), table.exportEntries(keys, values, 1));
+        for (int i = 1; i < keys.length; i++) {
+            Assert.assertEquals((int) expected.get(keys[i]), values[i]);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + table.size() * (Long.BYTES + Integer.BYTES));
+        table.exportEntries(new ByteBufferImExporter(buffer));
+        buffer.flip();
+        Assert.assertEquals(expected.size(), buffer.getInt());
+        while (buffer.hasRemaining()) {
+            Assert.assertEquals((int) expected.get(buffer.getLong()), buffer.getInt());
+        }
+
+        GenericHashTable<String> generic = new GenericHashTable<>();
+        generic.put(1, "a");
+        generic.put(2, "b");
+        Map<Long, String> genericVisited = new HashMap<>();
+        generic.forEach(genericVisited::put);
+        Assert.assertEquals("a", genericVisited.get(1L));
+        Assert.assertEquals("b", genericVisited.get(2L));
+        String[] genericValues = generic.values(new String[3], 1);
+        Arrays.sort(genericValues, 1, 3);
+        Assert.assertArrayEquals(new String[] {null, "a", "b"}, genericValues);
+    }
+
+    @Test
+    public void exportImportAndMap() throws IOException {
+        for (boolean robinHood : new boolean[] {false, true}) {
+            LongIntHashTable table = new LongIntHashTable(16, robinHood);
+            IntLongHashTable intLongTable = new IntLongHashTable(16, robinHood);
+
+            for (int i = 1; i <= 5000; i++) {
+                table.put((long) i << 36 | i, i);
+                intLongTable.put(i * 7, (long) i << 36);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(table.sizeofObject());
+            new ByteBufferImExporter(buffer).exportObject(table);
+            Assert.assertFalse(buffer.hasRemaining());
+
+            buffer.flip();
+            LongIntHashTable imported = new LongIntHashTable();
+            new ByteBufferImExporter(buffer).importObject(imported);
+            Assert.assertEquals(robinHood, imported.isRobinHood());
+            Assert.assertEquals(table.capacity(), imported.capacity());
+            Assert.assertEquals(5000, imported.size());
+
+            File file = File.createTempFile("hashtable", ".bin");
+            file.deleteOnExit();
+            Files.write(file.toPath(), buffer.array());
+            MappedLongIntHashTable mapped = MappedLongIntHashTable.map(file);
+            Assert.assertEquals(5000, mapped.size());
+
+            ByteBuffer intLongBuffer = ByteBuffer.allocate(intLongTable.sizeofObject());
+            new ByteBufferImExporter(intLongBuffer).exportObject(intLongTable);
+            intLongBuffer.flip();
+            MappedIntLongHashTable mappedIntLong = new MappedIntLongHashTable(intLongBuffer);
+
+            for (int i = 1; i <= 5000; i++) {
+                Assert.assertEquals(i, imported.get((long) i << 36 | i));
+                Assert.assertEquals(i, mapped.get((long) i << 36 | i));
+                Assert.assertEquals((long) i << 36, mappedIntLong.get(i * 7));
+            }
+            Assert.assertEquals(-1, mapped.get(5001));
+            Assert.assertEquals(-1, mappedIntLong.get(5001 * 7));
+
+            // the imported table can be modified
+            imported.put(42, 42);
+            Assert.assertEquals(5, imported.remove(5L << 36 | 5));
+            Assert.assertEquals(42, imported.get(42));
+        }
+    }
+
+    @Test
+    public void genericChurn() {
+        GenericHashTable<Long> table = new GenericHashTable<>(16);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // grow to 2048 keys, including 0 and chunk ID like keys
+        for (long i = 0; i < 2048; i++) {
+            long key = i % 2 == 0 ? i : (i % 8 + 1) << 48 | i;
+
+            table.put(key, i);
+            expected.put(key, i);
+        }
+        int capacity = table.capacity();
+        Assert.assertEquals(4096, capacity);
+
+        // churn leaves deleted slots behind which must not make the table grow
+        for (int i = 0; i < 200000; i++) {
+            long key = random.nextInt(3000);
+
+            if (random.nextBoolean()) {
+                table.put(key, (long) i);
+                expected.put(key, (long) i);
+            } else {
+                Assert.assertEquals(expected.remove(key), table.remove(key));
+            }
+        }
+
+        Assert.assertEquals(capacity, table.capacity());
+        Assert.assertEquals(expected.size(), table.size());
+        for (long key = 0; key < 3000; key++) {
+            Assert.assertEquals(expected.get(key), table.get(key));
+        }
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            Assert.assertEquals(entry.getValue(), table.get(entry.getKey()));
+        }
+
+        Assert.assertEquals(expected.size(), table.convert().size());
+        table.clear();
+        Assert.assertTrue(table.isEmpty());
+        Assert.assertNull(table.get(0));
+    }
+
+    private static int maxProbeLength(final int[] p_histogram) {
+        int ret = 0;
+
+        for (int i = 0; i < p_histogram.length; i++) {
+            if (p_histogram[i] != 0) {
+                ret = i;
+            }
+        }
+
+        return ret;
+    }
+}
@@ -0,0 +1,83 @@
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LongLongMultiMapTest {
+    @Test
+    public void appendIterateRemove() {
+        LongLongMultiMap map = new LongLongMultiMap(4, 4);
+        Map<Long, List<Long>> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100000; i++) {
+            long key = (long) (random.nextInt(4) + 1) << 48 | random.nextInt(500) + 1;
+
+            if (random.nextInt(20) == 0) {
+                List<Long> old = expected.remove(key);
+                Assert.assertEquals(old == null ? 0 : old.size(), map.remove(key));
+            } else {
+                map.add(key, i);
+                expected.computeIfAbsent(key, p_key -> new ArrayList<>()).add((long) i);
+            }
+        }
+
+        Assert.assertEquals(expected.size(), map.size());
+        Assert.assertEquals(expected.values().stream().mapToLong(List::size).sum(), map.valueCount());
+
+        for (Map.Entry<Long, List<Long>> entry : expected.entrySet()) {
+            List<Long> values = new ArrayList<>();
+            map.forEach(entry.getKey(), values::add);
+            Assert.assertEquals(entry.getValue(), values);
+            Assert.assertEquals(values.size(), map.count(entry.getKey()));
+
+            long[] array = new long[values.size() + 1];
+            Assert.assertEquals(values.size(), map.copyValues(entry.getKey(), array, 1));
+            Assert.assertEquals((long) values.get(values.size() - 1), array[values.size()]);
+        }
+
+        long[] total = new long[1];
+        map.forEach((p_key, p_value) -> {
+            Assert.assertTrue(expected.get(p_key).contains(p_value));
+            total[0]++;
+        });
+        Assert.assertEquals(map.valueCount(), total[0]);
+
+        Assert.assertFalse(map.containsKey(12345));
+        Assert.assertEquals(0, map.count(12345));
+        Assert.assertEquals(0, map.remove(12345));
+    }
+
+    @Test
+    public void reuseSegments() {
+        LongLongMultiMap map = new LongLongMultiMap(16, 8);
+
+        for (int round = 0; round < 100; round++) {
+            for (long key = 1; key <= 16; key++) {
+                for (int i = 0; i < 50; i++) {
+                    map.add(key, key * i);
+                }
+            }
+            Assert.assertEquals(16 * 50, map.valueCount());
+
+            for (long key = 1; key <= 16; key++) {
+                Assert.assertEquals(50, map.remove(key));
+            }
+            Assert.assertTrue(map.isEmpty());
+        }
+
+        // 16 keys with 50 values need 16 * 8 segments of 8 longs, freed segments are reused
+        Assert.assertEquals(16 * 8 * 8 * Long.BYTES, map.getAllocatedMemory());
+
+        map.add(7, 7);
+        map.clear();
+        Assert.assertEquals(0, map.valueCount());
+        Assert.assertEquals(0, map.count(7));
+    }
+}
@@ -0,0 +1,75 @@
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OffHeapLongIntHashTableTest {
+    @Test
+    public void putGetAdd() {
+        try (OffHeapLongIntHashTable table = new OffHeapLongIntHashTable(4)) {
+            for (long key = 1; key <= 10000; key++) {
+                table.put(key << 40 | key, (int) key);
+            }
+
+            Assert.assertEquals(10000, table.size());
+            Assert.assertEquals(16384, table.capacity());
+            Assert.assertEquals(16384 * 12, table.getAllocatedMemory());
+
+            for (long key = 1; key <= 10000; key++) {
+                Assert.assertEquals((int) key, table.get(key << 40 | key));
+            }
+            Assert.assertEquals(-1, table.get(12345));
+
+            Assert.assertEquals(5, table.add(5L << 40 | 5, 10));
+            Assert.assertEquals(15, table.get(5L << 40 | 5));
+            Assert.assertEquals(-1, table.add(7, 3));
+            Assert.assertEquals(3, table.get(7));
+
+            table.clear();
+            Assert.assertTrue(table.isEmpty());
+            Assert.assertEquals(-1, table.get(7));
+        }
+    }
+
+    @Test
+    public void removeUnderChurn() {
+        OffHeapLongIntHashTable table = new OffHeapLongIntHashTable(1024);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt(1536) + 1;
+
+            if (random.nextBoolean()) {
+                table.put(key, i);
+                expected.put(key, i);
+            } else {
+                Integer old = expected.remove(key);
+                Assert.assertEquals(old == null ? -1 : (int) old, table.remove(key));
+            }
+        }
+
+        Assert.assertEquals(1024, table.capacity());
+        Assert.assertEquals(expected.size(), table.size());
+        for (long key = 1; key <= 1536; key++) {
+            Integer value = expected.get(key);
+            Assert.assertEquals(value == null ? -1 : (int) value, table.get(key));
+        }
+
+        Map<Long, Integer> visited = new HashMap<>();
+        table.forEach(visited::put);
+        Assert.assertEquals(expected, visited);
+
+        long[] keys = new long[(int) table.size()];
+        Assert.assertEquals(keys.length, table.exportEntries(keys, null, 0));
+        for (long key : keys) {
+            Assert.assertTrue(expected.containsKey(key));
+        }
+
+        table.free();
+    }
+}
@@ -0,0 +1,214 @@
+package de.hhu.bsinfo.dxutils.serialization;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.hhu.bsinfo.dxutils.ArrayListLong;
+import de.hhu.bsinfo.dxutils.LongRangeSet;
+import de.hhu.bsinfo.dxutils.hashtable.LongHashTable;
+import de.hhu.bsinfo.dxutils.hashtable.LongIntHashTable;
+
+public class ChunkedByteBufferImExporterTest {
+    @Test
+    public void arrayListLong() {
+        ArrayListLong list = new ArrayListLong();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100000; i++) {
+            list.add(random.nextLong());
+        }
+
+        ByteBuffer expected = ByteBuffer.allocate(list.sizeofObject());
+        new ByteBufferImExporter(expected).exportObject(list);
+
+        // Buffer sizes not divisible by the size of a long split longs between two buffers
+        for (int bufferSize : new int[] {4096, 4093, 5}) {
+            byte[] stream = export(list, bufferSize);
+            Assert.assertArrayEquals(expected.array(), stream);
+
+            ArrayListLong imported = new ArrayListLong();
+            Assert.assertEquals(stream.length, importFrom(imported, stream, bufferSize));
+            Assert.assertEquals(list, imported);
+        }
+    }
+
+    @Test
+    public void mixedTypes() {
+        Mixed object = new Mixed();
+        object.m_bool = true;
+        object.m_short = -12345;
+        object.m_int = 0xCAFEBABE;
+        object.m_double = Math.PI;
+        object.m_string = "chunked";
+        object.m_ints = new int[300];
+        for (int i = 0; i < object.m_ints.length; i++) {
+            object.m_ints[i] = i * 7919;
+        }
+        object.m_long = -42;
+
+        ByteBuffer expected = ByteBuffer.allocate(object.sizeofObject());
+        new ByteBufferImExporter(expected).exportObject(object);
+
+        for (int bufferSize = 1; bufferSize <= 17; bufferSize++) {
+            byte[] stream = export(object, bufferSize);
+            Assert.assertArrayEquals(expected.array(), stream);
+
+            Mixed imported = new Mixed();
+            importFrom(imported, stream, bufferSize);
+            Assert.assertTrue(imported.m_bool);
+            Assert.assertEquals(object.m_short, imported.m_short);
+            Assert.assertEquals(object.m_int, imported.m_int);
+            Assert.assertEquals(object.m_double, imported.m_double, 0);
+            Assert.assertEquals(object.m_string, imported.m_string);
+            Assert.assertArrayEquals(object.m_ints, imported.m_ints);
+            Assert.assertEquals(object.m_long, imported.m_long);
+        }
+    }
+
+    @Test
+    public void resumableImportables() {
+        LongHashTable table = new LongHashTable(16);
+        LongIntHashTable robinHood = new LongIntHashTable(16, true);
+        LongRangeSet set = new LongRangeSet();
+        Random random = new Random(42);
+        long start = 1;
+
+        for (long key = 1; key <= 1000; key++) {
+            table.put(key * 31, key);
+            robinHood.put(key * 31, (int) key);
+        }
+
+        // Large gaps need varlongs of up to 10 bytes
+        for (int i = 0; i < 200; i++) {
+            start += random.nextInt(4) == 0 ? random.nextLong() >>> 2 + random.nextInt(62) : random.nextInt(100);
+            if (start < 0 || start > Long.MAX_VALUE - 1000) {
+                break;
+            }
+            set.addRange(start, start + random.nextInt(1000));
+            start = set.getRangeEnd(set.getRangeCount() - 1) + 2;
+        }
+
+        for (int bufferSize : new int[] {1, 7, 100}) {
+            LongHashTable importedTable = new LongHashTable();
+            LongIntHashTable importedRobinHood = new LongIntHashTable();
+            LongRangeSet importedSet = new LongRangeSet();
+
+            importedSet.addRange(5, 5000);
+
+            importFrom(importedTable, export(table, bufferSize), bufferSize);
+            importFrom(importedRobinHood, export(robinHood, bufferSize), bufferSize);
+            importFrom(importedSet, export(set, bufferSize), bufferSize);
+
+            Assert.assertEquals(table.size(), importedTable.size());
+            Assert.assertEquals(robinHood.size(), importedRobinHood.size());
+            Assert.assertTrue(importedRobinHood.isRobinHood());
+            for (long key = 1; key <= 1000; key++) {
+                Assert.assertEquals(key, importedTable.get(key * 31));
+                Assert.assertEquals(key, importedRobinHood.get(key * 31));
+            }
+            Assert.assertEquals(set, importedSet);
+            Assert.assertEquals(set.getSize(), importedSet.getSize());
+        }
+    }
+
+    @Test
+    public void notResumable() {
+        ArrayListLong list = new ArrayListLong();
+        ChunkedByteBufferImExporter exporter = new ChunkedByteBufferImExporter(ByteBuffer.allocate(16));
+
+        for (int i = 0; i < 10; i++) {
+            list.add(i);
+        }
+        exporter.exportObject(list);
+        Assert.assertFalse(exporter.isFinished());
+
+        // Shrinking the object between two buffers must not produce a corrupt stream
+        list.removeRange(0, 10);
+        exporter.setBuffer(ByteBuffer.allocate(16));
+        try {
+            exporter.exportObject(list);
+            Assert.fail("Exception expected");
+        } catch (final RuntimeException ignored) {
+        }
+
+        // The exporter starts a new object
+        exporter.setBuffer(ByteBuffer.allocate(16));
+        exporter.exportObject(list);
+        Assert.assertTrue(exporter.isFinished());
+    }
+
+    private static byte[] export(final Exportable p_object, final int p_bufferSize) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(p_bufferSize);
+        ChunkedByteBufferImExporter exporter = new ChunkedByteBufferImExporter();
+
+        do {
+            buffer.clear();
+            exporter.setBuffer(buffer);
+            exporter.exportObject(p_object);
+            out.write(buffer.array(), 0, buffer.position());
+        } while (!exporter.isFinished());
+
+        return out.toByteArray();
+    }
+
+    private static int importFrom(final Importable p_object, final byte[] p_stream, final int p_bufferSize) {
+        ChunkedByteBufferImExporter importer = new ChunkedByteBufferImExporter();
+        int offset = 0;
+        int buffers = 0;
+
+        do {
+            int length = Math.min(p_bufferSize, p_stream.length - offset);
+            ByteBuffer buffer = ByteBuffer.wrap(p_stream, offset, length);
+            importer.setBuffer(buffer);
+            importer.importObject(p_object);
+            offset += length;
+            buffers++;
+            Assert.assertTrue(buffers <= p_stream.length);
+        } while (!importer.isFinished());
+
+        return offset;
+    }
+
+    private static final class Mixed implements Importable, Exportable {
+        private boolean m_bool;
+        private short m_short;
+        private int m_int;
+        private double m_double;
+        private String m_string;
+        private int[] m_ints;
+        private long m_long;
+
+        @Override
+        public void exportObject(final Exporter p_exporter) {
+            p_exporter.writeBoolean(m_bool);
+            p_exporter.writeShort(m_short);
+            p_exporter.writeInt(m_int);
+            p_exporter.writeDouble(m_double);
+            p_exporter.writeString(m_string);
+            p_exporter.writeIntArray(m_ints);
+            p_exporter.writeLong(m_long);
+        }
+
+        @Override
+        public void importObject(final Importer p_importer) {
+            m_bool = p_importer.readBoolean(m_bool);
+            m_short = p_importer.readShort(m_short);
+            m_int = p_importer.readInt(m_int);
+            m_double = p_importer.readDouble(m_double);
+            m_string = p_importer.readString(m_string);
+            m_ints = p_importer.readIntArray(m_ints);
+            m_long = p_importer.readLong(m_long);
+        }
+
+        @Override
+        public int sizeofObject() {
+            return 1 + Short.BYTES + Integer.BYTES + Double.BYTES + ObjectSizeUtil.sizeofString(m_string) +
+                    ObjectSizeUtil.sizeofIntArray(m_ints) + Long.BYTES;
+        }
+    }
+}